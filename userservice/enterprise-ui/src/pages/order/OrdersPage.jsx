@@ -44,7 +44,7 @@ export default function OrdersPage() {
     resetFeedback();
     try {
       const res = await getMyOrders();
-      setMyOrders(unwrap(res));
+      setMyOrders(unwrap(res)?.orders ?? []);
     } catch (err) {
       setError(err.message);
     }
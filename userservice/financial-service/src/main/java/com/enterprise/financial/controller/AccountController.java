@@ -5,12 +5,16 @@ import com.enterprise.financial.dto.CreateAccountRequest;
 import com.enterprise.financial.service.FinancialService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/accounts")
@@ -38,10 +42,19 @@ public class AccountController {
         return ResponseEntity.ok(accounts);
     }
 
+    /**
+     * A matching If-None-Match is answered with 304 from the account's version, without loading it
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<AccountDTO> getAccountById(@PathVariable Long id) {
+    public ResponseEntity<AccountDTO> getAccountById(@PathVariable Long id, HttpServletRequest request) {
         log.debug("GET /api/accounts/{}", id);
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<String> eTag = financialService.getAccountVersion(id).map(String::valueOf);
+            if (eTag.isPresent() && new ServletWebRequest(request).checkNotModified(eTag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag.get()).build();
+            }
+        }
         AccountDTO account = financialService.getAccountById(id);
-        return ResponseEntity.ok(account);
+        return ResponseEntity.ok().eTag(String.valueOf(account.getVersion())).body(account);
     }
 }
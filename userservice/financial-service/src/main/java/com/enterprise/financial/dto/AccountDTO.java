@@ -10,18 +10,20 @@ public class AccountDTO {
     private String accountNumber;
     private BigDecimal balance;
     private String currency;
+    private Long version;
 
     public AccountDTO() {
     }
 
     public AccountDTO(Long id, Long userId, String accountType, String accountNumber,
-                      BigDecimal balance, String currency) {
+                      BigDecimal balance, String currency, Long version) {
         this.id = id;
         this.userId = userId;
         this.accountType = accountType;
         this.accountNumber = accountNumber;
         this.balance = balance;
         this.currency = currency;
+        this.version = version;
     }
 
     public Long getId() {
@@ -71,4 +73,12 @@ public class AccountDTO {
     public void setCurrency(String currency) {
         this.currency = currency;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -2,12 +2,18 @@ package com.enterprise.financial.repository;
 
 import com.enterprise.financial.entity.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
 
     List<Account> findByUserId(Long userId);
+
+    @Query("SELECT a.version FROM Account a WHERE a.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 }
@@ -16,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -88,6 +89,15 @@ public class FinancialService {
         return toAccountDTO(account);
     }
 
+    /**
+     * Current version of an account, without loading it; used to answer conditional GETs
+     */
+    @Transactional(readOnly = true)
+    @CircuitBreaker(name = "financialService")
+    public Optional<Long> getAccountVersion(Long id) {
+        return accountRepository.findVersionById(id);
+    }
+
     @Transactional
     @CircuitBreaker(name = "financialService")
     public TransactionDTO createTransaction(CreateTransactionRequest request) {
@@ -150,7 +160,8 @@ public class FinancialService {
                 account.getAccountType(),
                 account.getAccountNumber(),
                 account.getBalance(),
-                account.getCurrency()
+                account.getCurrency(),
+                account.getVersion()
         );
     }
 
@@ -140,6 +140,33 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.currency", is("EUR")));
     }
 
+    @Test
+    void getAccountById_matchingETag_returns304() throws Exception {
+        Account account = new Account();
+        account.setUserId(400L);
+        account.setAccountType("CHECKING");
+        account.setAccountNumber("ACCT000000000004");
+        account.setBalance(new BigDecimal("10.00"));
+        account.setCurrency("USD");
+        Account saved = accountRepository.save(account);
+
+        String eTag = mockMvc.perform(get("/api/accounts/" + saved.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/accounts/" + saved.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        saved.setBalance(new BigDecimal("20.00"));
+        accountRepository.save(saved);
+
+        mockMvc.perform(get("/api/accounts/" + saved.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance", is(20.0)));
+    }
+
     @Test
     void getAccountById_notFound_throwsException() {
         org.junit.jupiter.api.Assertions.assertThrows(Exception.class, () ->
@@ -5,10 +5,15 @@ import com.enterprise.health.dto.HealthRecordDTO;
 import com.enterprise.health.service.HealthService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/health-records")
@@ -29,11 +34,20 @@ public class HealthRecordController {
         return ResponseEntity.ok(dto);
     }
 
+    /**
+     * A matching If-None-Match is answered with 304 from the record's version, without loading it
+     */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<HealthRecordDTO> getByUserId(@PathVariable Long userId) {
+    public ResponseEntity<HealthRecordDTO> getByUserId(@PathVariable Long userId, HttpServletRequest request) {
         log.debug("GET /api/health-records/user/{}", userId);
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<String> eTag = healthService.getHealthRecordVersion(userId).map(String::valueOf);
+            if (eTag.isPresent() && new ServletWebRequest(request).checkNotModified(eTag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag.get()).build();
+            }
+        }
         return healthService.getHealthRecordByUserId(userId)
-                .map(ResponseEntity::ok)
+                .map(record -> ResponseEntity.ok().eTag(String.valueOf(record.getVersion())).body(record))
                 .orElse(ResponseEntity.notFound().build());
     }
 }
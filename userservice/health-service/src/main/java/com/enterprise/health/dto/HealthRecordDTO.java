@@ -16,13 +16,15 @@ public class HealthRecordDTO {
     private LocalDate lastCheckupDate;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 
     public HealthRecordDTO() {
     }
 
     public HealthRecordDTO(Long id, Long userId, String bloodType, Double heightCm, Double weightKg,
                            String allergies, String conditions, String medications,
-                           LocalDate lastCheckupDate, LocalDateTime createdAt, LocalDateTime updatedAt) {
+                           LocalDate lastCheckupDate, LocalDateTime createdAt, LocalDateTime updatedAt,
+                           Long version) {
         this.id = id;
         this.userId = userId;
         this.bloodType = bloodType;
@@ -34,6 +36,7 @@ public class HealthRecordDTO {
         this.lastCheckupDate = lastCheckupDate;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
+        this.version = version;
     }
 
     public Long getId() {
@@ -123,4 +126,12 @@ public class HealthRecordDTO {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
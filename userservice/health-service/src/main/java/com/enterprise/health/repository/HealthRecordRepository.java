@@ -2,10 +2,15 @@ package com.enterprise.health.repository;
 
 import com.enterprise.health.entity.HealthRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface HealthRecordRepository extends JpaRepository<HealthRecord, Long> {
 
     Optional<HealthRecord> findByUserId(Long userId);
+
+    @Query("SELECT r.version FROM HealthRecord r WHERE r.userId = :userId")
+    Optional<Long> findVersionByUserId(@Param("userId") Long userId);
 }
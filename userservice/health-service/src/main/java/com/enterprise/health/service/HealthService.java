@@ -79,6 +79,15 @@ public class HealthService {
                 .map(this::toHealthRecordDTO);
     }
 
+    /**
+     * Current version of a user's health record, without loading it; used to answer conditional GETs
+     */
+    @Transactional(readOnly = true)
+    @CircuitBreaker(name = "healthService")
+    public Optional<Long> getHealthRecordVersion(Long userId) {
+        return healthRecordRepository.findVersionByUserId(userId);
+    }
+
     @Transactional
     @CircuitBreaker(name = "healthService")
     public VitalDTO recordVital(CreateVitalRequest request) {
@@ -127,7 +136,8 @@ public class HealthService {
                 record.getMedications(),
                 record.getLastCheckupDate(),
                 record.getCreatedAt(),
-                record.getUpdatedAt()
+                record.getUpdatedAt(),
+                record.getVersion()
         );
     }
 
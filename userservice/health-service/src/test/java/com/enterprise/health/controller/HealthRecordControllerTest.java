@@ -141,6 +141,38 @@ class HealthRecordControllerTest {
                 .andExpect(jsonPath("$.allergies", is("None")));
     }
 
+    @Test
+    void getHealthRecordByUserId_matchingETag_returns304() throws Exception {
+        CreateHealthRecordRequest request = new CreateHealthRecordRequest();
+        request.setUserId(4L);
+        request.setBloodType("AB+");
+
+        mockMvc.perform(post("/api/health-records")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        String eTag = mockMvc.perform(get("/api/health-records/user/4"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/health-records/user/4").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // An update bumps the version, so the old ETag no longer matches
+        request.setBloodType("AB-");
+        mockMvc.perform(post("/api/health-records")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/health-records/user/4").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bloodType", is("AB-")));
+    }
+
     @Test
     void getHealthRecordByUserId_notFound() throws Exception {
         mockMvc.perform(get("/api/health-records/user/999"))
@@ -4,10 +4,12 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = {"com.secure.order", "com.secure.common"})
 @EnableEurekaClient
 @EnableFeignClients
+@EnableScheduling
 public class OrderServiceApplication {
 
     public static void main(String[] args) {
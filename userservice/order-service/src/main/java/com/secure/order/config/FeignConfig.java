@@ -17,14 +17,16 @@ public class FeignConfig {
         return requestTemplate -> {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-            if (authentication != null && authentication.getPrincipal() instanceof Jwt) {
+            if (requestTemplate.headers().containsKey("Authorization")) {
+                log.debug("Feign request already carries its own Authorization");
+            } else if (authentication != null && authentication.getPrincipal() instanceof Jwt) {
                 Jwt jwt = (Jwt) authentication.getPrincipal();
                 String token = jwt.getTokenValue();
 
                 log.debug("Adding JWT token to Feign request");
                 requestTemplate.header("Authorization", "Bearer " + token);
             } else {
-                log.warn("No JWT token found in SecurityContext for Feign request");
+                log.debug("No JWT token in SecurityContext, sending Feign request without Authorization");
             }
         };
     }
@@ -36,6 +36,7 @@ public class SecurityConfig {
             .authorizeRequests(authorize -> authorize
                 .antMatchers("/actuator/**", "/h2-console/**").permitAll()
                 .antMatchers("/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**", "/webjars/**").permitAll()
+                .antMatchers("/orders/analytics/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
             .oauth2ResourceServer(oauth2 -> oauth2
@@ -0,0 +1,115 @@
+package com.secure.order.controller;
+
+import com.secure.common.dto.ApiResponse;
+import com.secure.order.service.OrderRollupBackfill;
+import com.secure.order.service.OrderRollupService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+/**
+ * Order analytics for dashboards, served from the pre-aggregated rollups.
+ * Admin only (see SecurityConfig).
+ */
+@RestController
+@RequestMapping("/orders/analytics")
+@Slf4j
+public class OrderAnalyticsController {
+
+    @Autowired
+    private OrderRollupService orderRollupService;
+
+    @Autowired
+    private OrderRollupBackfill orderRollupBackfill;
+
+    /**
+     * Order count, revenue and average basket per day and status
+     */
+    @GetMapping("/daily")
+    public ResponseEntity<ApiResponse> getDailyRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String status) {
+        log.info("GET /orders/analytics/daily - from={}, to={}, status={}", from, to, status);
+        try {
+            return ResponseEntity.ok(ApiResponse.builder()
+                    .success(true)
+                    .message("Daily order rollups retrieved successfully")
+                    .data(orderRollupService.getDailyRollups(from, to, status))
+                    .build());
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+    }
+
+    /**
+     * Order count, quantity and revenue per day, status and product
+     */
+    @GetMapping("/products")
+    public ResponseEntity<ApiResponse> getProductRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) String status) {
+        log.info("GET /orders/analytics/products - from={}, to={}, productId={}, status={}",
+                from, to, productId, status);
+        try {
+            return ResponseEntity.ok(ApiResponse.builder()
+                    .success(true)
+                    .message("Product order rollups retrieved successfully")
+                    .data(orderRollupService.getProductRollups(from, to, productId, status))
+                    .build());
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the rollups of a date range (default: the first order date to yesterday) from the orders
+     * table in the background
+     */
+    @PostMapping("/backfill")
+    public ResponseEntity<ApiResponse> startBackfill(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("POST /orders/analytics/backfill - from={}, to={}", from, to);
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.builder()
+                            .success(true)
+                            .message("Rollup backfill started")
+                            .data(orderRollupBackfill.start(from, to))
+                            .build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build());
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+    }
+
+    @GetMapping("/backfill")
+    public ResponseEntity<ApiResponse> getBackfillStatus() {
+        return ResponseEntity.ok(ApiResponse.builder()
+                .success(true)
+                .message("Rollup backfill status retrieved successfully")
+                .data(orderRollupBackfill.getStatus())
+                .build());
+    }
+
+    private static ResponseEntity<ApiResponse> badRequest(String message) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.builder()
+                        .success(false)
+                        .message(message)
+                        .build());
+    }
+}
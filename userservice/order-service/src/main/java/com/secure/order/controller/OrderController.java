@@ -1,19 +1,26 @@
 package com.secure.order.controller;
 
 import com.secure.common.dto.ApiResponse;
+import com.secure.common.exception.ForbiddenException;
 import com.secure.order.dto.CreateOrderRequest;
 import com.secure.order.dto.OrderDTO;
+import com.secure.order.dto.OrderPageDTO;
+import com.secure.order.service.IdempotencyService;
+import com.secure.order.service.OrderArchiveService;
+import com.secure.order.service.OrderEventBus;
+import com.secure.order.service.OrderMetrics;
 import com.secure.order.service.OrderService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.validation.Valid;
-import java.util.List;
 
 @RestController
 @RequestMapping("/orders")
@@ -23,19 +30,56 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderMetrics orderMetrics;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderEventBus orderEventBus;
+
+    /**
+     * Create an order. With an Idempotency-Key header, retries of the same request return the
+     * stored response of the first one instead of creating another order.
+     */
     @PostMapping
-    public ResponseEntity<ApiResponse> createOrder(@Valid @RequestBody CreateOrderRequest request) {
+    public ResponseEntity<ApiResponse> createOrder(@Valid @RequestBody CreateOrderRequest request,
+                                                   @RequestHeader(value = IdempotencyService.HEADER, required = false)
+                                                   String idempotencyKey,
+                                                   Authentication authentication) {
+        if (idempotencyKey == null) {
+            return doCreateOrder(request);
+        }
+        return idempotencyService.execute(authentication.getName(), idempotencyKey, request,
+                () -> doCreateOrder(request));
+    }
+
+    private ResponseEntity<ApiResponse> doCreateOrder(CreateOrderRequest request) {
         log.info("Received request to create order for user: {}", request.getUserId());
+        long started = System.nanoTime();
         try {
-            String jwt = orderService.extractJwtFromSecurityContext();
-            OrderDTO order = orderService.createOrder(request, jwt);
+            OrderDTO order = orderService.createOrder(request);
+            orderMetrics.recordCreate(request.getItems().size(), System.nanoTime() - started, true);
             ApiResponse response = ApiResponse.builder()
                     .success(true)
                     .message("Order created successfully")
                     .data(order)
                     .build();
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (ForbiddenException e) {
+            orderMetrics.recordCreate(request.getItems().size(), System.nanoTime() - started, false);
+            log.warn("Order refused: {}", e.getMessage());
+            ApiResponse response = ApiResponse.builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build();
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
         } catch (Exception e) {
+            orderMetrics.recordCreate(request.getItems().size(), System.nanoTime() - started, false);
             log.error("Error creating order: {}", e.getMessage(), e);
             ApiResponse response = ApiResponse.builder()
                     .success(false)
@@ -45,14 +89,19 @@ public class OrderController {
         }
     }
 
+    /**
+     * The current user's orders, newest first, one page at a time
+     */
     @GetMapping
-    public ResponseEntity<ApiResponse> getCurrentUserOrders(Authentication authentication) {
+    public ResponseEntity<ApiResponse> getCurrentUserOrders(Authentication authentication,
+                                                            @RequestParam(required = false) Long cursor,
+                                                            @RequestParam(required = false) Integer limit) {
         try {
             Jwt jwt = (Jwt) authentication.getPrincipal();
             Long userId = jwt.getClaim("userId");
 
             log.info("Fetching orders for current user: {}", userId);
-            List<OrderDTO> orders = orderService.getOrdersByUserId(userId);
+            OrderPageDTO orders = orderService.getOrderHistory(userId, cursor, limit);
 
             ApiResponse response = ApiResponse.builder()
                     .success(true)
@@ -70,6 +119,73 @@ public class OrderController {
         }
     }
 
+    /**
+     * Server-sent events with the status changes of the current user's orders, one
+     * {@code order-status} event per change
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrderStatus(Authentication authentication) {
+        Jwt jwt = (Jwt) authentication.getPrincipal();
+        Long userId = jwt.getClaim("userId");
+        try {
+            return ResponseEntity.ok(orderEventBus.subscribe(userId));
+        } catch (IllegalStateException e) {
+            log.warn("Refusing order stream for user {}: {}", userId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * The current user's archived orders, newest first, one page at a time
+     */
+    @GetMapping("/archive")
+    public ResponseEntity<ApiResponse> getCurrentUserArchivedOrders(Authentication authentication,
+                                                                    @RequestParam(required = false) Long cursor,
+                                                                    @RequestParam(required = false) Integer limit) {
+        try {
+            Jwt jwt = (Jwt) authentication.getPrincipal();
+            Long userId = jwt.getClaim("userId");
+
+            log.info("Fetching archived orders for current user: {}", userId);
+            OrderPageDTO orders = orderArchiveService.getArchivedHistory(userId, cursor, limit);
+
+            ApiResponse response = ApiResponse.builder()
+                    .success(true)
+                    .message("Archived orders retrieved successfully")
+                    .data(orders)
+                    .build();
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error fetching archived orders: {}", e.getMessage(), e);
+            ApiResponse response = ApiResponse.builder()
+                    .success(false)
+                    .message("Failed to fetch archived orders: " + e.getMessage())
+                    .build();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/archive/{id}")
+    public ResponseEntity<ApiResponse> getArchivedOrderById(@PathVariable Long id) {
+        log.info("Fetching archived order with ID: {}", id);
+        try {
+            OrderDTO order = orderArchiveService.getArchivedOrder(id);
+            ApiResponse response = ApiResponse.builder()
+                    .success(true)
+                    .message("Archived order retrieved successfully")
+                    .data(order)
+                    .build();
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error fetching archived order: {}", e.getMessage(), e);
+            ApiResponse response = ApiResponse.builder()
+                    .success(false)
+                    .message("Failed to fetch archived order: " + e.getMessage())
+                    .build();
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse> getOrderById(@PathVariable Long id) {
         log.info("Fetching order with ID: {}", id);
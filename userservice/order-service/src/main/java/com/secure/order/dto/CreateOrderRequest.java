@@ -18,7 +18,9 @@ import java.util.List;
 @Builder
 public class CreateOrderRequest {
 
-    @NotNull(message = "User ID is required")
+    /**
+     * Defaults to the caller; only admins may name another user
+     */
     private Long userId;
 
     @NotEmpty(message = "Order items cannot be empty")
@@ -0,0 +1,22 @@
+package com.secure.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a user's orders, newest first. Pass {@code nextCursor} as {@code cursor} to get the
+ * next page; it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderPageDTO {
+
+    private List<OrderDTO> orders;
+    private Long nextCursor;
+}
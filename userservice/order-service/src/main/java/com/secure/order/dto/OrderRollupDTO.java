@@ -0,0 +1,25 @@
+package com.secure.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Orders created on one day that are now in one status
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderRollupDTO {
+
+    private LocalDate date;
+    private String status;
+    private Long orderCount;
+    private BigDecimal revenue;
+    private BigDecimal averageBasket;
+}
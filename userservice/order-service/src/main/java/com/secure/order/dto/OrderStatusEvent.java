@@ -0,0 +1,25 @@
+package com.secure.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order status change pushed to GET /orders/stream subscribers
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStatusEvent {
+
+    private Long orderId;
+    private Long userId;
+    private String previousStatus; // null for a new order
+    private String status;
+    private LocalDateTime changedAt;
+
+}
@@ -0,0 +1,19 @@
+package com.secure.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch product lookup result received from product-service via Feign.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchInfo {
+    private Map<Long, ProductInfo> products;
+    private List<Long> notFound;
+}
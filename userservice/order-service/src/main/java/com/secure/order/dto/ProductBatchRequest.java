@@ -0,0 +1,19 @@
+package com.secure.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Batch product lookup request sent to product-service.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductBatchRequest {
+    private List<Long> ids;
+}
@@ -0,0 +1,26 @@
+package com.secure.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sales of one product in orders created on one day that are now in one status
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductRollupDTO {
+
+    private LocalDate date;
+    private String status;
+    private Long productId;
+    private Long orderCount;
+    private Long quantity;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,28 @@
+package com.secure.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the last rollup backfill
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RollupBackfillStatus {
+
+    private String state; // RUNNING, COMPLETED, FAILED
+    private LocalDate from;
+    private LocalDate to;
+    private int chunks;
+    private int completedChunks;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
@@ -0,0 +1,22 @@
+package com.secure.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Stock hold for an order, sent to product-service; applied all-or-nothing.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservationRequest {
+
+    private Long orderId;
+    private Long ttlSeconds;
+    private List<StockDecrementRequest.Item> items;
+}
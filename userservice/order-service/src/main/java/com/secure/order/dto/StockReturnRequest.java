@@ -0,0 +1,20 @@
+package com.secure.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Cancelled orders whose stock product-service should give back; safe to repeat.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReturnRequest {
+
+    private List<Long> orderIds;
+}
@@ -0,0 +1,20 @@
+package com.secure.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch profile lookup result received from user-service via Feign; only the found userIds
+ * (the profile keys) and notFound are used.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchInfo {
+    private Map<Long, Object> profiles;
+    private List<Long> notFound;
+}
@@ -0,0 +1,68 @@
+package com.secure.order.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Outbox Event Entity
+ * A side effect of an order write, stored in the same transaction as the order and delivered
+ * to the owning service by the outbox relay after commit.
+ */
+@Entity
+@Table(name = "order_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    public static final String STOCK_RESERVATION = "STOCK_RESERVATION";
+    public static final String STOCK_RETURN = "STOCK_RETURN";
+
+    public static final String PENDING = "PENDING";
+    public static final String SENT = "SENT";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
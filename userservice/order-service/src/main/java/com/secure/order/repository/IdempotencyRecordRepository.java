@@ -0,0 +1,56 @@
+package com.secure.order.repository;
+
+import com.secure.order.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Idempotency Record Repository
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    /**
+     * Look up a key through the (principal, idempotency_key) unique index
+     */
+    Optional<IdempotencyRecord> findByPrincipalAndIdempotencyKey(String principal, String idempotencyKey);
+
+    /**
+     * Store the response of a completed request
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE IdempotencyRecord r SET r.status = 'COMPLETED', r.responseStatus = :responseStatus, "
+            + "r.responseBody = :responseBody WHERE r.id = :id")
+    int complete(@Param("id") Long id,
+                 @Param("responseStatus") int responseStatus,
+                 @Param("responseBody") String responseBody);
+
+    /**
+     * Delete a record only if it was not completed in the meantime
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.status = 'IN_PROGRESS'")
+    int deleteInProgress(@Param("id") Long id);
+
+    /**
+     * Delete an expired or abandoned record so that its key can be used again
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id")
+    int remove(@Param("id") Long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
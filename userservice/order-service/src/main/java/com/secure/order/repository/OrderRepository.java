@@ -1,16 +1,83 @@
 package com.secure.order.repository;
 
 import com.secure.order.entity.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
     List<Order> findByUserId(Long userId);
 
+    /**
+     * Order columns of one history page: the user's orders with an id below {@code before},
+     * newest first, without loading entities or their items
+     */
+    @Query("SELECT o.id AS id, o.userId AS userId, o.status AS status, o.totalAmount AS totalAmount, "
+            + "o.createdAt AS createdAt FROM Order o WHERE o.userId = :userId AND o.id < :before ORDER BY o.id DESC")
+    List<OrderView> findHistoryPage(@Param("userId") Long userId,
+                                    @Param("before") Long before,
+                                    Pageable pageable);
+
+    /**
+     * Items of many orders in one query
+     */
+    @Query("SELECT i.order.id AS orderId, i.id AS id, i.productId AS productId, i.quantity AS quantity, "
+            + "i.price AS price FROM OrderItem i WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<OrderItemView> findItemsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
     List<Order> findByStatus(String status);
 
+    @Query("SELECT o.status FROM Order o WHERE o.id = :id")
+    Optional<String> findStatusById(@Param("id") Long id);
+
+    /**
+     * Move an order from one status to another only if it is still in {@code from}; the outbox
+     * relay and a concurrent cancel race on PENDING orders and only one of them wins
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :now WHERE o.id = :id AND o.status = :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") String from,
+                   @Param("to") String to,
+                   @Param("now") LocalDateTime now);
+
+    interface OrderView {
+
+        Long getId();
+
+        Long getUserId();
+
+        String getStatus();
+
+        BigDecimal getTotalAmount();
+
+        LocalDateTime getCreatedAt();
+    }
+
+    interface OrderItemView {
+
+        Long getOrderId();
+
+        Long getId();
+
+        Long getProductId();
+
+        Integer getQuantity();
+
+        BigDecimal getPrice();
+    }
+
 }
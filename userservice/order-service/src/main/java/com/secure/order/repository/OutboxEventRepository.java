@@ -0,0 +1,73 @@
+package com.secure.order.repository;
+
+import com.secure.order.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Outbox Event Repository
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Find events in the given status that are due at {@code now}, oldest first
+     */
+    List<OutboxEvent> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(String status, LocalDateTime now,
+                                                                           Pageable pageable);
+
+    /**
+     * Take a due event by pushing its next attempt to {@code leaseUntil}. Relays on other
+     * replicas see it as not due anymore; only the caller that gets 1 back delivers it.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.nextAttemptAt = :leaseUntil "
+            + "WHERE e.id = :id AND e.status = 'PENDING' AND e.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Record a failed attempt and when to try again
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, "
+            + "e.lastError = :error WHERE e.id = :id")
+    int retryLater(@Param("id") Long id,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    /**
+     * Move an event to a final status (SENT, REJECTED or FAILED)
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.attempts = e.attempts + 1, e.processedAt = :now, "
+            + "e.lastError = :error WHERE e.id = :id")
+    int complete(@Param("id") Long id,
+                 @Param("status") String status,
+                 @Param("now") LocalDateTime now,
+                 @Param("error") String error);
+
+    /**
+     * Ids of events in the given statuses processed before {@code before}, oldest first
+     */
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.status IN :statuses AND e.processedAt < :before "
+            + "ORDER BY e.id")
+    List<Long> findIdsProcessedBefore(@Param("statuses") Collection<String> statuses,
+                                      @Param("before") LocalDateTime before,
+                                      Pageable pageable);
+
+    long countByStatus(String status);
+}
@@ -0,0 +1,47 @@
+package com.secure.order.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor for the downstream calls that validate an order (user check, product lookups).
+ * Bounded in threads and queue: when it is full, new calls are rejected and the order fails fast
+ * instead of queueing behind slow dependencies. Tasks run with the submitting request's security
+ * context so that the Feign interceptor can forward its JWT.
+ * Not exposed as an Executor bean, which would replace Spring Boot's application task executor.
+ */
+@Component
+public class DownstreamCallExecutor implements DisposableBean {
+
+    private final ExecutorService executor;
+
+    public DownstreamCallExecutor(@Value("${order.validation.threads:16}") int threads,
+                                  @Value("${order.validation.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("order-validation-"));
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = new DelegatingSecurityContextExecutorService(pool);
+    }
+
+    DownstreamCalls newCalls() {
+        return new DownstreamCalls(executor);
+    }
+
+    Executor executor() {
+        return executor;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
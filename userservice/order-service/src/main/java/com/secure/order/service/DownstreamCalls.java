@@ -0,0 +1,69 @@
+package com.secure.order.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Independent downstream calls run concurrently under one deadline.
+ * {@link #awaitAll} returns once every call succeeded; the first failure, or the deadline,
+ * cancels (interrupts) the calls still running and is rethrown.
+ */
+class DownstreamCalls {
+
+    private final CompletionService<Object> completion;
+    private final List<Future<Object>> futures = new ArrayList<>();
+
+    DownstreamCalls(ExecutorService executor) {
+        this.completion = new ExecutorCompletionService<>(executor);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> Future<T> submit(Callable<T> call) {
+        try {
+            Future<Object> future = completion.submit((Callable<Object>) call);
+            futures.add(future);
+            return (Future<T>) future;
+        } catch (RejectedExecutionException e) {
+            cancelAll();
+            throw new RuntimeException("Too many orders being validated, try again later");
+        }
+    }
+
+    void awaitAll(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            for (int done = 0; done < futures.size(); done++) {
+                Future<Object> future = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (future == null) {
+                    throw new RuntimeException("Order validation timed out after " + timeout.toMillis() + " ms");
+                }
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException
+                    ? (RuntimeException) cause
+                    : new RuntimeException(cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Order validation interrupted");
+        } finally {
+            cancelAll();
+        }
+    }
+
+    private void cancelAll() {
+        for (Future<Object> future : futures) {
+            future.cancel(true);
+        }
+    }
+}
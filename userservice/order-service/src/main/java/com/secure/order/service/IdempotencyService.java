@@ -0,0 +1,238 @@
+package com.secure.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.secure.common.dto.ApiResponse;
+import com.secure.order.entity.IdempotencyRecord;
+import com.secure.order.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency keys for non-idempotent POSTs.
+ *
+ * The first request with a key records the fingerprint (SHA-256 of the JSON body) of the request,
+ * runs, and stores its response if it succeeded; a failed request frees the key so the client can
+ * retry. A retry with the same key and body costs one lookup on the (principal, key) unique index
+ * and gets the stored response back; the same key with a different body is refused. Duplicates
+ * that arrive while the first request is still running wait for it: on this replica through an
+ * in-process future, across replicas by polling the record, up to wait-timeout.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final long POLL_INTERVAL_MS = 50;
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${order.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${order.idempotency.wait-timeout:10s}")
+    private Duration waitTimeout;
+
+    @Value("${order.idempotency.in-progress-timeout:2m}")
+    private Duration inProgressTimeout;
+
+    private final ConcurrentMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Run {@code action} at most once per (principal, key) within the TTL and replay its response
+     * for duplicates
+     */
+    public ResponseEntity<ApiResponse> execute(String principal, String key, Object request,
+                                               Supplier<ResponseEntity<ApiResponse>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return error(HttpStatus.BAD_REQUEST, HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = fingerprint(request);
+        String localKey = principal + '\n' + key;
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+
+        while (true) {
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            CompletableFuture<Void> running = inFlight.putIfAbsent(localKey, mine);
+            if (running != null) {
+                // Same key already running on this replica: wait for it, then look again
+                if (!await(running, deadline)) {
+                    return stillRunning();
+                }
+                continue;
+            }
+            try {
+                return executeOnce(principal, key, requestHash, action, deadline);
+            } finally {
+                inFlight.remove(localKey, mine);
+                mine.complete(null);
+            }
+        }
+    }
+
+    private ResponseEntity<ApiResponse> executeOnce(String principal, String key, String requestHash,
+                                                    Supplier<ResponseEntity<ApiResponse>> action, long deadline) {
+        while (true) {
+            Optional<IdempotencyRecord> existing = repository.findByPrincipalAndIdempotencyKey(principal, key);
+            if (existing.isPresent()) {
+                IdempotencyRecord record = existing.get();
+                LocalDateTime now = LocalDateTime.now();
+                if (record.getExpiresAt().isBefore(now) || (IdempotencyRecord.IN_PROGRESS.equals(record.getStatus())
+                        && record.getCreatedAt().plus(inProgressTimeout).isBefore(now))) {
+                    // Expired, or abandoned by a replica that died mid-request
+                    repository.remove(record.getId());
+                    continue;
+                }
+                if (!record.getRequestHash().equals(requestHash)) {
+                    return error(HttpStatus.UNPROCESSABLE_ENTITY,
+                            HEADER + " was already used with a different request");
+                }
+                if (IdempotencyRecord.COMPLETED.equals(record.getStatus())) {
+                    log.info("Replaying response for {} {}", HEADER, key);
+                    return replay(record);
+                }
+                // Running on another replica
+                if (System.nanoTime() >= deadline || !sleep()) {
+                    return stillRunning();
+                }
+                continue;
+            }
+
+            IdempotencyRecord record;
+            try {
+                record = repository.saveAndFlush(IdempotencyRecord.builder()
+                        .principal(principal)
+                        .idempotencyKey(key)
+                        .requestHash(requestHash)
+                        .status(IdempotencyRecord.IN_PROGRESS)
+                        .expiresAt(LocalDateTime.now().plus(ttl))
+                        .build());
+            } catch (DataIntegrityViolationException e) {
+                // Another replica inserted the key first; look again
+                continue;
+            }
+            return run(record, action);
+        }
+    }
+
+    private ResponseEntity<ApiResponse> run(IdempotencyRecord record, Supplier<ResponseEntity<ApiResponse>> action) {
+        ResponseEntity<ApiResponse> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            repository.deleteInProgress(record.getId());
+            throw e;
+        }
+        if (response.getStatusCode().is2xxSuccessful()) {
+            try {
+                repository.complete(record.getId(), response.getStatusCodeValue(),
+                        objectMapper.writeValueAsString(response.getBody()));
+            } catch (JsonProcessingException e) {
+                log.error("Cannot store response for {} {}: {}", HEADER, record.getIdempotencyKey(), e.getMessage());
+                repository.deleteInProgress(record.getId());
+            }
+        } else {
+            repository.deleteInProgress(record.getId());
+        }
+        return response;
+    }
+
+    private ResponseEntity<ApiResponse> replay(IdempotencyRecord record) {
+        try {
+            return ResponseEntity.status(record.getResponseStatus())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(objectMapper.readValue(record.getResponseBody(), ApiResponse.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable stored response for " + HEADER + " "
+                    + record.getIdempotencyKey(), e);
+        }
+    }
+
+    /**
+     * Drop expired keys
+     */
+    @Scheduled(fixedDelayString = "${order.idempotency.purge-interval-ms:600000}",
+            initialDelayString = "${order.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        try {
+            int purged = repository.deleteExpired(LocalDateTime.now());
+            if (purged > 0) {
+                log.info("Purged {} expired idempotency keys", purged);
+            }
+        } catch (RuntimeException e) {
+            log.error("Idempotency key purge failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] body = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+            return String.format("%064x", new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(body)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private static boolean await(CompletableFuture<Void> running, long deadline) {
+        try {
+            running.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private static boolean sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static ResponseEntity<ApiResponse> stillRunning() {
+        return error(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed");
+    }
+
+    private static ResponseEntity<ApiResponse> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .body(ApiResponse.builder()
+                        .success(false)
+                        .message(message)
+                        .build());
+    }
+}
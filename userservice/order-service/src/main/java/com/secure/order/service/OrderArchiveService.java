@@ -0,0 +1,112 @@
+package com.secure.order.service;
+
+import com.secure.order.dto.OrderDTO;
+import com.secure.order.dto.OrderItemDTO;
+import com.secure.order.dto.OrderPageDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Read path for orders moved to the archive tables by {@link OrderArchiver}. Kept apart from
+ * the hot order reads: archived history is fetched on demand (GET /orders/archive), page by
+ * page with the same two queries as the hot history, and is never mixed into hot queries.
+ */
+@Service
+@Slf4j
+public class OrderArchiveService {
+
+    private static final RowMapper<OrderDTO> ORDER = (row, rowNum) -> OrderDTO.builder()
+            .id(row.getLong("id"))
+            .userId(row.getLong("user_id"))
+            .status(row.getString("status"))
+            .totalAmount(row.getBigDecimal("total_amount"))
+            .createdAt(row.getTimestamp("created_at").toLocalDateTime())
+            .build();
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${order.history.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${order.history.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * One page of a user's archived orders with an id below {@code cursor}, newest first
+     */
+    @Transactional(readOnly = true)
+    public OrderPageDTO getArchivedHistory(Long userId, Long cursor, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        log.info("Fetching archived orders for user: {} (cursor={}, limit={})", userId, cursor, pageSize);
+        List<OrderDTO> orders = jdbcTemplate.query("SELECT id, user_id, status, total_amount, created_at "
+                        + "FROM orders_archive WHERE user_id = :userId AND id < :before ORDER BY id DESC LIMIT :limit",
+                new MapSqlParameterSource()
+                        .addValue("userId", userId)
+                        .addValue("before", cursor == null ? Long.MAX_VALUE : cursor)
+                        .addValue("limit", pageSize + 1),
+                ORDER);
+        boolean hasMore = orders.size() > pageSize;
+        if (hasMore) {
+            orders = orders.subList(0, pageSize);
+        }
+        if (orders.isEmpty()) {
+            return OrderPageDTO.builder().orders(Collections.emptyList()).build();
+        }
+        withItems(orders);
+        return OrderPageDTO.builder()
+                .orders(orders)
+                .nextCursor(hasMore ? orders.get(orders.size() - 1).getId() : null)
+                .build();
+    }
+
+    /**
+     * An archived order of the current user; admins can read any archived order
+     */
+    @Transactional(readOnly = true)
+    public OrderDTO getArchivedOrder(Long orderId) {
+        log.info("Fetching archived order: {}", orderId);
+        boolean admin = OrderService.isAdmin();
+        List<OrderDTO> orders = jdbcTemplate.query("SELECT id, user_id, status, total_amount, created_at "
+                        + "FROM orders_archive WHERE id = :id" + (admin ? "" : " AND user_id = :userId"),
+                new MapSqlParameterSource()
+                        .addValue("id", orderId)
+                        .addValue("userId", OrderService.currentUserId()),
+                ORDER);
+        if (orders.isEmpty()) {
+            throw new RuntimeException("Archived order not found: " + orderId);
+        }
+        withItems(orders);
+        return orders.get(0);
+    }
+
+    private void withItems(List<OrderDTO> orders) {
+        Map<Long, List<OrderItemDTO>> items = new HashMap<>();
+        jdbcTemplate.query("SELECT order_id, id, product_id, quantity, price FROM order_items_archive "
+                        + "WHERE order_id IN (:orderIds) ORDER BY id",
+                new MapSqlParameterSource("orderIds",
+                        orders.stream().map(OrderDTO::getId).collect(Collectors.toList())),
+                (RowCallbackHandler) row -> items.computeIfAbsent(row.getLong("order_id"), id -> new ArrayList<>())
+                        .add(OrderItemDTO.builder()
+                                .id(row.getLong("id"))
+                                .productId(row.getLong("product_id"))
+                                .quantity(row.getInt("quantity"))
+                                .price(row.getBigDecimal("price"))
+                                .build()));
+        orders.forEach(order -> order.setItems(items.getOrDefault(order.getId(), Collections.emptyList())));
+    }
+}
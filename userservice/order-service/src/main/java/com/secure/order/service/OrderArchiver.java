@@ -0,0 +1,119 @@
+package com.secure.order.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves terminal orders (CONFIRMED or CANCELLED) whose last update is older than the archive
+ * age from orders/order_items to orders_archive/order_items_archive, so the hot tables and their
+ * indexes stay small. Archived orders are read through {@link OrderArchiveService} only and can
+ * no longer be cancelled.
+ *
+ * Each batch is one transaction: the batch's orders are locked, copied with their items and
+ * deleted (items go with the order through ON DELETE CASCADE), so an order is always in exactly
+ * one of the two tiers. Orders with an outbox event still pending are left until it is
+ * delivered. Rollups are keyed by order date and are not touched by archiving.
+ */
+@Component
+@Slf4j
+public class OrderArchiver {
+
+    private static final String SELECT_DUE =
+            "SELECT o.id FROM orders o WHERE o.status IN ('CONFIRMED', 'CANCELLED') AND o.updated_at < :cutoff "
+                    + "AND NOT EXISTS (SELECT 1 FROM order_outbox e WHERE e.order_id = o.id AND e.status = 'PENDING') "
+                    + "ORDER BY o.id LIMIT :limit FOR UPDATE";
+
+    private static final String COPY_ORDERS =
+            "INSERT INTO orders_archive (id, user_id, status, total_amount, created_at, updated_at, archived_at) "
+                    + "SELECT id, user_id, status, total_amount, created_at, updated_at, :now FROM orders "
+                    + "WHERE id IN (:ids)";
+
+    private static final String COPY_ITEMS =
+            "INSERT INTO order_items_archive (id, order_id, product_id, quantity, price) "
+                    + "SELECT id, order_id, product_id, quantity, price FROM order_items WHERE order_id IN (:ids)";
+
+    private static final String DELETE_ORDERS = "DELETE FROM orders WHERE id IN (:ids)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OrderMetrics orderMetrics;
+
+    @Value("${order.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${order.archive.after:90d}")
+    private Duration after;
+
+    @Value("${order.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${order.archive.max-batches:100}")
+    private int maxBatches;
+
+    @Scheduled(fixedDelayString = "${order.archive.interval-ms:3600000}",
+            initialDelayString = "${order.archive.initial-delay-ms:60000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(after);
+        int archived = 0;
+        try {
+            for (int batch = 0; batch < maxBatches; batch++) {
+                int moved = archiveBatch(cutoff);
+                archived += moved;
+                if (moved < batchSize) {
+                    log.info("Archived {} orders last updated before {}", archived, cutoff);
+                    return;
+                }
+            }
+            log.warn("Order archiver stopped after {} batches ({} orders); the rest is left for the next run",
+                    maxBatches, archived);
+        } catch (RuntimeException e) {
+            log.error("Order archiving failed after {} orders: {}", archived, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Move one batch of orders last updated before {@code cutoff} to the archive tables
+     *
+     * @return number of orders archived; fewer than {@code batchSize} means nothing is left to archive
+     */
+    int archiveBatch(LocalDateTime cutoff) {
+        Integer archived = transactionTemplate.execute(tx -> {
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_DUE, new MapSqlParameterSource()
+                    .addValue("cutoff", Timestamp.valueOf(cutoff))
+                    .addValue("limit", batchSize), Long.class);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("ids", ids)
+                    .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+            jdbcTemplate.update(COPY_ORDERS, params);
+            jdbcTemplate.update(COPY_ITEMS, params);
+            jdbcTemplate.update(DELETE_ORDERS, params);
+            return ids.size();
+        });
+        if (archived != null && archived > 0) {
+            orderMetrics.recordArchived(archived);
+        }
+        return archived == null ? 0 : archived;
+    }
+}
@@ -0,0 +1,269 @@
+package com.secure.order.service;
+
+import com.secure.order.dto.OrderStatusEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process bus that pushes order status changes to the GET /orders/stream subscribers of the
+ * order's user, so watching an order costs no queries.
+ *
+ * Order writes publish after their transaction commits. Publishing never blocks: each event is
+ * put in the subscriber's bounded buffer and written to the connection by a small sender pool.
+ * A subscriber whose buffer is full is too slow to keep up and is evicted (its stream is
+ * completed; the client reconnects and re-reads its orders). Heartbeat comments keep idle
+ * streams open through proxies and detect dead connections.
+ *
+ * A subscriber gets one sender thread at a time, and a write that has not returned within
+ * send-timeout (a stalled socket) evicts it: the pool gets a thread in place of the stuck one
+ * until that write fails, so the other subscribers are never held up. Only the thread owning a
+ * subscriber's writes completes its emitter, as completing waits for a write in flight.
+ *
+ * Only writes made on this replica are seen; a client should read the order once after
+ * subscribing so a change made elsewhere before the stream opened is not missed.
+ */
+@Component
+@Slf4j
+public class OrderEventBus {
+
+    private static final String EVENT_NAME = "order-status";
+    private static final long IDLE = 0L;
+    private static final long STALLED = -1L;
+
+    @Autowired
+    private OrderMetrics orderMetrics;
+
+    @Value("${order.stream.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${order.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${order.stream.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${order.stream.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${order.stream.send-timeout:10s}")
+    private Duration sendTimeout;
+
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private ThreadPoolExecutor sender;
+
+    @PostConstruct
+    void start() {
+        // grows past sender-threads only by addSenders, one thread per stalled write
+        sender = new ThreadPoolExecutor(senderThreads, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("order-stream-"));
+        orderMetrics.monitorStreamSubscribers(subscriberCount);
+    }
+
+    @PreDestroy
+    void stop() {
+        sender.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(Subscriber::close));
+    }
+
+    /**
+     * Open a stream of the status changes of {@code userId}'s orders
+     *
+     * @throws IllegalStateException if max-subscribers streams are already open
+     */
+    public SseEmitter subscribe(Long userId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Too many order streams open, try again later");
+        }
+        Subscriber subscriber = new Subscriber(userId, createEmitter());
+        subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+        log.debug("Order stream opened for user {}", userId);
+        return subscriber.emitter;
+    }
+
+    /**
+     * Push a status change to the order user's subscribers once the current transaction, if
+     * any, commits; nothing is pushed for a rolled back write
+     */
+    public void publish(OrderStatusEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(event);
+                }
+            });
+        } else {
+            dispatch(event);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(subscriber ->
+                subscriber.offer(SseEmitter.event().comment("heartbeat"))));
+    }
+
+    /**
+     * Evict the subscribers whose write has been stuck for longer than send-timeout
+     */
+    @Scheduled(fixedDelayString = "${order.stream.stall-check-interval-ms:1000}")
+    public void evictStalled() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> {
+            long started = subscriber.writeStartedAt.get();
+            if (started != IDLE && started != STALLED && now - started > sendTimeout.toNanos()
+                    && subscriber.writeStartedAt.compareAndSet(started, STALLED)) {
+                log.info("Evicting order stream subscriber of user {}: write stalled for over {}",
+                        subscriber.userId, sendTimeout);
+                orderMetrics.recordStreamEviction();
+                addSenders(1);
+                subscriber.close();
+            }
+        }));
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    private synchronized void addSenders(int delta) {
+        sender.setCorePoolSize(sender.getCorePoolSize() + delta);
+    }
+
+    private void dispatch(OrderStatusEvent event) {
+        Set<Subscriber> watchers = subscribers.get(event.getUserId());
+        if (watchers == null) {
+            return;
+        }
+        for (Subscriber subscriber : watchers) {
+            subscriber.offer(SseEmitter.event()
+                    .id(String.valueOf(event.getOrderId()))
+                    .name(EVENT_NAME)
+                    .data(event, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    /**
+     * @return whether this call removed the subscriber
+     */
+    private boolean remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return false;
+        }
+        subscriber.queue.clear();
+        subscriberCount.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.userId, (userId, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+        log.debug("Order stream closed for user {}", subscriber.userId);
+        return true;
+    }
+
+    private class Subscriber {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // System.nanoTime() when the write in flight started, IDLE, or STALLED once evicted for it
+        private final AtomicLong writeStartedAt = new AtomicLong(IDLE);
+
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                log.info("Evicting slow order stream subscriber of user {}", userId);
+                orderMetrics.recordStreamEviction();
+                close();
+                return;
+            }
+            if (sending.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        /**
+         * Write the buffered events; runs on one sender thread at a time per subscriber, and
+         * owns the emitter while {@code sending} is set
+         */
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    write(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                remove(this);
+            }
+            if (closed.get()) {
+                emitter.complete();
+                return;
+            }
+            sending.set(false);
+            if (closed.get() && sending.compareAndSet(false, true)) {
+                // closed while this thread still owned the emitter
+                emitter.complete();
+            } else if (!queue.isEmpty() && sending.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void write(SseEmitter.SseEventBuilder event) throws IOException {
+            writeStartedAt.set(System.nanoTime());
+            try {
+                emitter.send(event);
+            } finally {
+                if (writeStartedAt.getAndSet(IDLE) == STALLED) {
+                    addSenders(-1);
+                }
+            }
+        }
+
+        /**
+         * Stop the stream; the emitter is completed now if no write is in flight, otherwise by
+         * the writing thread once its write returns
+         */
+        void close() {
+            if (remove(this) && sending.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.secure.order.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Order latency timers, tagged by cart size bucket and outcome, with p50/p95/p99:
+ * {@code orders.create} for the whole request and {@code orders.validation} for the
+ * downstream user/product checks. {@code orders.outbox.deliveries} counts outbox delivery
+ * attempts by event type and outcome, and {@code orders.archived} the orders moved to the archive.
+ * {@code orders.stream.subscribers} gauges the open order streams and
+ * {@code orders.stream.evictions} counts slow subscribers dropped.
+ */
+@Component
+public class OrderMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public void recordCreate(int cartSize, long nanos, boolean success) {
+        record("orders.create", "Order creation latency", cartSize, nanos, success);
+    }
+
+    public void recordValidation(int cartSize, long nanos, boolean success) {
+        record("orders.validation", "Downstream user and product validation latency", cartSize, nanos, success);
+    }
+
+    public void recordOutboxDelivery(String eventType, String outcome) {
+        meterRegistry.counter("orders.outbox.deliveries", "type", eventType, "outcome", outcome).increment();
+    }
+
+    public void recordArchived(int orders) {
+        meterRegistry.counter("orders.archived").increment(orders);
+    }
+
+    public void monitorStreamSubscribers(AtomicInteger subscribers) {
+        Gauge.builder("orders.stream.subscribers", subscribers, AtomicInteger::get)
+                .description("Open order status streams")
+                .register(meterRegistry);
+    }
+
+    public void recordStreamEviction() {
+        meterRegistry.counter("orders.stream.evictions").increment();
+    }
+
+    private void record(String name, String description, int cartSize, long nanos, boolean success) {
+        Timer.builder(name)
+                .description(description)
+                .tag("cart.size", cartSizeBucket(cartSize))
+                .tag("outcome", success ? "success" : "failure")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    static String cartSizeBucket(int cartSize) {
+        if (cartSize <= 1) {
+            return "1";
+        }
+        if (cartSize <= 5) {
+            return "2-5";
+        }
+        if (cartSize <= 10) {
+            return "6-10";
+        }
+        if (cartSize <= 50) {
+            return "11-50";
+        }
+        return "51+";
+    }
+}
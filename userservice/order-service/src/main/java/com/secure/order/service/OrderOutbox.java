@@ -0,0 +1,43 @@
+package com.secure.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.secure.order.entity.OutboxEvent;
+import com.secure.order.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records order side effects in the outbox. Must be called inside the transaction that writes
+ * the order, so that the event is stored if and only if the order is; {@link OutboxRelay}
+ * delivers it after commit.
+ */
+@Component
+public class OrderOutbox {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent enqueue(Long orderId, String eventType, Object payload) {
+        try {
+            return outboxEventRepository.save(OutboxEvent.builder()
+                    .orderId(orderId)
+                    .eventType(eventType)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .status(OutboxEvent.PENDING)
+                    .attempts(0)
+                    .nextAttemptAt(LocalDateTime.now())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + eventType + " for order " + orderId, e);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.secure.order.service;
+
+import com.secure.order.dto.RollupBackfillStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rebuilds the order rollups from the orders tables, hot and archived, for history written
+ * before the rollups existed or after a manual data fix.
+ *
+ * The date range is split into chunks of chunk-days that are rebuilt in parallel, each in its
+ * own transaction (delete the chunk's rollup rows, re-aggregate its orders), so a chunk is never
+ * visible half rebuilt and a failed chunk leaves the others in place. One backfill runs at a
+ * time, in the background; {@link #getStatus()} reports its progress. Orders written to a chunk
+ * while it is being rebuilt can be counted twice or missed, so backfill closed days.
+ */
+@Component
+@Slf4j
+public class OrderRollupBackfill {
+
+    private static final String ALL_ORDERS =
+            "(SELECT id, status, total_amount, created_at FROM orders "
+                    + "UNION ALL SELECT id, status, total_amount, created_at FROM orders_archive)";
+
+    private static final String ALL_ITEMS =
+            "(SELECT order_id, product_id, quantity, price FROM order_items "
+                    + "UNION ALL SELECT order_id, product_id, quantity, price FROM order_items_archive)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${order.analytics.backfill.threads:4}")
+    private int threads;
+
+    @Value("${order.analytics.backfill.chunk-days:7}")
+    private int chunkDays;
+
+    private volatile RollupBackfillStatus status;
+
+    /**
+     * Start a backfill of [from, to]; a null {@code from} means the first order date and a null
+     * {@code to} the last one up to yesterday, as today is still being written
+     *
+     * @throws IllegalStateException if a backfill is already running
+     */
+    public synchronized RollupBackfillStatus start(LocalDate from, LocalDate to) {
+        if (status != null && "RUNNING".equals(status.getState())) {
+            throw new IllegalStateException("A rollup backfill is already running");
+        }
+        LocalDate first = from != null ? from : orderDate("MIN");
+        LocalDate last = to;
+        if (last == null) {
+            LocalDate yesterday = LocalDate.now().minusDays(1);
+            LocalDate lastOrder = orderDate("MAX");
+            last = lastOrder == null || lastOrder.isAfter(yesterday) ? yesterday : lastOrder;
+        }
+        if (first == null || last == null || first.isAfter(last)) {
+            throw new IllegalArgumentException("Nothing to backfill between " + from + " and " + to);
+        }
+
+        List<LocalDate[]> chunks = new ArrayList<>();
+        for (LocalDate start = first; !start.isAfter(last); start = start.plusDays(chunkDays)) {
+            LocalDate end = start.plusDays(chunkDays - 1L);
+            chunks.add(new LocalDate[]{start, end.isAfter(last) ? last : end});
+        }
+        status = RollupBackfillStatus.builder()
+                .state("RUNNING")
+                .from(first)
+                .to(last)
+                .chunks(chunks.size())
+                .startedAt(LocalDateTime.now())
+                .build();
+        RollupBackfillStatus job = status;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("rollup-backfill-");
+        threadFactory.setDaemon(true);
+        threadFactory.newThread(() -> run(job, chunks)).start();
+        return job;
+    }
+
+    public RollupBackfillStatus getStatus() {
+        return status;
+    }
+
+    private void run(RollupBackfillStatus job, List<LocalDate[]> chunks) {
+        log.info("Backfilling order rollups from {} to {} in {} chunks", job.getFrom(), job.getTo(), chunks.size());
+        AtomicInteger completed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new CustomizableThreadFactory("rollup-backfill-worker-"));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (LocalDate[] chunk : chunks) {
+                futures.add(executor.submit(() -> {
+                    rebuild(chunk[0], chunk[1]);
+                    job.setCompletedChunks(completed.incrementAndGet());
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            job.setState("COMPLETED");
+            log.info("Order rollup backfill completed: {} chunks", chunks.size());
+        } catch (ExecutionException e) {
+            job.setState("FAILED");
+            job.setError(e.getCause().getMessage());
+            log.error("Order rollup backfill failed: {}", e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.setState("FAILED");
+            job.setError("Interrupted");
+        } finally {
+            executor.shutdownNow();
+            job.setFinishedAt(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Replace the rollup rows of [from, to] with a fresh aggregate of the orders created in it
+     */
+    private void rebuild(LocalDate from, LocalDate to) {
+        Date fromDate = Date.valueOf(from);
+        Date toDate = Date.valueOf(to);
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+        transactionTemplate.executeWithoutResult(tx -> {
+            jdbcTemplate.update("DELETE FROM order_rollup_daily WHERE rollup_date BETWEEN ? AND ?", fromDate, toDate);
+            jdbcTemplate.update("INSERT INTO order_rollup_daily (rollup_date, status, order_count, revenue) "
+                    + "SELECT CAST(created_at AS DATE), status, COUNT(*), SUM(total_amount) FROM " + ALL_ORDERS + " o "
+                    + "WHERE created_at >= ? AND created_at < ? "
+                    + "GROUP BY CAST(created_at AS DATE), status", start, end);
+            jdbcTemplate.update("DELETE FROM order_product_rollup_daily WHERE rollup_date BETWEEN ? AND ?",
+                    fromDate, toDate);
+            jdbcTemplate.update("INSERT INTO order_product_rollup_daily "
+                    + "(rollup_date, status, product_id, order_count, quantity, revenue) "
+                    + "SELECT CAST(o.created_at AS DATE), o.status, i.product_id, COUNT(DISTINCT o.id), "
+                    + "SUM(i.quantity), SUM(i.price * i.quantity) "
+                    + "FROM " + ALL_ORDERS + " o JOIN " + ALL_ITEMS + " i ON i.order_id = o.id "
+                    + "WHERE o.created_at >= ? AND o.created_at < ? "
+                    + "GROUP BY CAST(o.created_at AS DATE), o.status, i.product_id", start, end);
+        });
+    }
+
+    private LocalDate orderDate(String aggregate) {
+        Timestamp timestamp = jdbcTemplate.queryForObject(
+                "SELECT " + aggregate + "(created_at) FROM " + ALL_ORDERS + " o", Timestamp.class);
+        return timestamp == null ? null : timestamp.toLocalDateTime().toLocalDate();
+    }
+}
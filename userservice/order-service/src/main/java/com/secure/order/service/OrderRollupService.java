@@ -0,0 +1,168 @@
+package com.secure.order.service;
+
+import com.secure.order.dto.OrderRollupDTO;
+import com.secure.order.dto.ProductRollupDTO;
+import com.secure.order.entity.Order;
+import com.secure.order.entity.OrderItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order analytics rollups: order count and revenue per (order date, status), and order count,
+ * quantity and revenue per (order date, status, product).
+ *
+ * Every order write applies its delta in the same transaction (+1 in the new status, -1 in the
+ * old one on a status change), with one MERGE per touched row, so the rollups always agree with
+ * the orders table and queries read a handful of rows. Rows are keyed by the date the order was
+ * created, so status changes never move an order to another day.
+ */
+@Service
+@Slf4j
+public class OrderRollupService {
+
+    private static final String MERGE_DAILY =
+            "MERGE INTO order_rollup_daily r "
+                    + "USING (VALUES (CAST(? AS DATE), CAST(? AS VARCHAR(50)), CAST(? AS BIGINT), "
+                    + "CAST(? AS DECIMAL(19, 2)))) AS d (rollup_date, status, order_count, revenue) "
+                    + "ON r.rollup_date = d.rollup_date AND r.status = d.status "
+                    + "WHEN MATCHED THEN UPDATE SET order_count = r.order_count + d.order_count, "
+                    + "revenue = r.revenue + d.revenue "
+                    + "WHEN NOT MATCHED THEN INSERT (rollup_date, status, order_count, revenue) "
+                    + "VALUES (d.rollup_date, d.status, d.order_count, d.revenue)";
+
+    private static final String MERGE_PRODUCT =
+            "MERGE INTO order_product_rollup_daily r "
+                    + "USING (VALUES (CAST(? AS DATE), CAST(? AS VARCHAR(50)), CAST(? AS BIGINT), CAST(? AS BIGINT), "
+                    + "CAST(? AS BIGINT), CAST(? AS DECIMAL(19, 2)))) "
+                    + "AS d (rollup_date, status, product_id, order_count, quantity, revenue) "
+                    + "ON r.rollup_date = d.rollup_date AND r.status = d.status AND r.product_id = d.product_id "
+                    + "WHEN MATCHED THEN UPDATE SET order_count = r.order_count + d.order_count, "
+                    + "quantity = r.quantity + d.quantity, revenue = r.revenue + d.revenue "
+                    + "WHEN NOT MATCHED THEN INSERT (rollup_date, status, product_id, order_count, quantity, revenue) "
+                    + "VALUES (d.rollup_date, d.status, d.product_id, d.order_count, d.quantity, d.revenue)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${order.analytics.max-range-days:366}")
+    private int maxRangeDays;
+
+    /**
+     * Count a new order
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Order order) {
+        apply(order, order.getStatus(), 1);
+    }
+
+    /**
+     * Move an order from one status to another
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChange(Order order, String from, String to) {
+        apply(order, from, -1);
+        apply(order, to, 1);
+    }
+
+    private void apply(Order order, String status, int sign) {
+        Date date = Date.valueOf(order.getCreatedAt().toLocalDate());
+        merge(MERGE_DAILY, date, status, sign, order.getTotalAmount().multiply(BigDecimal.valueOf(sign)));
+
+        Map<Long, long[]> quantities = new LinkedHashMap<>();
+        Map<Long, BigDecimal> revenues = new LinkedHashMap<>();
+        for (OrderItem item : order.getItems()) {
+            quantities.computeIfAbsent(item.getProductId(), id -> new long[1])[0] += item.getQuantity();
+            revenues.merge(item.getProductId(), item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())),
+                    BigDecimal::add);
+        }
+        for (Map.Entry<Long, long[]> entry : quantities.entrySet()) {
+            merge(MERGE_PRODUCT, date, status, entry.getKey(), sign, sign * entry.getValue()[0],
+                    revenues.get(entry.getKey()).multiply(BigDecimal.valueOf(sign)));
+        }
+    }
+
+    /**
+     * Two transactions creating the same row can both take the insert branch; the loser retries
+     * and takes the update branch
+     */
+    private void merge(String sql, Object... args) {
+        try {
+            jdbcTemplate.update(sql, args);
+        } catch (DuplicateKeyException e) {
+            jdbcTemplate.update(sql, args);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderRollupDTO> getDailyRollups(LocalDate from, LocalDate to, String status) {
+        checkRange(from, to);
+        List<Object> args = new ArrayList<>(List.of(Date.valueOf(from), Date.valueOf(to)));
+        String sql = "SELECT rollup_date, status, order_count, revenue FROM order_rollup_daily "
+                + "WHERE rollup_date BETWEEN ? AND ? AND order_count <> 0";
+        if (status != null) {
+            sql += " AND status = ?";
+            args.add(status);
+        }
+        return jdbcTemplate.query(sql + " ORDER BY rollup_date, status", (row, i) -> {
+            long orderCount = row.getLong("order_count");
+            BigDecimal revenue = row.getBigDecimal("revenue");
+            return OrderRollupDTO.builder()
+                    .date(row.getDate("rollup_date").toLocalDate())
+                    .status(row.getString("status"))
+                    .orderCount(orderCount)
+                    .revenue(revenue)
+                    .averageBasket(revenue.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP))
+                    .build();
+        }, args.toArray());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductRollupDTO> getProductRollups(LocalDate from, LocalDate to, Long productId, String status) {
+        checkRange(from, to);
+        List<Object> args = new ArrayList<>(List.of(Date.valueOf(from), Date.valueOf(to)));
+        String sql = "SELECT rollup_date, status, product_id, order_count, quantity, revenue "
+                + "FROM order_product_rollup_daily WHERE rollup_date BETWEEN ? AND ? AND order_count <> 0";
+        if (productId != null) {
+            sql += " AND product_id = ?";
+            args.add(productId);
+        }
+        if (status != null) {
+            sql += " AND status = ?";
+            args.add(status);
+        }
+        return jdbcTemplate.query(sql + " ORDER BY rollup_date, status, product_id", (row, i) ->
+                ProductRollupDTO.builder()
+                        .date(row.getDate("rollup_date").toLocalDate())
+                        .status(row.getString("status"))
+                        .productId(row.getLong("product_id"))
+                        .orderCount(row.getLong("order_count"))
+                        .quantity(row.getLong("quantity"))
+                        .revenue(row.getBigDecimal("revenue"))
+                        .build(), args.toArray());
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new IllegalArgumentException("Range must not exceed " + maxRangeDays + " days");
+        }
+    }
+}
@@ -1,15 +1,25 @@
 package com.secure.order.service;
 
-import com.secure.common.dto.UserDTO;
+import com.secure.common.exception.ForbiddenException;
 import com.secure.order.dto.CreateOrderRequest;
 import com.secure.order.dto.OrderDTO;
 import com.secure.order.dto.OrderItemDTO;
+import com.secure.order.dto.OrderPageDTO;
+import com.secure.order.dto.OrderStatusEvent;
+import com.secure.order.dto.ProductBatchInfo;
+import com.secure.order.dto.ProductBatchRequest;
 import com.secure.order.dto.ProductInfo;
+import com.secure.order.dto.StockDecrementRequest;
+import com.secure.order.dto.StockReservationRequest;
+import com.secure.order.dto.StockReturnRequest;
 import com.secure.order.entity.Order;
 import com.secure.order.entity.OrderItem;
+import com.secure.order.entity.OutboxEvent;
 import com.secure.order.repository.OrderRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -17,7 +27,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,54 +44,65 @@ public class OrderService {
     private OrderRepository orderRepository;
 
     @Autowired
-    private UserServiceClient userServiceClient;
+    private UserExistenceCache userExistenceCache;
 
     @Autowired
     private ProductServiceClient productServiceClient;
 
+    @Autowired
+    private OrderOutbox orderOutbox;
+
+    @Autowired
+    private OrderRollupService orderRollupService;
+
+    @Autowired
+    private OrderEventBus orderEventBus;
+
+    @Autowired
+    private DownstreamCallExecutor downstreamCallExecutor;
+
+    @Autowired
+    private OrderMetrics orderMetrics;
+
+    @Value("${order.validation.timeout:3s}")
+    private Duration validationTimeout;
+
+    @Value("${order.validation.product-chunk-size:100}")
+    private int productChunkSize;
+
+    @Value("${order.history.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${order.history.max-page-size:100}")
+    private int maxPageSize;
+
     @Transactional
-    public OrderDTO createOrder(CreateOrderRequest request, String jwt) {
+    public OrderDTO createOrder(CreateOrderRequest request) {
+        Long callerId = currentUserId();
+        boolean onBehalf = authorizeOrderUser(request, callerId);
         log.info("Creating order for user: {}", request.getUserId());
 
-        // Validate user exists via Feign call to user-service
-        try {
-            String authHeader = "Bearer " + jwt;
-            UserDTO user = userServiceClient.getUserById(request.getUserId(), authHeader);
-            log.info("User validated: {}", user.getUsername());
-        } catch (Exception e) {
-            log.error("Failed to validate user: {}", e.getMessage());
-            throw new RuntimeException("User validation failed: " + e.getMessage());
-        }
-
-        // Validate each product exists, has sufficient stock, and resolve actual price
+        // Check the user (unless it is the caller) and fetch every product concurrently, then check each item
+        Map<Long, ProductInfo> products = validateDownstream(request, onBehalf);
         BigDecimal totalAmount = BigDecimal.ZERO;
         for (CreateOrderRequest.OrderItemRequest itemRequest : request.getItems()) {
-            try {
-                com.secure.common.dto.ApiResponse<ProductInfo> response =
-                        productServiceClient.getProductById(itemRequest.getProductId());
-                ProductInfo product = (ProductInfo) response.getData();
-                if (product == null) {
-                    throw new RuntimeException("Product not found: " + itemRequest.getProductId());
-                }
-                if (!Boolean.TRUE.equals(product.getActive())) {
-                    throw new RuntimeException("Product is not active: " + itemRequest.getProductId());
-                }
-                if (product.getStockQuantity() < itemRequest.getQuantity()) {
-                    throw new RuntimeException("Insufficient stock for product " + itemRequest.getProductId()
-                            + ". Available: " + product.getStockQuantity()
-                            + ", requested: " + itemRequest.getQuantity());
-                }
-                // Use the actual product price
-                itemRequest.setPrice(product.getPrice());
-                totalAmount = totalAmount.add(product.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity())));
-                log.info("Product validated: id={}, name={}, price={}, stock={}",
-                        product.getId(), product.getName(), product.getPrice(), product.getStockQuantity());
-            } catch (RuntimeException e) {
-                throw e;
-            } catch (Exception e) {
-                log.error("Failed to validate product {}: {}", itemRequest.getProductId(), e.getMessage());
-                throw new RuntimeException("Product validation failed for id=" + itemRequest.getProductId() + ": " + e.getMessage());
+            ProductInfo product = products.get(itemRequest.getProductId());
+            if (product == null) {
+                throw new RuntimeException("Product not found: " + itemRequest.getProductId());
+            }
+            if (!Boolean.TRUE.equals(product.getActive())) {
+                throw new RuntimeException("Product is not active: " + itemRequest.getProductId());
+            }
+            if (product.getStockQuantity() < itemRequest.getQuantity()) {
+                throw new RuntimeException("Insufficient stock for product " + itemRequest.getProductId()
+                        + ". Available: " + product.getStockQuantity()
+                        + ", requested: " + itemRequest.getQuantity());
             }
+            // Use the actual product price
+            itemRequest.setPrice(product.getPrice());
+            totalAmount = totalAmount.add(product.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity())));
+            log.info("Product validated: id={}, name={}, price={}, stock={}",
+                    product.getId(), product.getName(), product.getPrice(), product.getStockQuantity());
         }
 
         // Create order
@@ -98,27 +125,170 @@ public class OrderService {
         Order savedOrder = orderRepository.save(order);
         log.info("Order created successfully with ID: {}", savedOrder.getId());
 
-        // Decrement stock for each ordered item via product-service
-        for (CreateOrderRequest.OrderItemRequest itemRequest : request.getItems()) {
-            try {
-                productServiceClient.decrementStock(itemRequest.getProductId(), itemRequest.getQuantity());
-                log.info("Stock decremented for productId={} by quantity={}", itemRequest.getProductId(), itemRequest.getQuantity());
-            } catch (Exception e) {
-                log.error("Failed to decrement stock for productId={}: {}", itemRequest.getProductId(), e.getMessage());
-                // Order is already saved — log the error but do not roll back the order
+        orderRollupService.recordCreated(savedOrder);
+        orderEventBus.publish(statusEvent(savedOrder, null));
+
+        enqueueStockReservation(savedOrder.getId(), request.getItems());
+
+        return toDTO(savedOrder);
+    }
+
+    /**
+     * The order is for the caller (the verified token's userId claim) unless an admin names
+     * another user. Fills in the userId when the request has none.
+     *
+     * @return whether an admin orders on behalf of another user
+     * @throws ForbiddenException if a non-admin names another user
+     */
+    private boolean authorizeOrderUser(CreateOrderRequest request, Long callerId) {
+        if (request.getUserId() == null || request.getUserId().equals(callerId)) {
+            if (callerId == null) {
+                throw new ForbiddenException("Token has no userId claim");
             }
+            request.setUserId(callerId);
+            return false;
         }
+        if (!isAdmin()) {
+            throw new ForbiddenException("Cannot create an order for another user");
+        }
+        return true;
+    }
 
-        return toDTO(savedOrder);
+    /**
+     * Fetch the order's products (product-service, in chunks of productChunkSize ids) concurrently
+     * on the bounded validation executor, together with the user check when an admin orders for
+     * someone else. Latency is that of the slowest call rather than the sum; the first failure, or
+     * the validation timeout, cancels the calls still running and fails the order.
+     *
+     * The caller's own account is proven by its token and is not looked up at all: user-service
+     * only knows profiles, and a user who has never saved one is still a user.
+     */
+    private Map<Long, ProductInfo> validateDownstream(CreateOrderRequest request, boolean onBehalf) {
+        long started = System.nanoTime();
+        List<Long> ids = request.getItems().stream()
+                .map(CreateOrderRequest.OrderItemRequest::getProductId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, ProductInfo> products = new ConcurrentHashMap<>();
+        boolean success = false;
+        try {
+            DownstreamCalls calls = downstreamCallExecutor.newCalls();
+            if (onBehalf) {
+                calls.submit(() -> validateUser(request.getUserId()));
+            }
+            for (int from = 0; from < ids.size(); from += productChunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + productChunkSize, ids.size()));
+                calls.submit(() -> {
+                    products.putAll(fetchProducts(chunk));
+                    return null;
+                });
+            }
+            calls.awaitAll(validationTimeout);
+            success = true;
+            return products;
+        } finally {
+            orderMetrics.recordValidation(request.getItems().size(), System.nanoTime() - started, success);
+        }
     }
 
+    private Boolean validateUser(Long userId) {
+        boolean exists;
+        try {
+            exists = userExistenceCache.exists(userId).join();
+        } catch (RuntimeException e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Failed to validate user: {}", cause.getMessage());
+            throw new RuntimeException("User validation failed: " + cause.getMessage());
+        }
+        if (!exists) {
+            throw new RuntimeException("User not found: " + userId);
+        }
+        log.info("User validated: {}", userId);
+        return true;
+    }
+
+    /**
+     * Fetch products in one product-service call
+     */
+    private Map<Long, ProductInfo> fetchProducts(List<Long> ids) {
+        try {
+            com.secure.common.dto.ApiResponse<ProductBatchInfo> response =
+                    productServiceClient.getProductsByIds(ProductBatchRequest.builder().ids(ids).build());
+            ProductBatchInfo batch = response.getData();
+            if (batch == null || batch.getProducts() == null) {
+                throw new RuntimeException("Empty product batch response");
+            }
+            return batch.getProducts();
+        } catch (Exception e) {
+            log.error("Failed to fetch products {}: {}", ids, e.getMessage());
+            throw new RuntimeException("Product validation failed for ids=" + ids + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Record the stock reservation for the order in the outbox, in the order's transaction.
+     * {@link OutboxRelay} reserves and confirms the stock in product-service after commit and
+     * then moves the order to CONFIRMED, or to CANCELLED if product-service refuses it.
+     */
+    private void enqueueStockReservation(Long orderId, List<CreateOrderRequest.OrderItemRequest> items) {
+        StockReservationRequest reservation = StockReservationRequest.builder()
+                .orderId(orderId)
+                .items(items.stream()
+                        .map(item -> StockDecrementRequest.Item.builder()
+                                .productId(item.getProductId())
+                                .quantity(item.getQuantity())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+        orderOutbox.enqueue(orderId, OutboxEvent.STOCK_RESERVATION, reservation);
+        log.info("Stock reservation for {} items of order {} queued", items.size(), orderId);
+    }
+
+    /**
+     * One page of a user's order history, newest first, in two queries whatever the page size:
+     * the page's order columns (keyset on id, so deep pages cost the same as the first) and then
+     * the items of all those orders, both mapped straight into DTOs.
+     *
+     * @param cursor {@code nextCursor} of the previous page, or null for the first page
+     */
     @Transactional(readOnly = true)
-    public List<OrderDTO> getOrdersByUserId(Long userId) {
-        log.info("Fetching orders for user: {}", userId);
-        List<Order> orders = orderRepository.findByUserId(userId);
-        return orders.stream()
-                .map(this::toDTO)
+    public OrderPageDTO getOrderHistory(Long userId, Long cursor, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        log.info("Fetching orders for user: {} (cursor={}, limit={})", userId, cursor, pageSize);
+        List<OrderRepository.OrderView> page = orderRepository.findHistoryPage(userId,
+                cursor == null ? Long.MAX_VALUE : cursor, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = page.size() > pageSize;
+        if (hasMore) {
+            page = page.subList(0, pageSize);
+        }
+        if (page.isEmpty()) {
+            return OrderPageDTO.builder().orders(Collections.emptyList()).build();
+        }
+
+        Map<Long, List<OrderItemDTO>> items = orderRepository.findItemsByOrderIds(
+                        page.stream().map(OrderRepository.OrderView::getId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.groupingBy(OrderRepository.OrderItemView::getOrderId,
+                        Collectors.mapping(item -> OrderItemDTO.builder()
+                                .id(item.getId())
+                                .productId(item.getProductId())
+                                .quantity(item.getQuantity())
+                                .price(item.getPrice())
+                                .build(), Collectors.toList())));
+        List<OrderDTO> orders = page.stream()
+                .map(order -> OrderDTO.builder()
+                        .id(order.getId())
+                        .userId(order.getUserId())
+                        .status(order.getStatus())
+                        .totalAmount(order.getTotalAmount())
+                        .items(items.getOrDefault(order.getId(), Collections.emptyList()))
+                        .createdAt(order.getCreatedAt())
+                        .build())
                 .collect(Collectors.toList());
+        return OrderPageDTO.builder()
+                .orders(orders)
+                .nextCursor(hasMore ? orders.get(orders.size() - 1).getId() : null)
+                .build();
     }
 
     @Transactional(readOnly = true)
@@ -129,6 +299,10 @@ public class OrderService {
         return toDTO(order);
     }
 
+    /**
+     * Cancel an order with local writes only: the status change and a STOCK_RETURN outbox event,
+     * which {@link OutboxRelay} delivers to product-service in batches to give the stock back
+     */
     @Transactional
     public OrderDTO cancelOrder(Long orderId) {
         log.info("Cancelling order: {}", orderId);
@@ -139,20 +313,63 @@ public class OrderService {
             throw new RuntimeException("Order is already cancelled");
         }
 
-        order.setStatus("CANCELLED");
-        Order updatedOrder = orderRepository.save(order);
+        if (!transitionStatus(orderId, order.getStatus(), "CANCELLED")) {
+            throw new RuntimeException("Order " + orderId + " changed while being cancelled, try again");
+        }
+        orderOutbox.enqueue(orderId, OutboxEvent.STOCK_RETURN,
+                StockReturnRequest.builder().orderIds(Collections.singletonList(orderId)).build());
         log.info("Order cancelled successfully: {}", orderId);
 
-        return toDTO(updatedOrder);
+        return toDTO(orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found: " + orderId)));
     }
 
-    public String extractJwtFromSecurityContext() {
+    /**
+     * Move an order from one status to another only if it is still in {@code from}, keeping the
+     * rollups in step
+     *
+     * @return whether this call made the transition
+     */
+    @Transactional
+    public boolean transitionStatus(Long orderId, String from, String to) {
+        if (orderRepository.transition(orderId, from, to, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        orderRepository.findById(orderId).ifPresent(order -> {
+            orderRollupService.recordStatusChange(order, from, to);
+            orderEventBus.publish(statusEvent(order, from));
+        });
+        return true;
+    }
+
+    private static OrderStatusEvent statusEvent(Order order, String previousStatus) {
+        return OrderStatusEvent.builder()
+                .orderId(order.getId())
+                .userId(order.getUserId())
+                .previousStatus(previousStatus)
+                .status(order.getStatus())
+                .changedAt(order.getUpdatedAt())
+                .build();
+    }
+
+    static Long currentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.getPrincipal() instanceof Jwt) {
-            Jwt jwt = (Jwt) authentication.getPrincipal();
-            return jwt.getTokenValue();
+            Object userId = ((Jwt) authentication.getPrincipal()).getClaim("userId");
+            if (userId instanceof Number) {
+                return ((Number) userId).longValue();
+            }
+            if (userId instanceof String) {
+                return Long.valueOf((String) userId);
+            }
         }
-        throw new RuntimeException("No JWT token found in security context");
+        return null;
+    }
+
+    static boolean isAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
     }
 
     private OrderDTO toDTO(Order order) {
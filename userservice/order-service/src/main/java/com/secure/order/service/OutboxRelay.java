@@ -0,0 +1,292 @@
+package com.secure.order.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.secure.order.dto.StockReservationRequest;
+import com.secure.order.dto.StockReturnRequest;
+import com.secure.order.entity.OutboxEvent;
+import com.secure.order.repository.OrderRepository;
+import com.secure.order.repository.OutboxEventRepository;
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Background relay that drains the order outbox.
+ *
+ * Due events are claimed one by one with a conditional lease update, so the relay can run on
+ * every replica; delivery happens outside any transaction, so no DB connection is held while
+ * product-service is called. A transient failure (5xx, timeout, connection refused) is retried
+ * with exponential backoff up to max-attempts, after which the event is marked FAILED and kept
+ * for inspection. A 4xx means product-service refused the side effect; the event is marked
+ * REJECTED. Deliveries are idempotent per order on the product-service side, so a redelivery
+ * after a lost response or an expired lease is harmless.
+ *
+ * Stock returns for cancelled orders are sent together, one call per batch, so product-service
+ * increments each product once however many cancelled orders contained it.
+ *
+ * SENT and REJECTED events are purged once they are older than the retention, so the outbox
+ * stays a small hot table; FAILED events are kept until someone looks at them.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductServiceClient productServiceClient;
+
+    @Autowired
+    private OrderMetrics orderMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${order.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${order.outbox.max-batches:20}")
+    private int maxBatches;
+
+    @Value("${order.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${order.outbox.initial-backoff:1s}")
+    private Duration initialBackoff;
+
+    @Value("${order.outbox.max-backoff:5m}")
+    private Duration maxBackoff;
+
+    @Value("${order.outbox.lease:30s}")
+    private Duration lease;
+
+    @Value("${order.outbox.retention:7d}")
+    private Duration retention;
+
+    @Value("${order.outbox.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval-ms:1000}",
+            initialDelayString = "${order.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        try {
+            for (int batch = 0; batch < maxBatches; batch++) {
+                if (relayBatch() < batchSize) {
+                    return;
+                }
+            }
+            log.warn("Outbox relay stopped after {} batches; the rest is left for the next run", maxBatches);
+        } catch (RuntimeException e) {
+            log.error("Outbox relay failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.purge-interval-ms:3600000}",
+            initialDelayString = "${order.outbox.purge-interval-ms:3600000}")
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int purged = 0;
+        try {
+            for (int batch = 0; batch < maxBatches; batch++) {
+                int deleted = purgeBatch(cutoff);
+                purged += deleted;
+                if (deleted < purgeBatchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Outbox purge failed: {}", e.getMessage(), e);
+        }
+        if (purged > 0) {
+            log.info("Purged {} outbox events processed before {}", purged, cutoff);
+        }
+    }
+
+    /**
+     * Delete one batch of SENT and REJECTED events processed before {@code cutoff}
+     *
+     * @return number of events deleted; fewer than {@code purgeBatchSize} means nothing is left to purge
+     */
+    int purgeBatch(LocalDateTime cutoff) {
+        List<Long> ids = outboxEventRepository.findIdsProcessedBefore(
+                Arrays.asList(OutboxEvent.SENT, OutboxEvent.REJECTED), cutoff, PageRequest.of(0, purgeBatchSize));
+        if (!ids.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(ids);
+        }
+        return ids.size();
+    }
+
+    /**
+     * Deliver one batch of due events. Events are delivered one by one in id order, except
+     * stock returns, which go to product-service together in a single call after the others.
+     *
+     * @return number of due events found; fewer than {@code batchSize} means the outbox is drained
+     */
+    int relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> due = outboxEventRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                OutboxEvent.PENDING, now, PageRequest.of(0, batchSize));
+        List<OutboxEvent> returns = new ArrayList<>();
+        for (OutboxEvent event : due) {
+            if (outboxEventRepository.claim(event.getId(), now, now.plus(lease)) != 1) {
+                continue;
+            }
+            if (OutboxEvent.STOCK_RETURN.equals(event.getEventType())) {
+                returns.add(event);
+            } else {
+                process(Collections.singletonList(event), () -> deliver(event));
+            }
+        }
+        if (!returns.isEmpty()) {
+            process(returns, () -> deliverStockReturns(returns));
+        }
+        return due.size();
+    }
+
+    /**
+     * Run one delivery covering {@code events} and record its outcome on each of them
+     */
+    private void process(List<OutboxEvent> events, Runnable delivery) {
+        try {
+            delivery.run();
+            for (OutboxEvent event : events) {
+                outboxEventRepository.complete(event.getId(), OutboxEvent.SENT, LocalDateTime.now(), null);
+                orderMetrics.recordOutboxDelivery(event.getEventType(), "sent");
+            }
+        } catch (FeignException e) {
+            boolean rejected = e.status() >= 400 && e.status() < 500;
+            for (OutboxEvent event : events) {
+                if (rejected) {
+                    reject(event, e);
+                } else {
+                    retryOrFail(event, e);
+                }
+            }
+        } catch (RuntimeException e) {
+            for (OutboxEvent event : events) {
+                retryOrFail(event, e);
+            }
+        }
+    }
+
+    private void deliver(OutboxEvent event) {
+        if (OutboxEvent.STOCK_RESERVATION.equals(event.getEventType())) {
+            deliverStockReservation(event);
+        } else {
+            throw new IllegalStateException("Unknown outbox event type: " + event.getEventType());
+        }
+    }
+
+    /**
+     * Reserve and immediately confirm the order's stock, then confirm the order. Both calls are
+     * idempotent per order id. An order cancelled before delivery is skipped; one cancelled
+     * during delivery has its stock returned here, since its own STOCK_RETURN event may already
+     * have been delivered before the reservation existed.
+     */
+    private void deliverStockReservation(OutboxEvent event) {
+        Long orderId = event.getOrderId();
+        if (!"PENDING".equals(orderRepository.findStatusById(orderId).orElse(null))) {
+            log.info("Order {} is no longer pending, skipping stock reservation", orderId);
+            return;
+        }
+        productServiceClient.reserveStock(readPayload(event, StockReservationRequest.class));
+        productServiceClient.confirmReservation(orderId);
+        if (orderService.transitionStatus(orderId, "PENDING", "CONFIRMED")) {
+            log.info("Stock reserved and order {} confirmed", orderId);
+        } else {
+            log.info("Order {} was cancelled during stock reservation, returning its stock", orderId);
+            productServiceClient.returnStock(StockReturnRequest.builder()
+                    .orderIds(Collections.singletonList(orderId))
+                    .build());
+        }
+    }
+
+    /**
+     * Give back the stock of a batch of cancelled orders in one product-service call, which
+     * increments each product once for the whole batch
+     */
+    private void deliverStockReturns(List<OutboxEvent> events) {
+        List<Long> orderIds = events.stream()
+                .map(OutboxEvent::getOrderId)
+                .distinct()
+                .collect(Collectors.toList());
+        productServiceClient.returnStock(StockReturnRequest.builder().orderIds(orderIds).build());
+        log.info("Stock returned for {} cancelled orders", orderIds.size());
+    }
+
+    /**
+     * product-service refused the side effect. A refused stock reservation (insufficient stock,
+     * reservation no longer held) means the order cannot be fulfilled, so it is cancelled.
+     */
+    private void reject(OutboxEvent event, FeignException e) {
+        String error = truncate(e.getMessage());
+        log.warn("Outbox event {} ({}) for order {} rejected: {}", event.getId(), event.getEventType(),
+                event.getOrderId(), error);
+        outboxEventRepository.complete(event.getId(), OutboxEvent.REJECTED, LocalDateTime.now(), error);
+        if (OutboxEvent.STOCK_RESERVATION.equals(event.getEventType())) {
+            orderService.transitionStatus(event.getOrderId(), "PENDING", "CANCELLED");
+        }
+        orderMetrics.recordOutboxDelivery(event.getEventType(), "rejected");
+    }
+
+    private void retryOrFail(OutboxEvent event, RuntimeException e) {
+        String error = truncate(e.getMessage());
+        int attempt = event.getAttempts() + 1;
+        if (attempt >= maxAttempts) {
+            log.error("Outbox event {} ({}) for order {} failed after {} attempts: {}", event.getId(),
+                    event.getEventType(), event.getOrderId(), attempt, error);
+            outboxEventRepository.complete(event.getId(), OutboxEvent.FAILED, LocalDateTime.now(), error);
+            orderMetrics.recordOutboxDelivery(event.getEventType(), "failed");
+            return;
+        }
+        Duration backoff = backoff(attempt);
+        log.warn("Outbox event {} ({}) for order {} failed (attempt {}), retrying in {}: {}", event.getId(),
+                event.getEventType(), event.getOrderId(), attempt, backoff, error);
+        outboxEventRepository.retryLater(event.getId(), LocalDateTime.now().plus(backoff), error);
+        orderMetrics.recordOutboxDelivery(event.getEventType(), "retry");
+    }
+
+    /**
+     * initialBackoff * 2^(attempt - 1), capped at maxBackoff
+     */
+    Duration backoff(int attempt) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempt - 1, 30));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private <T> T readPayload(OutboxEvent event, Class<T> type) {
+        try {
+            return objectMapper.readValue(event.getPayload(), type);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable payload of outbox event " + event.getId(), e);
+        }
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
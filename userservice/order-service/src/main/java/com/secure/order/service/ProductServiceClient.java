@@ -1,27 +1,41 @@
 package com.secure.order.service;
 
 import com.secure.common.dto.ApiResponse;
-import com.secure.order.dto.ProductInfo;
+import com.secure.order.dto.ProductBatchInfo;
+import com.secure.order.dto.ProductBatchRequest;
+import com.secure.order.dto.StockReservationRequest;
+import com.secure.order.dto.StockReturnRequest;
 import org.springframework.cloud.openfeign.FeignClient;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
 /**
  * Feign client for product-service.
- * Used by order-service to validate product existence/stock and to decrement stock
- * after a successful order placement.
+ * Used by order-service to validate product existence/stock, to reserve and confirm
+ * stock for an order and to give back the stock of cancelled orders.
  */
 @FeignClient(name = "product-service")
 public interface ProductServiceClient {
 
-    @GetMapping("/products/{productId}")
-    ApiResponse<ProductInfo> getProductById(@PathVariable("productId") Long productId);
+    /**
+     * Look up many products in one call; ids that do not exist come back in notFound.
+     */
+    @PostMapping("/products/batch")
+    ApiResponse<ProductBatchInfo> getProductsByIds(@RequestBody ProductBatchRequest request);
 
-    @PatchMapping("/products/{productId}/stock")
-    ApiResponse<ProductInfo> decrementStock(
-            @PathVariable("productId") Long productId,
-            @RequestParam("quantity") int quantity
-    );
+    /**
+     * Hold stock for every item of an order (all-or-nothing); holds expire unless confirmed.
+     */
+    @PostMapping("/products/reservations")
+    ApiResponse<Object> reserveStock(@RequestBody StockReservationRequest request);
+
+    @PostMapping("/products/reservations/{orderId}/confirm")
+    ApiResponse<Object> confirmReservation(@PathVariable("orderId") Long orderId);
+
+    /**
+     * Give back the stock of cancelled orders, one increment per product; idempotent per order.
+     */
+    @PostMapping("/products/reservations/returns")
+    ApiResponse<Object> returnStock(@RequestBody StockReturnRequest request);
 }
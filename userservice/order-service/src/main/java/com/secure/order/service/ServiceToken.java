@@ -0,0 +1,43 @@
+package com.secure.order.service;
+
+import com.secure.common.security.JwtTokenProvider;
+import com.secure.common.security.SecurityUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Bearer token for order-service's own calls to other services (role SERVICE), signed with the
+ * shared JWT secret. Reused until half of its lifetime has passed.
+ */
+@Component
+public class ServiceToken {
+
+    private static final String SUBJECT = "order-service";
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private volatile String token;
+    private volatile long renewAt;
+
+    public String bearer() {
+        long now = System.currentTimeMillis();
+        String current = token;
+        if (current == null || now >= renewAt) {
+            synchronized (this) {
+                if (token == null || now >= renewAt) {
+                    token = jwtTokenProvider.generateToken(SecurityUser.builder()
+                            .id(0L)
+                            .username(SUBJECT)
+                            .roles(List.of("ROLE_SERVICE"))
+                            .build());
+                    renewAt = now + jwtTokenProvider.getExpirationTime() / 2;
+                }
+                current = token;
+            }
+        }
+        return "Bearer " + current;
+    }
+}
@@ -0,0 +1,116 @@
+package com.secure.order.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.secure.common.dto.ApiResponse;
+import com.secure.order.dto.UserBatchInfo;
+import com.secure.order.dto.UserBatchRequest;
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Whether a user exists in user-service (has a profile there), cached in-process. Checked only
+ * when an admin orders on behalf of another user; a caller's own account is proven by its token.
+ *
+ * Users are looked up by userId through user-service's batch endpoint with order-service's own
+ * {@link ServiceToken}. Lookups run asynchronously on the downstream call executor and concurrent
+ * lookups of one user share a single call. A found user is cached for positive-ttl and one in
+ * notFound for the shorter negative-ttl, so a deleted user is refused without asking user-service
+ * again; failed lookups (timeouts, 5xx, 403) leave the user unknown and are not cached.
+ */
+@Component
+@Slf4j
+public class UserExistenceCache {
+
+    private final AsyncCache<Long, Boolean> cache;
+    private final UserServiceClient userServiceClient;
+    private final ServiceToken serviceToken;
+    private final DownstreamCallExecutor downstreamCallExecutor;
+
+    public UserExistenceCache(UserServiceClient userServiceClient,
+                              ServiceToken serviceToken,
+                              DownstreamCallExecutor downstreamCallExecutor,
+                              MeterRegistry meterRegistry,
+                              @Value("${order.user-check.positive-ttl:10m}") Duration positiveTtl,
+                              @Value("${order.user-check.negative-ttl:1m}") Duration negativeTtl,
+                              @Value("${order.user-check.max-size:100000}") long maxSize) {
+        this.userServiceClient = userServiceClient;
+        this.serviceToken = serviceToken;
+        this.downstreamCallExecutor = downstreamCallExecutor;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Long, Boolean>() {
+                    @Override
+                    public long expireAfterCreate(Long userId, Boolean exists, long currentTime) {
+                        return (exists ? positiveTtl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long userId, Boolean exists, long currentTime, long currentDuration) {
+                        return expireAfterCreate(userId, exists, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long userId, Boolean exists, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userExistence");
+    }
+
+    /**
+     * The cached answer, if there is one; never calls user-service
+     */
+    public Optional<Boolean> cached(Long userId) {
+        CompletableFuture<Boolean> future = cache.getIfPresent(userId);
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return Optional.of(future.join());
+    }
+
+    /**
+     * The cached answer, or a lookup in user-service
+     */
+    public CompletableFuture<Boolean> exists(Long userId) {
+        CompletableFuture<Boolean> previous = cache.getIfPresent(userId);
+        if (previous != null && previous.isCompletedExceptionally()) {
+            // Caffeine drops a failed lookup asynchronously; don't hand it out again in the meantime
+            cache.asMap().remove(userId, previous);
+        }
+        return cache.get(userId, (id, executor) -> CompletableFuture.supplyAsync(
+                () -> lookup(id), downstreamCallExecutor.executor()));
+    }
+
+    private boolean lookup(Long userId) {
+        UserBatchInfo batch;
+        try {
+            ApiResponse<UserBatchInfo> response = userServiceClient.getUsersByUserIds(
+                    UserBatchRequest.builder().userIds(List.of(userId)).build(), serviceToken.bearer());
+            batch = response.getData();
+        } catch (FeignException.Forbidden e) {
+            log.warn("user-service refused the lookup of user {}; leaving it unknown", userId);
+            throw new IllegalStateException("User lookup forbidden for user " + userId);
+        }
+        if (batch == null) {
+            throw new IllegalStateException("Empty user batch response");
+        }
+        if (batch.getNotFound() != null && batch.getNotFound().contains(userId)) {
+            log.info("User {} not found in user-service", userId);
+            return false;
+        }
+        return batch.getProfiles() != null && batch.getProfiles().containsKey(userId);
+    }
+}
@@ -1,17 +1,22 @@
 package com.secure.order.service;
 
-import com.secure.common.dto.UserDTO;
+import com.secure.common.dto.ApiResponse;
+import com.secure.order.dto.UserBatchInfo;
+import com.secure.order.dto.UserBatchRequest;
 import org.springframework.cloud.openfeign.FeignClient;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 
 @FeignClient(name = "user-service")
 public interface UserServiceClient {
 
-    @GetMapping("/users/{userId}")
-    UserDTO getUserById(
-            @PathVariable("userId") Long userId,
+    /**
+     * Look up profiles by userId in one call; userIds without a profile come back in notFound.
+     */
+    @PostMapping("/users/batch")
+    ApiResponse<UserBatchInfo> getUsersByUserIds(
+            @RequestBody UserBatchRequest request,
             @RequestHeader("Authorization") String token
     );
 
@@ -0,0 +1,20 @@
+-- Order Service - Transactional outbox
+-- Side effects of an order write (product-service stock calls) are recorded in the same
+-- transaction and delivered afterwards by the outbox relay
+
+CREATE TABLE order_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    order_id BIGINT NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    payload CLOB NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    processed_at TIMESTAMP,
+    CONSTRAINT chk_outbox_status CHECK (status IN ('PENDING', 'SENT', 'REJECTED', 'FAILED'))
+);
+
+CREATE INDEX idx_order_outbox_due ON order_outbox(status, next_attempt_at);
+CREATE INDEX idx_order_outbox_order_id ON order_outbox(order_id);
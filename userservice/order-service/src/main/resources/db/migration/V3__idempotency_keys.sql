@@ -0,0 +1,18 @@
+-- Order Service - Idempotency keys
+-- Responses of POST /orders keyed by caller and Idempotency-Key header, replayed for retries
+
+CREATE TABLE idempotency_keys (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    principal VARCHAR(255) NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    response_status INT,
+    response_body CLOB,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_idempotency_keys UNIQUE (principal, idempotency_key),
+    CONSTRAINT chk_idempotency_status CHECK (status IN ('IN_PROGRESS', 'COMPLETED'))
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
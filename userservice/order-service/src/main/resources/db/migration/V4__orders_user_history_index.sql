@@ -0,0 +1,6 @@
+-- Order Service - Order history index
+-- Order history pages seek on (user_id, id) newest first; the composite index serves both the
+-- filter and the order, and makes the single-column user_id index redundant
+
+CREATE INDEX idx_orders_user_id_id ON orders(user_id, id);
+DROP INDEX idx_orders_user_id;
@@ -0,0 +1,34 @@
+-- Order Service - Order analytics rollups
+-- Incrementally maintained per (order date, status) and per (order date, status, product) on every
+-- order write, so that dashboards read a few aggregate rows instead of scanning orders
+
+CREATE TABLE order_rollup_daily (
+    rollup_date DATE NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    order_count BIGINT NOT NULL,
+    revenue DECIMAL(19, 2) NOT NULL,
+    PRIMARY KEY (rollup_date, status)
+);
+
+CREATE TABLE order_product_rollup_daily (
+    rollup_date DATE NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    product_id BIGINT NOT NULL,
+    order_count BIGINT NOT NULL,
+    quantity BIGINT NOT NULL,
+    revenue DECIMAL(19, 2) NOT NULL,
+    PRIMARY KEY (rollup_date, status, product_id)
+);
+
+CREATE INDEX idx_order_product_rollup_product ON order_product_rollup_daily(product_id, rollup_date);
+
+-- Existing orders
+INSERT INTO order_rollup_daily (rollup_date, status, order_count, revenue)
+SELECT CAST(created_at AS DATE), status, COUNT(*), SUM(total_amount)
+FROM orders
+GROUP BY CAST(created_at AS DATE), status;
+
+INSERT INTO order_product_rollup_daily (rollup_date, status, product_id, order_count, quantity, revenue)
+SELECT CAST(o.created_at AS DATE), o.status, i.product_id, COUNT(DISTINCT o.id), SUM(i.quantity), SUM(i.price * i.quantity)
+FROM orders o JOIN order_items i ON i.order_id = o.id
+GROUP BY CAST(o.created_at AS DATE), o.status, i.product_id;
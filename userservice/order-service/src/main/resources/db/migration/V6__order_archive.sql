@@ -0,0 +1,30 @@
+-- Order Service - Order archive
+-- Terminal orders past the archive age are moved here by the order archiver, so the hot orders
+-- and order_items tables and their indexes only hold recent and in-flight orders
+
+CREATE TABLE orders_archive (
+    id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    total_amount DECIMAL(19, 2) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE order_items_archive (
+    id BIGINT PRIMARY KEY,
+    order_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    price DECIMAL(19, 2) NOT NULL,
+    CONSTRAINT fk_order_items_archive_order FOREIGN KEY (order_id) REFERENCES orders_archive(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_orders_archive_user_id_id ON orders_archive(user_id, id);
+CREATE INDEX idx_order_items_archive_order_id ON order_items_archive(order_id);
+
+-- The archiver looks for terminal orders by last update; the composite index also serves the
+-- status lookups the single-column index did
+CREATE INDEX idx_orders_status_updated_at ON orders(status, updated_at);
+DROP INDEX idx_orders_status;
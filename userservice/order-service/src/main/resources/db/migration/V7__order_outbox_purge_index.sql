@@ -0,0 +1,5 @@
+-- Order Service - Outbox retention
+-- SENT and REJECTED events are purged a while after processing; the purge finds them by
+-- status and processing time
+
+CREATE INDEX idx_order_outbox_processed ON order_outbox(status, processed_at);
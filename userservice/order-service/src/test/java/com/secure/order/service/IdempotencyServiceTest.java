@@ -0,0 +1,251 @@
+package com.secure.order.service;
+
+import com.secure.common.dto.ApiResponse;
+import com.secure.order.entity.IdempotencyRecord;
+import com.secure.order.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs outside a test transaction: the service commits every record change on its own, and the
+ * concurrent tests need those commits to be visible across threads.
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "order.idempotency.wait-timeout=1s",
+        "order.idempotency.in-progress-timeout=2m"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({IdempotencyService.class, JacksonAutoConfiguration.class})
+class IdempotencyServiceTest {
+
+    private static final String PRINCIPAL = "42";
+    private static final String KEY = "order-1";
+    private static final Map<String, Object> BODY = Collections.singletonMap("productId", 7);
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void replaysCompletedResponseWithoutRunningAgain() {
+        ResponseEntity<ApiResponse> first = idempotencyService.execute(PRINCIPAL, KEY, BODY, created("order 1"));
+        ResponseEntity<ApiResponse> second = idempotencyService.execute(PRINCIPAL, KEY, BODY, created("order 2"));
+
+        assertEquals(1, runs.get());
+        assertEquals(HttpStatus.CREATED, first.getStatusCode());
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("order 1", second.getBody().getMessage());
+    }
+
+    @Test
+    void sameKeyWithDifferentBodyIsRejected() {
+        idempotencyService.execute(PRINCIPAL, KEY, BODY, created("order 1"));
+
+        ResponseEntity<ApiResponse> response = idempotencyService.execute(PRINCIPAL, KEY,
+                Collections.singletonMap("productId", 8), created("order 2"));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void keysAreScopedToThePrincipal() {
+        idempotencyService.execute(PRINCIPAL, KEY, BODY, created("order 1"));
+        ResponseEntity<ApiResponse> other = idempotencyService.execute("43", KEY, BODY, created("order 2"));
+
+        assertEquals(2, runs.get());
+        assertNull(other.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void rejectsBlankAndOverlongKeys() {
+        assertEquals(HttpStatus.BAD_REQUEST,
+                idempotencyService.execute(PRINCIPAL, " ", BODY, created("order")).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                idempotencyService.execute(PRINCIPAL, "k".repeat(101), BODY, created("order")).getStatusCode());
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void failedRequestReleasesTheKey() {
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute(PRINCIPAL, KEY, BODY, () -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("product-service down");
+        }));
+        assertTrue(repository.findByPrincipalAndIdempotencyKey(PRINCIPAL, KEY).isEmpty());
+
+        ResponseEntity<ApiResponse> retry = idempotencyService.execute(PRINCIPAL, KEY, BODY, created("order 1"));
+
+        assertEquals(2, runs.get());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertNull(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void errorResponseReleasesTheKey() {
+        idempotencyService.execute(PRINCIPAL, KEY, BODY, () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message("out of stock"));
+        });
+        assertTrue(repository.findByPrincipalAndIdempotencyKey(PRINCIPAL, KEY).isEmpty());
+
+        ResponseEntity<ApiResponse> retry = idempotencyService.execute(PRINCIPAL, KEY, BODY, created("order 1"));
+
+        assertEquals(2, runs.get());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+    }
+
+    @Test
+    void abandonedInProgressKeyIsTakenOver() {
+        IdempotencyRecord abandoned = inProgress(fingerprintOf(BODY));
+        jdbcTemplate.update("UPDATE idempotency_keys SET created_at = ? WHERE id = ?",
+                LocalDateTime.now().minusMinutes(3), abandoned.getId());
+
+        ResponseEntity<ApiResponse> response = idempotencyService.execute(PRINCIPAL, KEY, BODY, created("order 1"));
+
+        assertEquals(1, runs.get());
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(IdempotencyRecord.COMPLETED,
+                repository.findByPrincipalAndIdempotencyKey(PRINCIPAL, KEY).orElseThrow().getStatus());
+    }
+
+    @Test
+    void waitsForAnotherReplicaAndReplaysItsResponse() throws Exception {
+        IdempotencyRecord running = inProgress(fingerprintOf(BODY));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ResponseEntity<ApiResponse>> duplicate = executor.submit(
+                    () -> idempotencyService.execute(PRINCIPAL, KEY, BODY, created("order 2")));
+            Thread.sleep(200);
+            repository.complete(running.getId(), HttpStatus.CREATED.value(),
+                    "{\"success\":true,\"message\":\"order 1\"}");
+
+            ResponseEntity<ApiResponse> response = duplicate.get(5, TimeUnit.SECONDS);
+
+            assertEquals(0, runs.get());
+            assertEquals("true", response.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+            assertEquals("order 1", response.getBody().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void givesUpWithConflictWhileAnotherReplicaIsStillRunning() {
+        inProgress(fingerprintOf(BODY));
+
+        ResponseEntity<ApiResponse> response = idempotencyService.execute(PRINCIPAL, KEY, BODY, created("order 1"));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void concurrentDuplicatesRunTheActionOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<ResponseEntity<ApiResponse>> slow = () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(message("order 1"));
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<ApiResponse>> first = executor.submit(
+                    () -> idempotencyService.execute(PRINCIPAL, KEY, BODY, slow));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<ResponseEntity<ApiResponse>> second = executor.submit(
+                    () -> idempotencyService.execute(PRINCIPAL, KEY, BODY, slow));
+            Thread.sleep(200);
+            release.countDown();
+
+            ResponseEntity<ApiResponse> original = first.get(5, TimeUnit.SECONDS);
+            ResponseEntity<ApiResponse> duplicate = second.get(5, TimeUnit.SECONDS);
+
+            assertEquals(1, runs.get());
+            assertEquals(HttpStatus.CREATED, original.getStatusCode());
+            assertEquals(HttpStatus.CREATED, duplicate.getStatusCode());
+            assertEquals("true", duplicate.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+            assertEquals("order 1", duplicate.getBody().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Supplier<ResponseEntity<ApiResponse>> created(String message) {
+        return () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).body(message(message));
+        };
+    }
+
+    private static ApiResponse message(String message) {
+        return ApiResponse.builder()
+                .success(true)
+                .message(message)
+                .build();
+    }
+
+    private IdempotencyRecord inProgress(String requestHash) {
+        return repository.saveAndFlush(IdempotencyRecord.builder()
+                .principal(PRINCIPAL)
+                .idempotencyKey(KEY)
+                .requestHash(requestHash)
+                .status(IdempotencyRecord.IN_PROGRESS)
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build());
+    }
+
+    /**
+     * The hash the service records for {@code body}, taken from a throwaway key
+     */
+    private String fingerprintOf(Object body) {
+        idempotencyService.execute(PRINCIPAL, "fingerprint", body, created("probe"));
+        IdempotencyRecord probe = repository.findByPrincipalAndIdempotencyKey(PRINCIPAL, "fingerprint").orElseThrow();
+        repository.delete(probe);
+        runs.set(0);
+        return probe.getRequestHash();
+    }
+}
@@ -0,0 +1,117 @@
+package com.secure.order.service;
+
+import com.secure.order.dto.OrderDTO;
+import com.secure.order.dto.OrderPageDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@JdbcTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "order.archive.after=30d",
+        "order.archive.batch-size=2"
+})
+@Import({OrderArchiver.class, OrderArchiveService.class})
+class OrderArchiverTest {
+
+    private static final long USER_ID = 42L;
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private OrderMetrics orderMetrics;
+
+    @Test
+    void archivesOnlyTerminalOrdersPastTheAgeWithTheirItems() {
+        LocalDateTime old = LocalDateTime.now().minusDays(60);
+        saveOrder(1001, "CONFIRMED", old, 2);
+        saveOrder(1002, "PENDING", old, 1);
+        saveOrder(1003, "CANCELLED", LocalDateTime.now().minusDays(1), 1);
+        saveOrder(1004, "CANCELLED", old, 1);
+        jdbcTemplate.update("INSERT INTO order_outbox (order_id, event_type, payload, status, next_attempt_at, "
+                + "created_at) VALUES (1004, 'STOCK_RETURN', '{}', 'PENDING', ?, ?)", timestamp(old), timestamp(old));
+
+        orderArchiver.archive();
+
+        assertEquals(Arrays.asList(1002L, 1003L, 1004L), ids("SELECT id FROM orders WHERE user_id = 42 ORDER BY id"));
+        assertEquals(Arrays.asList(1001L), ids("SELECT id FROM orders_archive ORDER BY id"));
+        assertEquals(2, count("SELECT COUNT(*) FROM order_items_archive WHERE order_id = 1001"));
+        assertEquals(0, count("SELECT COUNT(*) FROM order_items WHERE order_id = 1001"));
+        verify(orderMetrics).recordArchived(1);
+    }
+
+    @Test
+    void archivesInBatchesUntilNothingIsLeft() {
+        LocalDateTime old = LocalDateTime.now().minusDays(60);
+        for (long id = 1001; id <= 1005; id++) {
+            saveOrder(id, "CONFIRMED", old, 1);
+        }
+
+        orderArchiver.archive();
+
+        assertEquals(0, count("SELECT COUNT(*) FROM orders WHERE user_id = 42"));
+        assertEquals(5, count("SELECT COUNT(*) FROM orders_archive WHERE user_id = 42"));
+        verify(orderMetrics, times(2)).recordArchived(2);
+        verify(orderMetrics).recordArchived(1);
+    }
+
+    @Test
+    void archivedHistoryIsReadPageByPageNewestFirst() {
+        LocalDateTime old = LocalDateTime.now().minusDays(60);
+        for (long id = 1001; id <= 1003; id++) {
+            saveOrder(id, "CONFIRMED", old, 2);
+        }
+        orderArchiver.archive();
+
+        OrderPageDTO first = orderArchiveService.getArchivedHistory(USER_ID, null, 2);
+        assertEquals(Arrays.asList(1003L, 1002L), first.getOrders().stream()
+                .map(OrderDTO::getId)
+                .collect(Collectors.toList()));
+        assertEquals(2, first.getOrders().get(0).getItems().size());
+        assertEquals(1002L, first.getNextCursor());
+
+        OrderPageDTO second = orderArchiveService.getArchivedHistory(USER_ID, first.getNextCursor(), 2);
+        assertEquals(1, second.getOrders().size());
+        assertNull(second.getNextCursor());
+    }
+
+    private void saveOrder(long id, String status, LocalDateTime updatedAt, int items) {
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, status, total_amount, created_at, updated_at) "
+                + "VALUES (?, ?, ?, 10.00, ?, ?)", id, USER_ID, status, timestamp(updatedAt), timestamp(updatedAt));
+        for (int i = 0; i < items; i++) {
+            jdbcTemplate.update("INSERT INTO order_items (order_id, product_id, quantity, price) "
+                    + "VALUES (?, ?, 1, 5.00)", id, 100 + i);
+        }
+    }
+
+    private List<Long> ids(String sql) {
+        return jdbcTemplate.queryForList(sql, Long.class);
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+
+    private static Timestamp timestamp(LocalDateTime time) {
+        return Timestamp.valueOf(time);
+    }
+}
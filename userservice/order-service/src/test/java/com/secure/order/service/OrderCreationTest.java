@@ -0,0 +1,134 @@
+package com.secure.order.service;
+
+import com.secure.common.dto.ApiResponse;
+import com.secure.order.dto.CreateOrderRequest;
+import com.secure.order.dto.OrderDTO;
+import com.secure.order.dto.ProductBatchInfo;
+import com.secure.order.dto.ProductInfo;
+import com.secure.order.dto.UserBatchInfo;
+import com.secure.order.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * POST /orders from the service down, with the real user existence cache behind a stubbed
+ * user-service that has no profile for the users ordering.
+ */
+@DataJpaTest(properties = "spring.cloud.config.enabled=false")
+@Import({OrderService.class, UserExistenceCache.class, DownstreamCallExecutor.class, SimpleMeterRegistry.class})
+class OrderCreationTest {
+
+    private static final long USER_ID = 42L;
+    private static final long ADMIN_ID = 9L;
+    private static final long PRODUCT_ID = 7L;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @MockBean
+    private UserServiceClient userServiceClient;
+
+    @MockBean
+    private ServiceToken serviceToken;
+
+    @MockBean
+    private ProductServiceClient productServiceClient;
+
+    @MockBean
+    private OrderMetrics orderMetrics;
+
+    @MockBean
+    private OrderOutbox orderOutbox;
+
+    @MockBean
+    private OrderRollupService orderRollupService;
+
+    @MockBean
+    private OrderEventBus orderEventBus;
+
+    @BeforeEach
+    void setUp() {
+        when(productServiceClient.getProductsByIds(any())).thenReturn(ApiResponse.<ProductBatchInfo>builder()
+                .success(true)
+                .data(new ProductBatchInfo(
+                        Map.of(PRODUCT_ID, new ProductInfo(PRODUCT_ID, "Book", BigDecimal.TEN, 100, true)),
+                        List.of()))
+                .build());
+        when(userServiceClient.getUsersByUserIds(any(), any())).thenReturn(ApiResponse.<UserBatchInfo>builder()
+                .success(true)
+                .data(new UserBatchInfo(Collections.emptyMap(), List.of(USER_ID)))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void userWithoutProfilePlacesTwoOrdersInARow() {
+        authenticate(USER_ID, "ROLE_USER");
+        long before = orderRepository.count();
+
+        OrderDTO first = orderService.createOrder(order(null));
+        OrderDTO second = orderService.createOrder(order(null));
+
+        assertEquals(USER_ID, first.getUserId());
+        assertEquals(USER_ID, second.getUserId());
+        assertEquals(before + 2, orderRepository.count());
+        verifyNoInteractions(userServiceClient);
+    }
+
+    @Test
+    void adminOrderingForSomeoneElseStillChecksTheUser() {
+        authenticate(ADMIN_ID, "ROLE_ADMIN");
+        long before = orderRepository.count();
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> orderService.createOrder(order(USER_ID)));
+
+        assertTrue(e.getMessage().contains("User not found"), e.getMessage());
+        assertEquals(before, orderRepository.count());
+    }
+
+    private static CreateOrderRequest order(Long userId) {
+        return CreateOrderRequest.builder()
+                .userId(userId)
+                .items(List.of(CreateOrderRequest.OrderItemRequest.builder()
+                        .productId(PRODUCT_ID)
+                        .quantity(1)
+                        .build()))
+                .build();
+    }
+
+    private static void authenticate(long userId, String role) {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("user" + userId)
+                .claim("userId", userId)
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new JwtAuthenticationToken(jwt, List.of(new SimpleGrantedAuthority(role))));
+    }
+}
@@ -0,0 +1,211 @@
+package com.secure.order.service;
+
+import com.secure.order.dto.OrderStatusEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrderEventBusTest {
+
+    private final Deque<RecordingEmitter> emitters = new ArrayDeque<>();
+    private OrderMetrics orderMetrics;
+    private OrderEventBus bus;
+
+    @BeforeEach
+    void setUp() {
+        orderMetrics = mock(OrderMetrics.class);
+        bus = new OrderEventBus() {
+            @Override
+            SseEmitter createEmitter() {
+                return emitters.pop();
+            }
+        };
+        ReflectionTestUtils.setField(bus, "orderMetrics", orderMetrics);
+        ReflectionTestUtils.setField(bus, "bufferSize", 2);
+        ReflectionTestUtils.setField(bus, "maxSubscribers", 10);
+        ReflectionTestUtils.setField(bus, "timeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(bus, "senderThreads", 1);
+        ReflectionTestUtils.setField(bus, "sendTimeout", Duration.ofMillis(50));
+        bus.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        bus.stop();
+    }
+
+    @Test
+    void deliversEventsInOrderToTheUsersStreamsOnly() throws InterruptedException {
+        RecordingEmitter mine = subscribe(1L, new RecordingEmitter());
+        RecordingEmitter theirs = subscribe(2L, new RecordingEmitter());
+
+        bus.publish(event(1L, 10L));
+        bus.publish(event(1L, 11L));
+        bus.publish(event(2L, 20L));
+
+        awaitDelivered(mine, 2);
+        awaitDelivered(theirs, 1);
+        assertEquals(Arrays.asList(10L, 11L), mine.orderIds);
+        assertEquals(Collections.singletonList(20L), theirs.orderIds);
+    }
+
+    @Test
+    void publishesOnlyAfterCommit() throws InterruptedException {
+        RecordingEmitter emitter = subscribe(1L, new RecordingEmitter());
+
+        TransactionSynchronizationManager.initSynchronization();
+        bus.publish(event(1L, 10L));
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.initSynchronization();
+        bus.publish(event(1L, 11L));
+        assertTrue(emitter.orderIds.isEmpty());
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        TransactionSynchronizationManager.clearSynchronization();
+
+        bus.publish(event(1L, 12L));
+
+        awaitDelivered(emitter, 2);
+        assertEquals(Arrays.asList(11L, 12L), emitter.orderIds);
+    }
+
+    @Test
+    void fullBufferEvictsTheSubscriberWithoutWaitingForItsWrite() throws InterruptedException {
+        AtomicInteger open = openStreams();
+        RecordingEmitter slow = subscribe(1L, new RecordingEmitter().stalled());
+        bus.publish(event(1L, 10L));
+        assertTrue(slow.writing.await(5, TimeUnit.SECONDS));
+
+        bus.publish(event(1L, 11L));
+        bus.publish(event(1L, 12L));
+        bus.publish(event(1L, 13L));
+
+        verify(orderMetrics).recordStreamEviction();
+        assertEquals(0, open.get());
+        assertEquals(1, slow.completed.getCount(), "completed while its write was in flight");
+
+        slow.release.countDown();
+
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(10L), slow.orderIds);
+    }
+
+    @Test
+    void stalledWriteIsEvictedAndDoesNotHoldUpOtherStreams() throws InterruptedException {
+        RecordingEmitter stalled = subscribe(1L, new RecordingEmitter().stalled());
+        RecordingEmitter healthy = subscribe(2L, new RecordingEmitter());
+        bus.publish(event(1L, 10L));
+        assertTrue(stalled.writing.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+
+        bus.evictStalled();
+        bus.publish(event(2L, 20L));
+
+        awaitDelivered(healthy, 1);
+        verify(orderMetrics).recordStreamEviction();
+        assertEquals(2, sender().getCorePoolSize());
+
+        stalled.release.countDown();
+
+        assertTrue(stalled.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, sender().getCorePoolSize());
+    }
+
+    private RecordingEmitter subscribe(Long userId, RecordingEmitter emitter) {
+        emitters.push(emitter);
+        bus.subscribe(userId);
+        return emitter;
+    }
+
+    private AtomicInteger openStreams() {
+        ArgumentCaptor<AtomicInteger> gauge = ArgumentCaptor.forClass(AtomicInteger.class);
+        verify(orderMetrics).monitorStreamSubscribers(gauge.capture());
+        return gauge.getValue();
+    }
+
+    private ThreadPoolExecutor sender() {
+        return (ThreadPoolExecutor) ReflectionTestUtils.getField(bus, "sender");
+    }
+
+    private static void awaitDelivered(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emitter.orderIds.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, emitter.orderIds.size());
+    }
+
+    private static OrderStatusEvent event(Long userId, Long orderId) {
+        return OrderStatusEvent.builder()
+                .orderId(orderId)
+                .userId(userId)
+                .status("CONFIRMED")
+                .build();
+    }
+
+    /**
+     * Records the orders written to it; a stalled one blocks its writes until released
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<Long> orderIds = new CopyOnWriteArrayList<>();
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        private volatile boolean stalled;
+
+        RecordingEmitter stalled() {
+            stalled = true;
+            return this;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            writing.countDown();
+            if (stalled) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .filter(OrderStatusEvent.class::isInstance)
+                    .forEach(data -> orderIds.add(((OrderStatusEvent) data).getOrderId()));
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.secure.order.service;
+
+import com.secure.order.dto.OrderDTO;
+import com.secure.order.dto.OrderPageDTO;
+import com.secure.order.entity.Order;
+import com.secure.order.entity.OrderItem;
+import com.secure.order.repository.OrderRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(OrderService.class)
+class OrderHistoryQueryTest {
+
+    private static final long USER_ID = 42L;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private UserExistenceCache userExistenceCache;
+
+    @MockBean
+    private ProductServiceClient productServiceClient;
+
+    @MockBean
+    private DownstreamCallExecutor downstreamCallExecutor;
+
+    @MockBean
+    private OrderMetrics orderMetrics;
+
+    @MockBean
+    private OrderOutbox orderOutbox;
+
+    @MockBean
+    private OrderRollupService orderRollupService;
+
+    @MockBean
+    private OrderEventBus orderEventBus;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void historyPageTakesTwoStatementsWhateverTheNumberOfOrders() {
+        saveOrders(5);
+        assertEquals(2, statementsFor(() -> orderService.getOrderHistory(USER_ID, null, 100)));
+
+        saveOrders(95);
+        assertEquals(2, statementsFor(() -> orderService.getOrderHistory(USER_ID, null, 100)));
+    }
+
+    @Test
+    void cursorWalksAllOrdersNewestFirstWithTheirItems() {
+        List<Long> saved = saveOrders(5);
+        List<Long> seen = new ArrayList<>();
+
+        OrderPageDTO page = orderService.getOrderHistory(USER_ID, null, 2);
+        seen.addAll(ids(page));
+        assertEquals(2, page.getOrders().size());
+        assertEquals(2, page.getOrders().get(0).getItems().size());
+        while (page.getNextCursor() != null) {
+            page = orderService.getOrderHistory(USER_ID, page.getNextCursor(), 2);
+            seen.addAll(ids(page));
+        }
+
+        List<Long> newestFirst = new ArrayList<>(saved);
+        newestFirst.sort((a, b) -> Long.compare(b, a));
+        assertEquals(newestFirst, seen);
+    }
+
+    @Test
+    void emptyHistoryHasNoCursor() {
+        OrderPageDTO page = orderService.getOrderHistory(USER_ID, null, null);
+
+        assertTrue(page.getOrders().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    private long statementsFor(Runnable read) {
+        entityManager.clear();
+        statistics.clear();
+        read.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Long> saveOrders(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Order order = Order.builder()
+                    .userId(USER_ID)
+                    .status("PENDING")
+                    .totalAmount(new BigDecimal("30.00"))
+                    .build();
+            order.addItem(OrderItem.builder().productId(1L).quantity(1).price(new BigDecimal("10.00")).build());
+            order.addItem(OrderItem.builder().productId(2L).quantity(2).price(new BigDecimal("10.00")).build());
+            ids.add(orderRepository.save(order).getId());
+        }
+        entityManager.flush();
+        return ids;
+    }
+
+    private static List<Long> ids(OrderPageDTO page) {
+        return page.getOrders().stream().map(OrderDTO::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,177 @@
+package com.secure.order.service;
+
+import com.secure.common.dto.ApiResponse;
+import com.secure.order.dto.CreateOrderRequest;
+import com.secure.order.dto.OrderRollupDTO;
+import com.secure.order.dto.ProductBatchInfo;
+import com.secure.order.dto.ProductInfo;
+import com.secure.order.dto.ProductRollupDTO;
+import com.secure.order.dto.RollupBackfillStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs outside a test transaction: the backfill rebuilds on its own threads and must see the
+ * orders the service committed.
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "order.analytics.backfill.chunk-days=1"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OrderService.class, OrderRollupService.class, OrderRollupBackfill.class, DownstreamCallExecutor.class,
+        SimpleMeterRegistry.class})
+class OrderRollupTest {
+
+    private static final long USER_ID = 77L;
+    private static final long BOOK = 7L;
+    private static final long PEN = 8L;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRollupService orderRollupService;
+
+    @Autowired
+    private OrderRollupBackfill orderRollupBackfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private UserExistenceCache userExistenceCache;
+
+    @MockBean
+    private ProductServiceClient productServiceClient;
+
+    @MockBean
+    private OrderMetrics orderMetrics;
+
+    @MockBean
+    private OrderOutbox orderOutbox;
+
+    @MockBean
+    private OrderEventBus orderEventBus;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        when(productServiceClient.getProductsByIds(any())).thenReturn(ApiResponse.<ProductBatchInfo>builder()
+                .success(true)
+                .data(new ProductBatchInfo(Map.of(
+                        BOOK, new ProductInfo(BOOK, "Book", new BigDecimal("12.50"), 100, true),
+                        PEN, new ProductInfo(PEN, "Pen", new BigDecimal("1.99"), 100, true)),
+                        List.of()))
+                .build());
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("user" + USER_ID)
+                .claim("userId", USER_ID)
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new JwtAuthenticationToken(jwt, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        // orders other tests committed today were written without rollups
+        backfill(today, today);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (SELECT id FROM orders WHERE user_id = ?)",
+                USER_ID);
+        jdbcTemplate.update("DELETE FROM orders WHERE user_id = ?", USER_ID);
+        backfill(today.minusDays(2), today);
+    }
+
+    @Test
+    void incrementalRollupsMatchABackfillOfTheSameDay() throws InterruptedException {
+        List<OrderRollupDTO> baseline = orderRollupService.getDailyRollups(today, today, null);
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            orderIds.add(orderService.createOrder(order(i)).getId());
+        }
+        assertTrue(orderService.transitionStatus(orderIds.get(0), "PENDING", "CONFIRMED"));
+        assertTrue(orderService.transitionStatus(orderIds.get(1), "PENDING", "CONFIRMED"));
+        orderService.cancelOrder(orderIds.get(1));
+        orderService.cancelOrder(orderIds.get(2));
+
+        List<OrderRollupDTO> daily = orderRollupService.getDailyRollups(today, today, null);
+        List<ProductRollupDTO> products = orderRollupService.getProductRollups(today, today, null, null);
+        assertEquals(2L, countFor(daily, "PENDING") - countFor(baseline, "PENDING"));
+        assertEquals(1L, countFor(daily, "CONFIRMED") - countFor(baseline, "CONFIRMED"));
+        assertEquals(2L, countFor(daily, "CANCELLED") - countFor(baseline, "CANCELLED"));
+
+        backfill(today, today);
+
+        assertEquals(daily, orderRollupService.getDailyRollups(today, today, null));
+        assertEquals(products, orderRollupService.getProductRollups(today, today, null, null));
+    }
+
+    @Test
+    void backfillWithoutAnEndStopsAtYesterday() throws InterruptedException {
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, total_amount, status, created_at, updated_at) "
+                        + "VALUES (990001, ?, 10.00, 'CONFIRMED', ?, ?)", USER_ID,
+                Timestamp.valueOf(today.minusDays(2).atTime(12, 0)), Timestamp.valueOf(LocalDateTime.now()));
+
+        RollupBackfillStatus status = orderRollupBackfill.start(today.minusDays(2), null);
+        awaitCompleted();
+
+        assertEquals(today.minusDays(1), status.getTo());
+        assertEquals(2, status.getChunks());
+    }
+
+    private void backfill(LocalDate from, LocalDate to) throws InterruptedException {
+        orderRollupBackfill.start(from, to);
+        awaitCompleted();
+    }
+
+    private void awaitCompleted() throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while ("RUNNING".equals(orderRollupBackfill.getStatus().getState()) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals("COMPLETED", orderRollupBackfill.getStatus().getState(), orderRollupBackfill.getStatus().getError());
+    }
+
+    private static long countFor(List<OrderRollupDTO> rollups, String status) {
+        return rollups.stream()
+                .filter(rollup -> status.equals(rollup.getStatus()))
+                .mapToLong(OrderRollupDTO::getOrderCount)
+                .sum();
+    }
+
+    private static CreateOrderRequest order(int quantity) {
+        return CreateOrderRequest.builder()
+                .items(List.of(
+                        CreateOrderRequest.OrderItemRequest.builder().productId(BOOK).quantity(quantity).build(),
+                        CreateOrderRequest.OrderItemRequest.builder().productId(PEN).quantity(1).build()))
+                .build();
+    }
+}
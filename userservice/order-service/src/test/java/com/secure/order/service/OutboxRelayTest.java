@@ -0,0 +1,218 @@
+package com.secure.order.service;
+
+import com.secure.order.dto.StockDecrementRequest;
+import com.secure.order.dto.StockReservationRequest;
+import com.secure.order.dto.StockReturnRequest;
+import com.secure.order.entity.Order;
+import com.secure.order.entity.OutboxEvent;
+import com.secure.order.repository.OrderRepository;
+import com.secure.order.repository.OutboxEventRepository;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "order.outbox.max-attempts=3",
+        "order.outbox.initial-backoff=1s",
+        "order.outbox.retention=7d",
+        "order.outbox.purge-batch-size=2"
+})
+@Import({OutboxRelay.class, OrderOutbox.class, JacksonAutoConfiguration.class})
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OrderOutbox orderOutbox;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @MockBean
+    private ProductServiceClient productServiceClient;
+
+    @MockBean
+    private OrderService orderService;
+
+    @MockBean
+    private OrderMetrics orderMetrics;
+
+    @Test
+    void deliversAReservationAndConfirmsTheOrder() {
+        Long orderId = saveOrder();
+        OutboxEvent event = enqueueReservation(orderId);
+        when(orderService.transitionStatus(orderId, "PENDING", "CONFIRMED")).thenReturn(true);
+
+        outboxRelay.relayBatch();
+
+        verify(productServiceClient).reserveStock(any(StockReservationRequest.class));
+        verify(productServiceClient).confirmReservation(orderId);
+        verify(productServiceClient, never()).returnStock(any());
+        OutboxEvent sent = reload(event);
+        assertEquals(OutboxEvent.SENT, sent.getStatus());
+        assertNotNull(sent.getProcessedAt());
+    }
+
+    @Test
+    void retriesATransientFailureWithBackoff() {
+        OutboxEvent event = enqueueReservation(saveOrder());
+        when(productServiceClient.reserveStock(any())).thenThrow(feignError(503));
+        LocalDateTime before = LocalDateTime.now();
+
+        outboxRelay.relayBatch();
+
+        OutboxEvent retried = reload(event);
+        assertEquals(OutboxEvent.PENDING, retried.getStatus());
+        assertEquals(1, retried.getAttempts());
+        assertNotNull(retried.getLastError());
+        assertFalse(retried.getNextAttemptAt().isBefore(before.plusSeconds(1)));
+        verify(orderService, never()).transitionStatus(any(), any(), any());
+    }
+
+    @Test
+    void marksTheEventFailedAfterMaxAttempts() {
+        OutboxEvent event = enqueueReservation(saveOrder());
+        event.setAttempts(2);
+        outboxEventRepository.saveAndFlush(event);
+        when(productServiceClient.reserveStock(any())).thenThrow(new IllegalStateException("connection refused"));
+
+        outboxRelay.relayBatch();
+
+        OutboxEvent failed = reload(event);
+        assertEquals(OutboxEvent.FAILED, failed.getStatus());
+        assertEquals(3, failed.getAttempts());
+    }
+
+    @Test
+    void aRejectedReservationCancelsTheOrder() {
+        Long orderId = saveOrder();
+        OutboxEvent event = enqueueReservation(orderId);
+        when(productServiceClient.reserveStock(any())).thenThrow(feignError(409));
+
+        outboxRelay.relayBatch();
+
+        assertEquals(OutboxEvent.REJECTED, reload(event).getStatus());
+        verify(orderService).transitionStatus(orderId, "PENDING", "CANCELLED");
+        verify(productServiceClient, never()).confirmReservation(any());
+    }
+
+    @Test
+    void skipsEventsLeasedByAnotherRelay() {
+        OutboxEvent event = enqueueReservation(saveOrder());
+        LocalDateTime now = LocalDateTime.now();
+        assertEquals(1, outboxEventRepository.claim(event.getId(), now, now.plusSeconds(30)));
+
+        outboxRelay.relayBatch();
+
+        verifyNoInteractions(productServiceClient);
+        OutboxEvent leased = reload(event);
+        assertEquals(OutboxEvent.PENDING, leased.getStatus());
+        assertEquals(0, leased.getAttempts());
+    }
+
+    @Test
+    void sendsTheStockReturnsOfABatchInOneCall() {
+        Long first = saveOrder();
+        Long second = saveOrder();
+        OutboxEvent firstReturn = enqueueReturn(first);
+        OutboxEvent secondReturn = enqueueReturn(second);
+
+        outboxRelay.relayBatch();
+
+        verify(productServiceClient, times(1)).returnStock(
+                StockReturnRequest.builder().orderIds(Arrays.asList(first, second)).build());
+        assertEquals(OutboxEvent.SENT, reload(firstReturn).getStatus());
+        assertEquals(OutboxEvent.SENT, reload(secondReturn).getStatus());
+    }
+
+    @Test
+    void purgesOldSentAndRejectedEventsInBatchesButKeepsFailedOnes() {
+        Long orderId = saveOrder();
+        LocalDateTime old = LocalDateTime.now().minusDays(8);
+        processed(orderId, OutboxEvent.SENT, old);
+        processed(orderId, OutboxEvent.REJECTED, old);
+        processed(orderId, OutboxEvent.SENT, old);
+        OutboxEvent oldFailed = processed(orderId, OutboxEvent.FAILED, old);
+        OutboxEvent recentSent = processed(orderId, OutboxEvent.SENT, LocalDateTime.now().minusDays(1));
+
+        outboxRelay.purge();
+
+        List<Long> left = outboxEventRepository.findAll().stream()
+                .map(OutboxEvent::getId)
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList(oldFailed.getId(), recentSent.getId()), left);
+    }
+
+    private Long saveOrder() {
+        return orderRepository.saveAndFlush(Order.builder()
+                .userId(42L)
+                .status("PENDING")
+                .totalAmount(new BigDecimal("10.00"))
+                .build()).getId();
+    }
+
+    private OutboxEvent enqueueReservation(Long orderId) {
+        return orderOutbox.enqueue(orderId, OutboxEvent.STOCK_RESERVATION, StockReservationRequest.builder()
+                .orderId(orderId)
+                .items(Collections.singletonList(StockDecrementRequest.Item.builder()
+                        .productId(1L)
+                        .quantity(2)
+                        .build()))
+                .build());
+    }
+
+    private OutboxEvent enqueueReturn(Long orderId) {
+        return orderOutbox.enqueue(orderId, OutboxEvent.STOCK_RETURN,
+                StockReturnRequest.builder().orderIds(Collections.singletonList(orderId)).build());
+    }
+
+    private OutboxEvent processed(Long orderId, String status, LocalDateTime processedAt) {
+        return outboxEventRepository.saveAndFlush(OutboxEvent.builder()
+                .orderId(orderId)
+                .eventType(OutboxEvent.STOCK_RETURN)
+                .payload("{}")
+                .status(status)
+                .attempts(1)
+                .nextAttemptAt(processedAt)
+                .processedAt(processedAt)
+                .build());
+    }
+
+    private OutboxEvent reload(OutboxEvent event) {
+        return outboxEventRepository.findById(event.getId()).orElseThrow(IllegalStateException::new);
+    }
+
+    private static FeignException feignError(int status) {
+        Request request = Request.create(Request.HttpMethod.POST, "/products/reservations", Collections.emptyMap(),
+                null, StandardCharsets.UTF_8, null);
+        return FeignException.errorStatus("ProductServiceClient#reserveStock", Response.builder()
+                .status(status)
+                .reason("status " + status)
+                .request(request)
+                .headers(Collections.emptyMap())
+                .build());
+    }
+}
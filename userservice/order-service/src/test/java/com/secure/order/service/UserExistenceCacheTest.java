@@ -0,0 +1,105 @@
+package com.secure.order.service;
+
+import com.secure.common.dto.ApiResponse;
+import com.secure.order.dto.UserBatchInfo;
+import com.secure.order.dto.UserBatchRequest;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UserExistenceCacheTest {
+
+    private static final String BEARER = "Bearer service-token";
+
+    private final UserServiceClient userServiceClient = mock(UserServiceClient.class);
+    private final ServiceToken serviceToken = mock(ServiceToken.class);
+    private DownstreamCallExecutor executor;
+    private UserExistenceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(serviceToken.bearer()).thenReturn(BEARER);
+        executor = new DownstreamCallExecutor(2, 10);
+        cache = new UserExistenceCache(userServiceClient, serviceToken, executor, new SimpleMeterRegistry(),
+                Duration.ofMinutes(10), Duration.ofMinutes(1), 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void looksUsersUpByUserIdWithTheServiceTokenAndCachesFound() {
+        when(userServiceClient.getUsersByUserIds(any(), eq(BEARER)))
+                .thenReturn(batch(Map.of(7L, Map.of("id", 3)), List.of()));
+
+        assertTrue(cache.exists(7L).join());
+        assertTrue(cache.exists(7L).join());
+
+        verify(userServiceClient, times(1))
+                .getUsersByUserIds(eq(UserBatchRequest.builder().userIds(List.of(7L)).build()), eq(BEARER));
+        assertEquals(Optional.of(true), cache.cached(7L));
+    }
+
+    @Test
+    void cachesNotFoundSoTheUserIsRefusedWithoutAnotherCall() {
+        when(userServiceClient.getUsersByUserIds(any(), eq(BEARER)))
+                .thenReturn(batch(Collections.emptyMap(), List.of(8L)));
+
+        assertFalse(cache.exists(8L).join());
+
+        assertEquals(Optional.of(false), cache.cached(8L));
+        assertFalse(cache.exists(8L).join());
+        verify(userServiceClient, times(1)).getUsersByUserIds(any(), any());
+    }
+
+    @Test
+    void leavesTheUserUnknownWhenUserServiceRefusesTheLookup() {
+        when(userServiceClient.getUsersByUserIds(any(), eq(BEARER))).thenThrow(forbidden());
+
+        assertThrows(CompletionException.class, () -> cache.exists(9L).join());
+
+        assertEquals(Optional.empty(), cache.cached(9L));
+        when(userServiceClient.getUsersByUserIds(any(), eq(BEARER)))
+                .thenReturn(batch(Map.of(9L, Map.of("id", 9)), List.of()));
+        assertTrue(cache.exists(9L).join());
+        verify(userServiceClient, times(2)).getUsersByUserIds(any(), any());
+    }
+
+    private static ApiResponse<UserBatchInfo> batch(Map<Long, Object> profiles, List<Long> notFound) {
+        return ApiResponse.<UserBatchInfo>builder()
+                .success(true)
+                .data(new UserBatchInfo(profiles, notFound))
+                .build();
+    }
+
+    private static FeignException forbidden() {
+        Request request = Request.create(Request.HttpMethod.POST, "/users/batch", Collections.emptyMap(),
+                null, StandardCharsets.UTF_8, null);
+        Response response = Response.builder()
+                .status(403)
+                .reason("Forbidden")
+                .request(request)
+                .headers(Collections.emptyMap())
+                .build();
+        return FeignException.errorStatus("UserServiceClient#getUsersByUserIds", response);
+    }
+}
@@ -0,0 +1,71 @@
+package com.secure.product.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Publishes and receives L1 invalidation messages over a Redis pub/sub channel.
+ * Messages published by this instance are ignored on receipt, since the local
+ * L1 has already been updated by the write that triggered them.
+ */
+@Slf4j
+public class CacheInvalidationBus implements MessageListener {
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private TwoLevelCacheManager cacheManager;
+
+    public CacheInvalidationBus(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    void bind(TwoLevelCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * Publish an invalidation for a single key, or for the whole cache when key is null.
+     * Failures are logged and swallowed: the L2 write has already happened and peers
+     * will converge once their L1 entries expire.
+     */
+    public void publish(String cacheName, String key) {
+        try {
+            CacheInvalidationMessage message = CacheInvalidationMessage.builder()
+                    .origin(instanceId)
+                    .cacheName(cacheName)
+                    .key(key)
+                    .build();
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(message));
+        } catch (Exception e) {
+            log.warn("Failed to publish cache invalidation for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            CacheInvalidationMessage invalidation = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), CacheInvalidationMessage.class);
+            if (instanceId.equals(invalidation.getOrigin()) || cacheManager == null) {
+                return;
+            }
+            log.debug("Received L1 invalidation for {}::{}", invalidation.getCacheName(), invalidation.getKey());
+            cacheManager.invalidateLocal(invalidation.getCacheName(), invalidation.getKey());
+        } catch (Exception e) {
+            log.warn("Ignoring malformed cache invalidation message: {}", e.getMessage());
+        }
+    }
+}
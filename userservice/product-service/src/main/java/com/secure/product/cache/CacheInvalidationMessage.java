@@ -0,0 +1,21 @@
+package com.secure.product.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cross-replica L1 invalidation message published over Redis pub/sub.
+ * A null key means the whole cache was cleared.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheInvalidationMessage {
+
+    private String origin;
+    private String cacheName;
+    private String key;
+}
@@ -0,0 +1,13 @@
+package com.secure.product.cache;
+
+/**
+ * Encodes cache values to bytes and back.
+ * Implementations must return null from {@link #decode(byte[])} for payloads they cannot
+ * read (for example, written by a newer format version) so callers treat them as a cache miss.
+ */
+public interface CacheValueCodec {
+
+    byte[] encode(Object value);
+
+    Object decode(byte[] bytes);
+}
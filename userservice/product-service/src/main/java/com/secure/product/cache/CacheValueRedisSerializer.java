@@ -0,0 +1,25 @@
+package com.secure.product.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Adapts a {@link CacheValueCodec} to Spring Data Redis.
+ */
+public class CacheValueRedisSerializer implements RedisSerializer<Object> {
+
+    private final CacheValueCodec codec;
+
+    public CacheValueRedisSerializer(CacheValueCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        return value == null ? new byte[0] : codec.encode(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        return codec.decode(bytes);
+    }
+}
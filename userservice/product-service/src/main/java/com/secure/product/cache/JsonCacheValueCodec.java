@@ -0,0 +1,34 @@
+package com.secure.product.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+/**
+ * The original cache format: Jackson JSON with default typing (fully qualified class names).
+ */
+public class JsonCacheValueCodec implements CacheValueCodec {
+
+    private final GenericJackson2JsonRedisSerializer serializer;
+
+    public JsonCacheValueCodec() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.activateDefaultTyping(
+                LaissezFaireSubTypeValidator.instance,
+                ObjectMapper.DefaultTyping.NON_FINAL,
+                JsonTypeInfo.As.PROPERTY
+        );
+        this.serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        return serializer.serialize(value);
+    }
+
+    @Override
+    public Object decode(byte[] bytes) {
+        return serializer.deserialize(bytes);
+    }
+}
@@ -0,0 +1,74 @@
+package com.secure.product.cache;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Probabilistic early expiration (XFetch) for entries a replica loaded itself.
+ *
+ * An entry that took {@code delta} to compute and expires at {@code expiry} is refreshed
+ * on a read at time {@code now} when {@code now - delta * beta * ln(rand()) >= expiry}.
+ * The chance grows as expiry approaches and with slower loads, so a hot key is almost always
+ * reloaded by one background refresh before it expires, while cold keys simply expire.
+ * beta > 1 favours earlier refreshes, beta < 1 later ones.
+ */
+public class RefreshAhead {
+
+    private final ExecutorService executor;
+    private final double beta;
+    private final Duration remoteTtl;
+
+    public RefreshAhead(ExecutorService executor, double beta, Duration remoteTtl) {
+        this.executor = executor;
+        this.beta = beta;
+        this.remoteTtl = remoteTtl;
+    }
+
+    /**
+     * No early refresh; entries expire and are reloaded on demand
+     */
+    public static RefreshAhead disabled() {
+        return new RefreshAhead(null, 0, Duration.ZERO);
+    }
+
+    public boolean isEnabled() {
+        return executor != null && beta > 0;
+    }
+
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Stamp for a value this replica has just loaded (and written to L2)
+     */
+    Stamp stamp(long nowMillis, long deltaMillis) {
+        return new Stamp(nowMillis + remoteTtl.toMillis(), Math.max(deltaMillis, 1));
+    }
+
+    boolean shouldRefresh(Stamp stamp, long nowMillis) {
+        double random = ThreadLocalRandom.current().nextDouble();
+        return nowMillis - stamp.deltaMillis * beta * Math.log(random) >= stamp.expiresAtMillis;
+    }
+
+    /**
+     * When an entry's L2 copy expires and how long it took to compute
+     */
+    static final class Stamp {
+
+        final long expiresAtMillis;
+        final long deltaMillis;
+
+        Stamp(long expiresAtMillis, long deltaMillis) {
+            this.expiresAtMillis = expiresAtMillis;
+            this.deltaMillis = deltaMillis;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.secure.product.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact, versioned binary codec for cache values.
+ *
+ * Layout: {@code [MAGIC][FORMAT_VERSION][TYPE_TAG][Smile payload]}. The type tag replaces the
+ * fully qualified class names that default typing writes into every JSON value; bit 7 of the
+ * tag marks a {@code List} of the registered type.
+ *
+ * Schema evolution:
+ * <ul>
+ *   <li>Unknown properties are ignored and missing ones stay null, so adding or removing
+ *   DTO fields does not require a format bump.</li>
+ *   <li>An incompatible change bumps {@link #FORMAT_VERSION}; older readers treat newer
+ *   payloads (and unknown tags) as a cache miss instead of failing the request.</li>
+ *   <li>Payloads without the magic byte are read with the fallback codec, so entries written
+ *   by the JSON format before a rollout stay readable until they expire.</li>
+ *   <li>Tags are never reused for a different type.</li>
+ * </ul>
+ * Values of unregistered types are written with the fallback codec.
+ */
+@Slf4j
+public class SmileCacheValueCodec implements CacheValueCodec {
+
+    static final byte MAGIC = (byte) 0xCA;
+    static final byte FORMAT_VERSION = 1;
+    private static final int HEADER_LENGTH = 3;
+    private static final int LIST_FLAG = 0x80;
+    private static final byte EMPTY_LIST_TAG = (byte) LIST_FLAG;
+
+    private final ObjectMapper smileMapper;
+    private final CacheValueCodec fallback;
+    private final Map<Class<?>, Byte> tagsByType = new ConcurrentHashMap<>();
+    private final Map<Byte, JavaType> typesByTag = new ConcurrentHashMap<>();
+
+    public SmileCacheValueCodec(CacheValueCodec fallback) {
+        this.smileMapper = new ObjectMapper(new SmileFactory())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.fallback = fallback;
+    }
+
+    /**
+     * Register a value type under a permanent tag (1..127). Lists of the type are handled automatically.
+     */
+    public SmileCacheValueCodec register(int tag, Class<?> type) {
+        if (tag < 1 || tag >= LIST_FLAG) {
+            throw new IllegalArgumentException("Cache type tag must be between 1 and 127: " + tag);
+        }
+        byte single = (byte) tag;
+        if (typesByTag.containsKey(single)) {
+            throw new IllegalArgumentException("Cache type tag already registered: " + tag);
+        }
+        tagsByType.put(type, single);
+        typesByTag.put(single, smileMapper.constructType(type));
+        typesByTag.put((byte) (tag | LIST_FLAG),
+                smileMapper.getTypeFactory().constructCollectionType(ArrayList.class, type));
+        return this;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        if (value == null) {
+            return null;
+        }
+        Byte tag = tagFor(value);
+        if (tag == null) {
+            return fallback.encode(value);
+        }
+        try {
+            byte[] payload = tag == EMPTY_LIST_TAG ? new byte[0] : smileMapper.writeValueAsBytes(value);
+            byte[] bytes = new byte[HEADER_LENGTH + payload.length];
+            bytes[0] = MAGIC;
+            bytes[1] = FORMAT_VERSION;
+            bytes[2] = tag;
+            System.arraycopy(payload, 0, bytes, HEADER_LENGTH, payload.length);
+            return bytes;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode cache value of type " + value.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    public Object decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            if (bytes[0] != MAGIC) {
+                return fallback.decode(bytes);
+            }
+            if (bytes.length < HEADER_LENGTH || bytes[1] > FORMAT_VERSION) {
+                log.debug("Skipping cache value with unsupported format version {}", bytes.length > 1 ? bytes[1] : -1);
+                return null;
+            }
+            if (bytes[2] == EMPTY_LIST_TAG) {
+                return new ArrayList<>();
+            }
+            JavaType type = typesByTag.get(bytes[2]);
+            if (type == null) {
+                log.debug("Skipping cache value with unknown type tag {}", bytes[2]);
+                return null;
+            }
+            return smileMapper.readValue(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, type);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Treating unreadable cache value as a miss: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Byte tagFor(Object value) {
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            if (list.isEmpty()) {
+                return EMPTY_LIST_TAG;
+            }
+            Object first = list.get(0);
+            Byte elementTag = first != null ? tagsByType.get(first.getClass()) : null;
+            if (elementTag == null || !allOfType(list, first.getClass())) {
+                return null;
+            }
+            return (byte) (elementTag | LIST_FLAG);
+        }
+        return tagsByType.get(value.getClass());
+    }
+
+    private static boolean allOfType(List<?> list, Class<?> type) {
+        for (Object element : list) {
+            if (element == null || element.getClass() != type) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
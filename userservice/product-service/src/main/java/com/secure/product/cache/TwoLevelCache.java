@@ -0,0 +1,300 @@
+package com.secure.product.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Two-level cache: a bounded in-process Caffeine L1 in front of a shared Redis L2.
+ *
+ * Reads try L1, then L2 (promoting hits into L1), then the loader. Writes go to L2
+ * first, then L1, and finally broadcast an invalidation so other replicas drop their
+ * stale L1 copy. L1 keys are normalised to their string form so that they match the
+ * keys carried in invalidation messages.
+ *
+ * Loads through {@link #get(Object, Callable)} (@Cacheable(sync = true)) are single-flight
+ * per key on this replica: concurrent misses wait for one load instead of all hitting the
+ * database. Entries this replica loaded are stamped with their load time and L2 expiry so
+ * that hot ones can be refreshed in the background before they expire (see {@link RefreshAhead}).
+ */
+@Slf4j
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final CaffeineCache localCache;
+    private final Cache remoteCache;
+    private final CacheInvalidationBus invalidationBus;
+    private final Metrics metrics;
+    private final RefreshAhead refreshAhead;
+    private final com.github.benmanes.caffeine.cache.Cache<String, RefreshAhead.Stamp> stamps;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    public TwoLevelCache(String name, CaffeineCache localCache, Cache remoteCache,
+                         CacheInvalidationBus invalidationBus, Metrics metrics, RefreshAhead refreshAhead) {
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.invalidationBus = invalidationBus;
+        this.metrics = metrics;
+        this.refreshAhead = refreshAhead;
+        // Bounded like L1: a stamp is only consulted while its entry is read
+        this.stamps = Caffeine.newBuilder()
+                .maximumSize(localCache.getNativeCache().policy().eviction()
+                        .map(Policy.Eviction::getMaximum)
+                        .orElse(Long.MAX_VALUE))
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    public CaffeineCache getLocalCache() {
+        return localCache;
+    }
+
+    public Cache getRemoteCache() {
+        return remoteCache;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper local = localCache.get(localKey);
+        if (local != null) {
+            return local;
+        }
+        ValueWrapper remote = getRemote(key);
+        if (remote != null && remote.get() != null) {
+            localCache.put(localKey, remote.get());
+        }
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper local = localCache.get(localKey);
+        if (local != null) {
+            refreshIfDue(key, localKey, valueLoader);
+            return (T) local.get();
+        }
+
+        // Caffeine computes at most once per key per instance, so concurrent misses
+        // on this replica share a single L2 lookup and at most one load.
+        boolean[] computed = {false, false};
+        T value = localCache.get(localKey, () -> {
+            computed[0] = true;
+            ValueWrapper remote = getRemote(key);
+            if (remote != null && remote.get() != null) {
+                return (T) remote.get();
+            }
+            computed[1] = true;
+            return load(key, localKey, valueLoader);
+        });
+        if (!computed[0]) {
+            metrics.collapsedLoads.increment();
+        } else if (!computed[1]) {
+            refreshIfDue(key, localKey, valueLoader);
+        }
+        return value;
+    }
+
+    private <T> T load(Object key, String localKey, Callable<T> valueLoader) throws Exception {
+        long started = System.currentTimeMillis();
+        T value = valueLoader.call();
+        metrics.loads.increment();
+        if (value != null) {
+            remoteCache.put(key, value);
+            if (refreshAhead.isEnabled()) {
+                long now = System.currentTimeMillis();
+                stamps.put(localKey, refreshAhead.stamp(now, now - started));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * XFetch: reload a hot entry in the background ahead of its L2 expiry. At most one refresh
+     * per key is in flight; readers keep getting the current value meanwhile. A refresh is
+     * discarded if the entry was written or evicted while it ran.
+     */
+    private void refreshIfDue(Object key, String localKey, Callable<?> valueLoader) {
+        if (!refreshAhead.isEnabled()) {
+            return;
+        }
+        RefreshAhead.Stamp stamp = stamps.getIfPresent(localKey);
+        if (stamp == null || !refreshAhead.shouldRefresh(stamp, System.currentTimeMillis())
+                || !refreshing.add(localKey)) {
+            return;
+        }
+        try {
+            refreshAhead.getExecutor().execute(() -> {
+                try {
+                    long started = System.currentTimeMillis();
+                    Object value = valueLoader.call();
+                    long now = System.currentTimeMillis();
+                    if (value != null && stamps.asMap().replace(localKey, stamp, refreshAhead.stamp(now, now - started))) {
+                        remoteCache.put(key, value);
+                        localCache.put(localKey, value);
+                        metrics.earlyRefreshes.increment();
+                    }
+                } catch (Exception e) {
+                    metrics.failedRefreshes.increment();
+                    log.warn("Early refresh of {}::{} failed: {}", name, localKey, e.getMessage());
+                } finally {
+                    refreshing.remove(localKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(localKey);
+        }
+    }
+
+    /**
+     * A write renews the L2 TTL: keep the entry's load time but move its expiry, and make any
+     * in-flight refresh of the previous value discard its result
+     */
+    private void restamp(String localKey) {
+        long now = System.currentTimeMillis();
+        stamps.asMap().computeIfPresent(localKey, (k, stamp) -> refreshAhead.stamp(now, stamp.deltaMillis));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        String localKey = localKey(key);
+        restamp(localKey);
+        remoteCache.put(key, value);
+        localCache.put(localKey, value);
+        invalidationBus.publish(name, localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remoteCache.putIfAbsent(key, value);
+        Object current = existing != null ? existing.get() : value;
+        if (current != null) {
+            localCache.put(localKey(key), current);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = localKey(key);
+        stamps.invalidate(localKey);
+        remoteCache.evict(key);
+        localCache.evict(localKey);
+        invalidationBus.publish(name, localKey);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        String localKey = localKey(key);
+        stamps.invalidate(localKey);
+        boolean present = remoteCache.evictIfPresent(key);
+        present |= localCache.evictIfPresent(localKey);
+        invalidationBus.publish(name, localKey);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        stamps.invalidateAll();
+        remoteCache.clear();
+        localCache.clear();
+        invalidationBus.publish(name, null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        stamps.invalidateAll();
+        boolean present = remoteCache.invalidate();
+        present |= localCache.invalidate();
+        invalidationBus.publish(name, null);
+        return present;
+    }
+
+    /**
+     * Drop an entry (or all entries when key is null) from L1 only.
+     * Used when another replica reports a write.
+     */
+    void invalidateLocal(String key) {
+        if (key == null) {
+            stamps.invalidateAll();
+            localCache.invalidate();
+        } else {
+            stamps.invalidate(key);
+            localCache.evict(key);
+        }
+    }
+
+    private ValueWrapper getRemote(Object key) {
+        ValueWrapper remote = remoteCache.get(key);
+        if (remote != null) {
+            metrics.remoteHits.increment();
+            return new SimpleValueWrapper(remote.get());
+        }
+        metrics.remoteMisses.increment();
+        return null;
+    }
+
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    /**
+     * Counters of one cache: L2 hits/misses, loads, loads collapsed into a concurrent
+     * load (single-flight), and background refreshes ahead of expiry
+     */
+    public static class Metrics {
+
+        final Counter remoteHits;
+        final Counter remoteMisses;
+        final Counter loads;
+        final Counter collapsedLoads;
+        final Counter earlyRefreshes;
+        final Counter failedRefreshes;
+
+        public Metrics(Counter remoteHits, Counter remoteMisses, Counter loads, Counter collapsedLoads,
+                       Counter earlyRefreshes, Counter failedRefreshes) {
+            this.remoteHits = remoteHits;
+            this.remoteMisses = remoteMisses;
+            this.loads = loads;
+            this.collapsedLoads = collapsedLoads;
+            this.earlyRefreshes = earlyRefreshes;
+            this.failedRefreshes = failedRefreshes;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.secure.product.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache manager that pairs every Redis cache with a bounded Caffeine near-cache.
+ * L1 and L2 report hit/miss counters and a hit-ratio gauge tagged with level=l1|l2;
+ * loads report how many were collapsed into a concurrent load or refreshed ahead of expiry.
+ */
+public class TwoLevelCacheManager implements CacheManager, DisposableBean {
+
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final RedisCacheManager remoteCacheManager;
+    private final CacheInvalidationBus invalidationBus;
+    private final MeterRegistry meterRegistry;
+    private final long localMaximumSize;
+    private final Duration localTtl;
+    private final RefreshAhead refreshAhead;
+
+    public TwoLevelCacheManager(RedisCacheManager remoteCacheManager, CacheInvalidationBus invalidationBus,
+                                MeterRegistry meterRegistry, long localMaximumSize, Duration localTtl,
+                                RefreshAhead refreshAhead) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.invalidationBus = invalidationBus;
+        this.meterRegistry = meterRegistry;
+        this.localMaximumSize = localMaximumSize;
+        this.localTtl = localTtl;
+        this.refreshAhead = refreshAhead;
+        invalidationBus.bind(this);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * Apply an invalidation received from another replica to the local L1 only.
+     */
+    public void invalidateLocal(String cacheName, String key) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.invalidateLocal(key);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        refreshAhead.shutdown();
+    }
+
+    private TwoLevelCache createCache(String name) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeLocal = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        CaffeineCache localCache = new CaffeineCache(name, nativeLocal, false);
+        Cache remoteCache = remoteCacheManager.getCache(name);
+
+        Tags l1Tags = Tags.of("level", "l1");
+        CaffeineCacheMetrics.monitor(meterRegistry, nativeLocal, name, l1Tags);
+        Gauge.builder("cache.hit.ratio", nativeLocal, c -> c.stats().hitRate())
+                .tags(l1Tags.and("cache", name))
+                .description("L1 (Caffeine) hit ratio")
+                .register(meterRegistry);
+
+        Tags l2Tags = Tags.of("cache", name, "level", "l2");
+        Counter remoteHits = Counter.builder("cache.l2.gets").tags(l2Tags.and("result", "hit"))
+                .description("L2 (Redis) lookups that returned a value")
+                .register(meterRegistry);
+        Counter remoteMisses = Counter.builder("cache.l2.gets").tags(l2Tags.and("result", "miss"))
+                .description("L2 (Redis) lookups that found nothing")
+                .register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", () -> hitRatio(remoteHits, remoteMisses))
+                .tags(l2Tags)
+                .description("L2 (Redis) hit ratio")
+                .register(meterRegistry);
+
+        Tags loadTags = Tags.of("cache", name);
+        Counter loads = Counter.builder("cache.loads").tags(loadTags.and("result", "loaded"))
+                .description("Values computed by the loader after an L1 and L2 miss")
+                .register(meterRegistry);
+        Counter collapsedLoads = Counter.builder("cache.loads").tags(loadTags.and("result", "collapsed"))
+                .description("Misses served by a concurrent load of the same key instead of loading again")
+                .register(meterRegistry);
+        Counter earlyRefreshes = Counter.builder("cache.refreshes").tags(loadTags.and("result", "success"))
+                .description("Entries reloaded in the background ahead of expiry")
+                .register(meterRegistry);
+        Counter failedRefreshes = Counter.builder("cache.refreshes").tags(loadTags.and("result", "failure"))
+                .description("Background reloads ahead of expiry that failed")
+                .register(meterRegistry);
+
+        TwoLevelCache.Metrics metrics = new TwoLevelCache.Metrics(remoteHits, remoteMisses, loads, collapsedLoads,
+                earlyRefreshes, failedRefreshes);
+        return new TwoLevelCache(name, localCache, remoteCache, invalidationBus, metrics, refreshAhead);
+    }
+
+    private static double hitRatio(Counter hits, Counter misses) {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+}
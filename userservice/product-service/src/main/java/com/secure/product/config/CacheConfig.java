@@ -1,8 +1,16 @@
 package com.secure.product.config;
 
-import com.fasterxml.jackson.annotation.JsonTypeInfo;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.secure.product.cache.CacheInvalidationBus;
+import com.secure.product.cache.CacheValueCodec;
+import com.secure.product.cache.CacheValueRedisSerializer;
+import com.secure.product.cache.JsonCacheValueCodec;
+import com.secure.product.cache.RefreshAhead;
+import com.secure.product.cache.SmileCacheValueCodec;
+import com.secure.product.cache.TwoLevelCacheManager;
+import com.secure.product.dto.ProductDTO;
+import com.secure.product.index.ProductChangeBus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -11,38 +19,80 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Redis Cache Configuration
+ * Two-level cache configuration: Caffeine L1 per instance, Redis L2 shared,
+ * with L1 invalidation broadcast over Redis pub/sub.
  */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    @Value("${product.cache.l1.maximum-size:10000}")
+    private long localMaximumSize;
+
+    @Value("${product.cache.l1.ttl:60s}")
+    private Duration localTtl;
+
+    @Value("${product.cache.l2.ttl:10m}")
+    private Duration remoteTtl;
+
+    @Value("${product.cache.invalidation-channel:product:cache-invalidation}")
+    private String invalidationChannel;
+
+    @Value("${product.cache.codec:smile}")
+    private String codec;
+
+    @Value("${product.cache.refresh-ahead.enabled:true}")
+    private boolean refreshAheadEnabled;
+
+    @Value("${product.cache.refresh-ahead.beta:1.0}")
+    private double refreshAheadBeta;
+
+    @Value("${product.cache.refresh-ahead.threads:2}")
+    private int refreshAheadThreads;
+
     /**
-     * Configure Redis Cache Manager
+     * Value codec shared by the cache manager and the Redis template.
+     * "smile" writes compact tagged binary values and still reads JSON entries written
+     * before the switch; "json" keeps the original default-typed JSON format.
+     * Tags are permanent: never renumber or reuse them.
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
-        // Create ObjectMapper for JSON serialization
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.activateDefaultTyping(
-                LaissezFaireSubTypeValidator.instance,
-                ObjectMapper.DefaultTyping.NON_FINAL,
-                JsonTypeInfo.As.PROPERTY
-        );
-
-        // Create JSON serializer
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
-
-        // Configure Redis cache
+    public CacheValueCodec cacheValueCodec() {
+        JsonCacheValueCodec json = new JsonCacheValueCodec();
+        if ("json".equalsIgnoreCase(codec)) {
+            return json;
+        }
+        return new SmileCacheValueCodec(json)
+                .register(1, ProductDTO.class);
+    }
+
+    /**
+     * Configure two-level Cache Manager (Caffeine L1 + Redis L2)
+     */
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                     CacheInvalidationBus cacheInvalidationBus,
+                                     CacheValueCodec cacheValueCodec,
+                                     MeterRegistry meterRegistry) {
+        CacheValueRedisSerializer serializer = new CacheValueRedisSerializer(cacheValueCodec);
+
+        // Configure Redis cache (L2)
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10)) // Cache TTL: 10 minutes
+                .entryTtl(remoteTtl)
                 .disableCachingNullValues()
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())
@@ -51,16 +101,58 @@ public class CacheConfig {
                         RedisSerializationContext.SerializationPair.fromSerializer(serializer)
                 );
 
-        return RedisCacheManager.builder(redisConnectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(config)
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        return new TwoLevelCacheManager(redisCacheManager, cacheInvalidationBus, meterRegistry,
+                localMaximumSize, localTtl, refreshAhead());
+    }
+
+    /**
+     * Background reloads of hot entries ahead of their L2 expiry, on a small bounded pool;
+     * refreshes that do not fit in the queue are skipped and the entry expires normally
+     */
+    private RefreshAhead refreshAhead() {
+        if (!refreshAheadEnabled) {
+            return RefreshAhead.disabled();
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-refresh-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = new ThreadPoolExecutor(refreshAheadThreads, refreshAheadThreads,
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(100), threadFactory);
+        return new RefreshAhead(executor, refreshAheadBeta, remoteTtl);
+    }
+
+    /**
+     * Publisher/subscriber for cross-replica L1 invalidation
+     */
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate stringRedisTemplate) {
+        return new CacheInvalidationBus(stringRedisTemplate, invalidationChannel);
+    }
+
+    /**
+     * Subscribe to the invalidation and index change channels
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory redisConnectionFactory, CacheInvalidationBus cacheInvalidationBus,
+            ProductChangeBus productChangeBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(cacheInvalidationBus, new ChannelTopic(cacheInvalidationBus.getChannel()));
+        container.addMessageListener(productChangeBus, new ChannelTopic(productChangeBus.getChannel()));
+        return container;
     }
 
     /**
      * Configure Redis Template
      */
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                       CacheValueCodec cacheValueCodec) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(redisConnectionFactory);
 
@@ -69,17 +161,10 @@ public class CacheConfig {
         template.setKeySerializer(stringSerializer);
         template.setHashKeySerializer(stringSerializer);
 
-        // Use JSON serializer for values
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.activateDefaultTyping(
-                LaissezFaireSubTypeValidator.instance,
-                ObjectMapper.DefaultTyping.NON_FINAL,
-                JsonTypeInfo.As.PROPERTY
-        );
-        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
-
-        template.setValueSerializer(jsonSerializer);
-        template.setHashValueSerializer(jsonSerializer);
+        // Use the cache value codec for values
+        CacheValueRedisSerializer valueSerializer = new CacheValueRedisSerializer(cacheValueCodec);
+        template.setValueSerializer(valueSerializer);
+        template.setHashValueSerializer(valueSerializer);
 
         template.afterPropertiesSet();
         return template;
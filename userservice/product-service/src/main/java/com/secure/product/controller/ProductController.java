@@ -1,228 +1,509 @@
-package com.secure.product.controller;
-
-import com.secure.common.dto.ApiResponse;
-import com.secure.product.dto.CreateProductRequest;
-import com.secure.product.dto.ProductDTO;
-import com.secure.product.dto.UpdateProductRequest;
-import com.secure.product.service.ProductService;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.*;
-
-import javax.validation.Valid;
-import java.util.List;
-
-/**
- * Product Controller
- * Public GET endpoints, Authenticated POST/PUT/DELETE endpoints
- */
-@RestController
-@RequestMapping("/products")
-@Slf4j
-public class ProductController {
-
-    @Autowired
-    private ProductService productService;
-
-    /**
-     * Get all products (PUBLIC)
-     */
-    @GetMapping
-    public ResponseEntity<ApiResponse> getAllProducts() {
-        log.info("GET /products - Fetching all products");
-        List<ProductDTO> products = productService.getAllProducts();
-        return ResponseEntity.ok(
-                ApiResponse.builder()
-                        .success(true)
-                        .message("Products retrieved successfully")
-                        .data(products)
-                        .build()
-        );
-    }
-
-    /**
-     * Get product by ID (PUBLIC)
-     */
-    @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse> getProductById(@PathVariable Long id) {
-        log.info("GET /products/{} - Fetching product by id", id);
-        try {
-            ProductDTO product = productService.getProductById(id);
-            return ResponseEntity.ok(
-                    ApiResponse.builder()
-                            .success(true)
-                            .message("Product retrieved successfully")
-                            .data(product)
-                            .build()
-            );
-        } catch (RuntimeException e) {
-            log.error("Product not found with id: {}", id, e);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(ApiResponse.builder()
-                            .success(false)
-                            .message(e.getMessage())
-                            .build()
-                    );
-        }
-    }
-
-    /**
-     * Search products by name (PUBLIC)
-     */
-    @GetMapping("/search")
-    public ResponseEntity<ApiResponse> searchProducts(@RequestParam String name) {
-        log.info("GET /products/search?name={} - Searching products", name);
-        List<ProductDTO> products = productService.searchProducts(name);
-        return ResponseEntity.ok(
-                ApiResponse.builder()
-                        .success(true)
-                        .message("Search completed successfully")
-                        .data(products)
-                        .build()
-        );
-    }
-
-    /**
-     * Get products by category (PUBLIC)
-     */
-    @GetMapping("/category/{category}")
-    public ResponseEntity<ApiResponse> getProductsByCategory(@PathVariable String category) {
-        log.info("GET /products/category/{} - Fetching products by category", category);
-        List<ProductDTO> products = productService.getProductsByCategory(category);
-        return ResponseEntity.ok(
-                ApiResponse.builder()
-                        .success(true)
-                        .message("Products retrieved successfully")
-                        .data(products)
-                        .build()
-        );
-    }
-
-    /**
-     * Create product (ADMIN only)
-     */
-    @PostMapping
-    public ResponseEntity<ApiResponse> createProduct(@Valid @RequestBody CreateProductRequest request) {
-        log.info("POST /products - Creating new product: {}", request.getName());
-        try {
-            ProductDTO product = productService.createProduct(request);
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(ApiResponse.builder()
-                            .success(true)
-                            .message("Product created successfully")
-                            .data(product)
-                            .build()
-                    );
-        } catch (Exception e) {
-            log.error("Error creating product", e);
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.builder()
-                            .success(false)
-                            .message("Error creating product: " + e.getMessage())
-                            .build()
-                    );
-        }
-    }
-
-    /**
-     * Decrement product stock by quantity (internal — called by order-service)
-     */
-    @PatchMapping("/{id}/stock")
-    public ResponseEntity<ApiResponse> decrementStock(
-            @PathVariable Long id,
-            @RequestParam int quantity) {
-        log.info("PATCH /products/{}/stock?quantity={} - Decrementing stock", id, quantity);
-        try {
-            ProductDTO product = productService.decrementStock(id, quantity);
-            return ResponseEntity.ok(
-                    ApiResponse.builder()
-                            .success(true)
-                            .message("Stock decremented successfully")
-                            .data(product)
-                            .build()
-            );
-        } catch (RuntimeException e) {
-            log.error("Error decrementing stock for product id={}: {}", id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.builder()
-                            .success(false)
-                            .message(e.getMessage())
-                            .build()
-                    );
-        }
-    }
-
-    /**
-     * Update product (ADMIN only)
-     */
-    @PutMapping("/{id}")
-    public ResponseEntity<ApiResponse> updateProduct(
-            @PathVariable Long id,
-            @Valid @RequestBody UpdateProductRequest request) {
-        log.info("PUT /products/{} - Updating product", id);
-        try {
-            ProductDTO product = productService.updateProduct(id, request);
-            return ResponseEntity.ok(
-                    ApiResponse.builder()
-                            .success(true)
-                            .message("Product updated successfully")
-                            .data(product)
-                            .build()
-            );
-        } catch (RuntimeException e) {
-            log.error("Error updating product with id: {}", id, e);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(ApiResponse.builder()
-                            .success(false)
-                            .message(e.getMessage())
-                            .build()
-                    );
-        } catch (Exception e) {
-            log.error("Error updating product", e);
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.builder()
-                            .success(false)
-                            .message("Error updating product: " + e.getMessage())
-                            .build()
-                    );
-        }
-    }
-
-    /**
-     * Delete product (ADMIN only)
-     */
-    @DeleteMapping("/{id}")
-    public ResponseEntity<ApiResponse> deleteProduct(@PathVariable Long id) {
-        log.info("DELETE /products/{} - Deleting product", id);
-        try {
-            productService.deleteProduct(id);
-            return ResponseEntity.ok(
-                    ApiResponse.builder()
-                            .success(true)
-                            .message("Product deleted successfully")
-                            .build()
-            );
-        } catch (RuntimeException e) {
-            log.error("Error deleting product with id: {}", id, e);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(ApiResponse.builder()
-                            .success(false)
-                            .message(e.getMessage())
-                            .build()
-                    );
-        } catch (Exception e) {
-            log.error("Error deleting product", e);
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.builder()
-                            .success(false)
-                            .message("Error deleting product: " + e.getMessage())
-                            .build()
-                    );
-        }
-    }
-}
-
-
-
+package com.secure.product.controller;
+
+import com.secure.common.dto.ApiResponse;
+import com.secure.product.dto.CreateProductRequest;
+import com.secure.product.dto.ProductBatchRequest;
+import com.secure.product.dto.ProductBatchResponse;
+import com.secure.product.dto.ProductDTO;
+import com.secure.product.dto.ProductFacetsResponse;
+import com.secure.product.dto.ProductImportResult;
+import com.secure.product.dto.StockAvailabilityDTO;
+import com.secure.product.dto.StockDecrementRequest;
+import com.secure.product.dto.UpdateProductRequest;
+import com.secure.product.service.ProductAccessTracker;
+import com.secure.product.service.ProductImportService;
+import com.secure.product.service.ProductService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Product Controller
+ * Public GET endpoints, Authenticated POST/PUT/DELETE endpoints
+ */
+@RestController
+@RequestMapping("/products")
+@Slf4j
+public class ProductController {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductAccessTracker productAccessTracker;
+
+    /**
+     * Get all products (PUBLIC)
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse> getAllProducts() {
+        log.info("GET /products - Fetching all products");
+        List<ProductDTO> products = productService.getAllProducts();
+        return ResponseEntity.ok(
+                ApiResponse.builder()
+                        .success(true)
+                        .message("Products retrieved successfully")
+                        .data(products)
+                        .build()
+        );
+    }
+
+    /**
+     * Get product by ID (PUBLIC).
+     * A matching If-None-Match is answered with 304 from the product's version, without loading it.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse> getProductById(@PathVariable Long id, HttpServletRequest request) {
+        log.info("GET /products/{} - Fetching product by id", id);
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<String> eTag = productService.getProductETag(id);
+            if (eTag.isPresent() && new ServletWebRequest(request).checkNotModified(eTag.get())) {
+                productAccessTracker.recordAccess(id);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag.get()).build();
+            }
+        }
+        try {
+            ProductDTO product = productService.getProductById(id);
+            productAccessTracker.recordAccess(id);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            String eTag = productService.eTagOf(product);
+            if (eTag != null) {
+                response.eTag(eTag);
+            }
+            return response.body(
+                    ApiResponse.builder()
+                            .success(true)
+                            .message("Product retrieved successfully")
+                            .data(product)
+                            .build()
+            );
+        } catch (RuntimeException e) {
+            log.error("Product not found with id: {}", id, e);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+                    );
+        }
+    }
+
+    /**
+     * Get many products by ID in one call (PUBLIC, used by order-service)
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<ApiResponse> getProductsByIds(@RequestParam List<Long> ids) {
+        log.info("GET /products/batch - Fetching {} products", ids.size());
+        return productBatch(ids);
+    }
+
+    /**
+     * Same as GET /products/batch, for id lists too long for a query string (PUBLIC)
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse> getProductsByIdsPost(@Valid @RequestBody ProductBatchRequest request) {
+        log.info("POST /products/batch - Fetching {} products", request.getIds().size());
+        return productBatch(request.getIds());
+    }
+
+    private ResponseEntity<ApiResponse> productBatch(List<Long> ids) {
+        try {
+            ProductBatchResponse batch = productService.getProductsByIds(ids);
+            productAccessTracker.recordAccess(batch.getProducts().keySet());
+            return ResponseEntity.ok(
+                    ApiResponse.builder()
+                            .success(true)
+                            .message("Products retrieved successfully")
+                            .data(batch)
+                            .build()
+            );
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid batch request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+                    );
+        }
+    }
+
+    /**
+     * Get available stock of a product from the in-memory counter (PUBLIC)
+     */
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<ApiResponse> getAvailability(@PathVariable Long id) {
+        log.info("GET /products/{}/availability - Fetching available stock", id);
+        try {
+            StockAvailabilityDTO availability = productService.getAvailability(id);
+            return ResponseEntity.ok(
+                    ApiResponse.builder()
+                            .success(true)
+                            .message("Availability retrieved successfully")
+                            .data(availability)
+                            .build()
+            );
+        } catch (RuntimeException e) {
+            log.error("Product not found with id: {}", id);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+                    );
+        }
+    }
+
+    /**
+     * Search products by name, description and category (PUBLIC)
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse> searchProducts(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "100") int limit) {
+        log.info("GET /products/search?name={} - Searching products", name);
+        List<ProductDTO> products = productService.searchProducts(name, limit);
+        return ResponseEntity.ok(
+                ApiResponse.builder()
+                        .success(true)
+                        .message("Search completed successfully")
+                        .data(products)
+                        .build()
+        );
+    }
+
+    /**
+     * Get products by category (PUBLIC)
+     */
+    @GetMapping("/category/{category}")
+    public ResponseEntity<ApiResponse> getProductsByCategory(@PathVariable String category) {
+        log.info("GET /products/category/{} - Fetching products by category", category);
+        List<ProductDTO> products = productService.getProductsByCategory(category);
+        return ResponseEntity.ok(
+                ApiResponse.builder()
+                        .success(true)
+                        .message("Products retrieved successfully")
+                        .data(products)
+                        .build()
+        );
+    }
+
+    /**
+     * Faceted listing with counts per category, price band and active flag (PUBLIC).
+     * 503 while the facet index is disabled or still building.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse> getFacets(
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> priceBand,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("GET /products/facets?category={}&priceBand={}&active={} - Fetching facets",
+                category, priceBand, active);
+        try {
+            ProductFacetsResponse facets = productService.getFacets(category, priceBand, active, page, size);
+            return ResponseEntity.ok(
+                    ApiResponse.builder()
+                            .success(true)
+                            .message("Facets retrieved successfully")
+                            .data(facets)
+                            .build()
+            );
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid facet request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+                    );
+        } catch (IllegalStateException e) {
+            log.warn("Refusing facet request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+                    );
+        }
+    }
+
+    /**
+     * Create product (ADMIN only)
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse> createProduct(@Valid @RequestBody CreateProductRequest request) {
+        log.info("POST /products - Creating new product: {}", request.getName());
+        try {
+            ProductDTO product = productService.createProduct(request);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.builder()
+                            .success(true)
+                            .message("Product created successfully")
+                            .data(product)
+                            .build()
+                    );
+        } catch (Exception e) {
+            log.error("Error creating product", e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message("Error creating product: " + e.getMessage())
+                            .build()
+                    );
+        }
+    }
+
+    /**
+     * Bulk import products from a streamed CSV (text/csv, header line required) or
+     * NDJSON (application/x-ndjson) body (ADMIN only)
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ApiResponse> importProducts(
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestParam(required = false) String format,
+            InputStream body) {
+        log.info("POST /products/import - Importing products ({})", format != null ? format : contentType);
+        ProductImportService.Format importFormat = importFormat(format, contentType);
+        if (importFormat == null) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message("Send text/csv or application/x-ndjson, or pass format=csv|ndjson")
+                            .build()
+                    );
+        }
+        try {
+            ProductImportResult result = productImportService.importProducts(body, importFormat);
+            return ResponseEntity.ok(
+                    ApiResponse.builder()
+                            .success(result.getFailed() == 0)
+                            .message("Imported " + result.getImported() + " of " + result.getRows() + " products")
+                            .data(result)
+                            .build()
+            );
+        } catch (IOException e) {
+            log.error("Error reading product import: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message("Error reading import: " + e.getMessage())
+                            .build()
+                    );
+        }
+    }
+
+    private static ProductImportService.Format importFormat(String format, String contentType) {
+        String value = format != null ? format : contentType;
+        if (value == null) {
+            return null;
+        }
+        value = value.toLowerCase(Locale.ROOT);
+        if (value.equals("csv") || value.startsWith("text/csv")) {
+            return ProductImportService.Format.CSV;
+        }
+        if (value.equals("ndjson") || value.startsWith("application/x-ndjson")
+                || value.startsWith("application/jsonl")) {
+            return ProductImportService.Format.NDJSON;
+        }
+        return null;
+    }
+
+    /**
+     * Decrement product stock by quantity (internal — called by order-service)
+     */
+    @PatchMapping("/{id}/stock")
+    public ResponseEntity<ApiResponse> decrementStock(
+            @PathVariable Long id,
+            @RequestParam int quantity) {
+        log.info("PATCH /products/{}/stock?quantity={} - Decrementing stock", id, quantity);
+        try {
+            ProductDTO product = productService.decrementStock(id, quantity);
+            return ResponseEntity.ok(
+                    ApiResponse.builder()
+                            .success(true)
+                            .message("Stock decremented successfully")
+                            .data(product)
+                            .build()
+            );
+        } catch (RuntimeException e) {
+            log.error("Error decrementing stock for product id={}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+                    );
+        }
+    }
+
+    /**
+     * Decrement stock for several products atomically (internal — called by order-service).
+     * Either every item is decremented or none is.
+     */
+    @PostMapping("/stock/decrement")
+    public ResponseEntity<ApiResponse> decrementStockBatch(@Valid @RequestBody StockDecrementRequest request) {
+        log.info("POST /products/stock/decrement - Decrementing stock for {} items", request.getItems().size());
+        try {
+            List<ProductDTO> products = productService.decrementStockBatch(request.getItems());
+            return ResponseEntity.ok(
+                    ApiResponse.builder()
+                            .success(true)
+                            .message("Stock decremented successfully")
+                            .data(products)
+                            .build()
+            );
+        } catch (RuntimeException e) {
+            log.error("Error decrementing stock batch: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+                    );
+        }
+    }
+
+    /**
+     * Split a hot product's stock across slot rows (ADMIN only)
+     */
+    @PutMapping("/{id}/stock/shards")
+    public ResponseEntity<ApiResponse> enableShardedStock(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "8") int slots) {
+        log.info("PUT /products/{}/stock/shards?slots={} - Enabling sharded stock", id, slots);
+        try {
+            ProductDTO product = productService.enableShardedStock(id, slots);
+            return ResponseEntity.ok(
+                    ApiResponse.builder()
+                            .success(true)
+                            .message("Sharded stock enabled successfully")
+                            .data(product)
+                            .build()
+            );
+        } catch (RuntimeException e) {
+            log.error("Error enabling sharded stock for product id={}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+                    );
+        }
+    }
+
+    /**
+     * Fold a product's stock slots back into a single row (ADMIN only)
+     */
+    @DeleteMapping("/{id}/stock/shards")
+    public ResponseEntity<ApiResponse> disableShardedStock(@PathVariable Long id) {
+        log.info("DELETE /products/{}/stock/shards - Disabling sharded stock", id);
+        try {
+            ProductDTO product = productService.disableShardedStock(id);
+            return ResponseEntity.ok(
+                    ApiResponse.builder()
+                            .success(true)
+                            .message("Sharded stock disabled successfully")
+                            .data(product)
+                            .build()
+            );
+        } catch (RuntimeException e) {
+            log.error("Error disabling sharded stock for product id={}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+                    );
+        }
+    }
+
+    /**
+     * Update product (ADMIN only)
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<ApiResponse> updateProduct(
+            @PathVariable Long id,
+            @Valid @RequestBody UpdateProductRequest request) {
+        log.info("PUT /products/{} - Updating product", id);
+        try {
+            ProductDTO product = productService.updateProduct(id, request);
+            return ResponseEntity.ok(
+                    ApiResponse.builder()
+                            .success(true)
+                            .message("Product updated successfully")
+                            .data(product)
+                            .build()
+            );
+        } catch (RuntimeException e) {
+            log.error("Error updating product with id: {}", id, e);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+                    );
+        } catch (Exception e) {
+            log.error("Error updating product", e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message("Error updating product: " + e.getMessage())
+                            .build()
+                    );
+        }
+    }
+
+    /**
+     * Delete product (ADMIN only)
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse> deleteProduct(@PathVariable Long id) {
+        log.info("DELETE /products/{} - Deleting product", id);
+        try {
+            productService.deleteProduct(id);
+            return ResponseEntity.ok(
+                    ApiResponse.builder()
+                            .success(true)
+                            .message("Product deleted successfully")
+                            .build()
+            );
+        } catch (RuntimeException e) {
+            log.error("Error deleting product with id: {}", id, e);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+                    );
+        } catch (Exception e) {
+            log.error("Error deleting product", e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message("Error deleting product: " + e.getMessage())
+                            .build()
+                    );
+        }
+    }
+}
+
+
+
@@ -0,0 +1,153 @@
+package com.secure.product.controller;
+
+import com.secure.common.dto.ApiResponse;
+import com.secure.product.dto.StockReservationDTO;
+import com.secure.product.dto.StockReservationRequest;
+import com.secure.product.dto.StockReturnRequest;
+import com.secure.product.service.StockReservationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+/**
+ * Stock Reservation Controller
+ * Internal endpoints called by order-service to hold, confirm and release stock for an order,
+ * and to give back the stock of cancelled orders
+ */
+@RestController
+@RequestMapping("/products/reservations")
+@Slf4j
+public class StockReservationController {
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    /**
+     * Hold stock for an order (all items or none)
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse> reserve(@Valid @RequestBody StockReservationRequest request) {
+        log.info("POST /products/reservations - Reserving stock for order {}", request.getOrderId());
+        try {
+            StockReservationDTO reservation = reservationService.reserve(request);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.builder()
+                            .success(true)
+                            .message("Stock reserved successfully")
+                            .data(reservation)
+                            .build()
+                    );
+        } catch (RuntimeException e) {
+            log.error("Error reserving stock for order {}: {}", request.getOrderId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+                    );
+        }
+    }
+
+    /**
+     * Get the reservation of an order
+     */
+    @GetMapping("/{orderId}")
+    public ResponseEntity<ApiResponse> getReservation(@PathVariable Long orderId) {
+        log.info("GET /products/reservations/{} - Fetching reservation", orderId);
+        try {
+            return ResponseEntity.ok(
+                    ApiResponse.builder()
+                            .success(true)
+                            .message("Reservation retrieved successfully")
+                            .data(reservationService.getReservation(orderId))
+                            .build()
+            );
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+                    );
+        }
+    }
+
+    /**
+     * Finalize held stock for an order
+     */
+    @PostMapping("/{orderId}/confirm")
+    public ResponseEntity<ApiResponse> confirm(@PathVariable Long orderId) {
+        log.info("POST /products/reservations/{}/confirm - Confirming reservation", orderId);
+        try {
+            return ResponseEntity.ok(
+                    ApiResponse.builder()
+                            .success(true)
+                            .message("Reservation confirmed successfully")
+                            .data(reservationService.confirm(orderId))
+                            .build()
+            );
+        } catch (RuntimeException e) {
+            log.error("Error confirming reservation for order {}: {}", orderId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+                    );
+        }
+    }
+
+    /**
+     * Return held stock for an order
+     */
+    @PostMapping("/{orderId}/release")
+    public ResponseEntity<ApiResponse> release(@PathVariable Long orderId) {
+        log.info("POST /products/reservations/{}/release - Releasing reservation", orderId);
+        try {
+            return ResponseEntity.ok(
+                    ApiResponse.builder()
+                            .success(true)
+                            .message("Reservation released successfully")
+                            .data(reservationService.release(orderId))
+                            .build()
+            );
+        } catch (RuntimeException e) {
+            log.error("Error releasing reservation for order {}: {}", orderId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+                    );
+        }
+    }
+
+    /**
+     * Give back the stock of cancelled orders, one increment per product for the whole batch
+     */
+    @PostMapping("/returns")
+    public ResponseEntity<ApiResponse> returnStock(@Valid @RequestBody StockReturnRequest request) {
+        log.info("POST /products/reservations/returns - Returning stock of {} orders", request.getOrderIds().size());
+        try {
+            return ResponseEntity.ok(
+                    ApiResponse.builder()
+                            .success(true)
+                            .message("Stock returned successfully")
+                            .data(reservationService.returnStock(request.getOrderIds()))
+                            .build()
+            );
+        } catch (RuntimeException e) {
+            log.error("Error returning stock of orders {}: {}", request.getOrderIds(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+                    );
+        }
+    }
+}
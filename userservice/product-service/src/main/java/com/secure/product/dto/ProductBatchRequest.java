@@ -0,0 +1,23 @@
+package com.secure.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Batch Product Lookup Request DTO (POST variant of GET /products/batch for long id lists)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductBatchRequest {
+
+    @NotEmpty(message = "Product IDs cannot be empty")
+    private List<@NotNull(message = "Product ID is required") Long> ids;
+}
@@ -0,0 +1,23 @@
+package com.secure.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch product lookup result: found products keyed by id, in request order,
+ * and the requested ids that do not exist
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductBatchResponse {
+
+    private Map<Long, ProductDTO> products;
+    private List<Long> notFound;
+}
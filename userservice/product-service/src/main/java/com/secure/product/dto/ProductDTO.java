@@ -27,4 +27,5 @@ public class ProductDTO implements Serializable {
     private Integer stockQuantity;
     private String category;
     private Boolean active;
+    private Long version;
 }
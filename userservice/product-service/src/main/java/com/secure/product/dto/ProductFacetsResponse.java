@@ -0,0 +1,28 @@
+package com.secure.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Faceted product listing: one page of matching products plus per-value counts
+ * for category, price band and active flag
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFacetsResponse {
+
+    private long total;
+    private int page;
+    private int size;
+    private List<ProductDTO> products;
+    private Map<String, Long> categories;
+    private Map<String, Long> priceBands;
+    private Map<String, Long> active;
+}
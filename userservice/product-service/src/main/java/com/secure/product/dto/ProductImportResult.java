@@ -0,0 +1,40 @@
+package com.secure.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Bulk product import report: row counts plus the first rejected rows with their reason
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImportResult {
+
+    private long rows;
+    private long imported;
+    private long failed;
+    private List<RowError> errors;
+
+    /**
+     * True when more rows failed than are listed in errors
+     */
+    private boolean errorsTruncated;
+
+    private long durationMs;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class RowError {
+
+        private long line;
+        private String message;
+    }
+}
@@ -0,0 +1,19 @@
+package com.secure.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Available (unreserved) stock of one product
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAvailabilityDTO {
+
+    private Long productId;
+    private Integer available;
+}
@@ -0,0 +1,41 @@
+package com.secure.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.util.List;
+
+/**
+ * Batch Stock Decrement Request DTO.
+ * All items are applied in one transaction: either every decrement succeeds or none does.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockDecrementRequest {
+
+    @NotEmpty(message = "Stock items cannot be empty")
+    @Valid
+    private List<Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Item {
+
+        @NotNull(message = "Product ID is required")
+        private Long productId;
+
+        @NotNull(message = "Quantity is required")
+        @Positive(message = "Quantity must be positive")
+        private Integer quantity;
+    }
+}
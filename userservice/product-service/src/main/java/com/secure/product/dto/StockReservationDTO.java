@@ -0,0 +1,34 @@
+package com.secure.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Stock reservation of one order
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservationDTO {
+
+    private Long orderId;
+    private String status;
+    private LocalDateTime expiresAt;
+    private List<Line> lines;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Line {
+        private Long productId;
+        private Integer quantity;
+        private String status;
+    }
+}
@@ -0,0 +1,37 @@
+package com.secure.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.util.List;
+
+/**
+ * Stock Reservation Request DTO.
+ * Holds every item for the order or none of them; repeating the request for the same order
+ * returns the existing reservation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservationRequest {
+
+    @NotNull(message = "Order ID is required")
+    private Long orderId;
+
+    /**
+     * Hold duration; the configured default applies when absent
+     */
+    @Positive(message = "TTL must be positive")
+    private Long ttlSeconds;
+
+    @NotEmpty(message = "Reservation items cannot be empty")
+    @Valid
+    private List<StockDecrementRequest.Item> items;
+}
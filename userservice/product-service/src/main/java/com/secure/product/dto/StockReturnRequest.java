@@ -0,0 +1,25 @@
+package com.secure.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Stock Return Request DTO.
+ * Cancelled orders whose reserved stock goes back to the products; safe to repeat.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReturnRequest {
+
+    @NotEmpty(message = "Order IDs cannot be empty")
+    @Size(max = 500, message = "At most 500 orders per request")
+    private List<Long> orderIds;
+}
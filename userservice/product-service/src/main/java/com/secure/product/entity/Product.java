@@ -20,8 +20,12 @@ import java.time.LocalDateTime;
 @Builder
 public class Product {
 
+    /**
+     * Sequence ids in blocks of 50 so that bulk imports can batch inserts (IDENTITY cannot)
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 255)
@@ -43,12 +47,26 @@ public class Product {
     @Builder.Default
     private Boolean active = true;
 
+    /**
+     * When true, stock lives in product_stock_slots and stock_quantity stays 0
+     */
+    @Column(name = "sharded_stock", nullable = false)
+    @Builder.Default
+    private Boolean shardedStock = false;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    /**
+     * Incremented on every write, including the stock UPDATEs in ProductRepository; the product's ETag
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -56,6 +74,9 @@ public class Product {
         if (active == null) {
             active = true;
         }
+        if (shardedStock == null) {
+            shardedStock = false;
+        }
     }
 
     @PreUpdate
@@ -0,0 +1,45 @@
+package com.secure.product.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Product Stock Slot Entity
+ * One shard of a sharded-stock product's inventory; the product's stock is the sum of its slots
+ */
+@Entity
+@Table(name = "product_stock_slots")
+@IdClass(ProductStockSlot.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductStockSlot {
+
+    @Id
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Id
+    @Column(nullable = false)
+    private Integer slot;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private Long productId;
+        private Integer slot;
+    }
+}
@@ -0,0 +1,66 @@
+package com.secure.product.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Stock Reservation Entity
+ * Units of one product held for an order. Stock is taken from the product when the hold is
+ * created; releasing or expiring the hold gives it back, confirming keeps it. Returning a
+ * confirmed line (the order was cancelled) gives it back as well.
+ */
+@Entity
+@Table(name = "stock_reservations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation {
+
+    public static final String HELD = "HELD";
+    public static final String CONFIRMED = "CONFIRMED";
+    public static final String RELEASED = "RELEASED";
+    public static final String EXPIRED = "EXPIRED";
+    public static final String RETURNED = "RETURNED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,35 @@
+package com.secure.product.event;
+
+import com.secure.product.dto.ProductDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by ProductService whenever a product is created, updated, has its stock changed,
+ * or is deleted. In-memory indexes listen for it after the transaction commits.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    private final Long productId;
+
+    /**
+     * State after the change, or null when the product was deleted
+     */
+    private final ProductDTO product;
+
+    public static ProductChangedEvent upserted(ProductDTO product) {
+        return new ProductChangedEvent(product.getId(), product);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(productId, null);
+    }
+
+    public boolean isDeleted() {
+        return product == null;
+    }
+}
@@ -0,0 +1,84 @@
+package com.secure.product.index;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.secure.product.event.ProductChangedEvent;
+import com.secure.product.service.ProductService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * Keeps the in-memory indexes of every replica in step with writes made on the others.
+ *
+ * Each committed ProductChangedEvent is published as a product id over a Redis pub/sub channel;
+ * peers reload that product from the database into their indexes. Messages published by this
+ * instance are ignored on receipt. Pub/sub delivery is at most once, so a message lost while a
+ * peer was disconnected is caught up by the periodic index resync in ProductService.
+ */
+@Slf4j
+@Component
+public class ProductChangeBus implements MessageListener {
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ProductService productService;
+
+    @Value("${product.index.change-channel:product:index-changes}")
+    private String channel;
+
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * Failures are logged and swallowed: the write has committed and peers converge on the
+     * next resync
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        try {
+            ProductChangeMessage message = ProductChangeMessage.builder()
+                    .origin(instanceId)
+                    .productId(event.getProductId())
+                    .build();
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(message));
+        } catch (Exception e) {
+            log.warn("Failed to publish index change for product {}: {}", event.getProductId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        ProductChangeMessage change;
+        try {
+            change = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), ProductChangeMessage.class);
+        } catch (Exception e) {
+            log.warn("Ignoring malformed index change message: {}", e.getMessage());
+            return;
+        }
+        if (instanceId.equals(change.getOrigin()) || change.getProductId() == null) {
+            return;
+        }
+        log.debug("Reindexing product {} changed on another instance", change.getProductId());
+        try {
+            productService.reindex(Collections.singletonList(change.getProductId()));
+        } catch (RuntimeException e) {
+            log.warn("Could not reindex product {}: {}", change.getProductId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.secure.product.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cross-replica notice that a product was written, published over Redis pub/sub so that peers
+ * reload it into their in-memory indexes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductChangeMessage {
+
+    private String origin;
+    private Long productId;
+}
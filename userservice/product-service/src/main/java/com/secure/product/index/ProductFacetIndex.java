@@ -0,0 +1,312 @@
+package com.secure.product.index;
+
+import com.secure.product.dto.ProductDTO;
+import com.secure.product.dto.ProductFacetsResponse;
+import com.secure.product.event.ProductChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmap indexes over product category, active flag and price band.
+ *
+ * Each product gets a dense int ordinal; every facet value owns a RoaringBitmap of the
+ * ordinals that carry it. Filtered listings are the intersection of the selected values'
+ * bitmaps, and each facet's counts are taken against the other facets' filters so the UI
+ * can show what selecting another value would return.
+ *
+ * Built by ProductService at startup and kept current from ProductChangedEvents, and from
+ * writes on other instances through {@link ProductChangeBus}; a lost update is caught up by
+ * the periodic resync, which bounds staleness to product.index.resync-interval-ms (a lost
+ * delete is not, see ProductService#resyncIndexes). An older version of a product never
+ * replaces a newer one (see {@link ProductVersions}).
+ */
+@Slf4j
+@Component
+public class ProductFacetIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<BigDecimal> priceBandBounds;
+    private final List<String> priceBandLabels;
+
+    private final Map<Long, Integer> ordinalsById = new HashMap<>();
+    private final List<ProductDTO> documents = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final RoaringBitmap active = new RoaringBitmap();
+    private final RoaringBitmap inactive = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> byCategory = new TreeMap<>();
+    private final Map<String, RoaringBitmap> byPriceBand = new LinkedHashMap<>();
+    private final ProductVersions versions = new ProductVersions();
+    private volatile boolean ready;
+
+    /**
+     * @param priceBands ascending band boundaries, e.g. "25,50,100,500" gives
+     *                   bands 0-25, 25-50, 50-100, 100-500 and 500+
+     */
+    public ProductFacetIndex(@Value("${product.facets.price-bands:25,50,100,500}") String priceBands) {
+        this.priceBandBounds = parseBounds(priceBands);
+        this.priceBandLabels = new ArrayList<>();
+        String lower = "0";
+        for (BigDecimal bound : priceBandBounds) {
+            String upper = bound.stripTrailingZeros().toPlainString();
+            priceBandLabels.add(lower + "-" + upper);
+            lower = upper;
+        }
+        priceBandLabels.add(lower + "+");
+        priceBandLabels.forEach(label -> byPriceBand.put(label, new RoaringBitmap()));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Index the given products and mark the index ready. Merged into what is already indexed, so
+     * a product changed after {@code products} was read keeps its newer copy. New products get
+     * ordinals in the iteration order of {@code products}, which is also the listing order.
+     */
+    public void load(Collection<ProductDTO> products) {
+        lock.writeLock().lock();
+        try {
+            products.forEach(this::replaceDocument);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product facet index loaded with {} products", size());
+    }
+
+    /**
+     * Add or replace a product, unless the index already holds a newer version of it
+     */
+    public void index(ProductDTO product) {
+        lock.writeLock().lock();
+        try {
+            replaceDocument(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            versions.deleted(productId);
+            Integer ordinal = ordinalsById.remove(productId);
+            if (ordinal != null) {
+                clearFacets(ordinal);
+                documents.set(ordinal, null);
+                freeOrdinals.push(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.getProductId());
+        } else {
+            index(event.getProduct());
+        }
+    }
+
+    /**
+     * Products in the given category (exact match), in listing order
+     */
+    public List<ProductDTO> findByCategory(String category) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap ordinals = byCategory.get(category);
+            return ordinals == null ? new ArrayList<>() : page(ordinals, 0, Integer.MAX_VALUE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filtered listing plus facet counts. Values within a facet are OR'ed, facets are AND'ed;
+     * null or empty filters select everything.
+     *
+     * @throws IllegalArgumentException for an unknown price band or an invalid page
+     */
+    public ProductFacetsResponse facets(Collection<String> categories, Collection<String> priceBands,
+                                        Boolean activeOnly, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("page must be >= 0 and size >= 1");
+        }
+        lock.readLock().lock();
+        try {
+            RoaringBitmap categoryFilter = union(byCategory, categories, false);
+            RoaringBitmap priceBandFilter = union(byPriceBand, priceBands, true);
+            RoaringBitmap activeFilter = activeOnly == null ? null : activeOnly ? active : inactive;
+
+            RoaringBitmap matched = intersect(categoryFilter, priceBandFilter, activeFilter);
+
+            return ProductFacetsResponse.builder()
+                    .total(matched.getCardinality())
+                    .page(page)
+                    .size(size)
+                    .products(page(matched, (long) page * size, size))
+                    .categories(counts(byCategory, intersect(priceBandFilter, activeFilter)))
+                    .priceBands(counts(byPriceBand, intersect(categoryFilter, activeFilter)))
+                    .active(activeCounts(intersect(categoryFilter, priceBandFilter)))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void replaceDocument(ProductDTO product) {
+        if (!versions.admit(product)) {
+            return;
+        }
+        Integer ordinal = ordinalsById.get(product.getId());
+        if (ordinal == null) {
+            addDocument(product);
+        } else {
+            clearFacets(ordinal);
+            setFacets(ordinal, product);
+        }
+    }
+
+    private void addDocument(ProductDTO product) {
+        int ordinal;
+        if (freeOrdinals.isEmpty()) {
+            ordinal = documents.size();
+            documents.add(null);
+        } else {
+            ordinal = freeOrdinals.pop();
+        }
+        ordinalsById.put(product.getId(), ordinal);
+        setFacets(ordinal, product);
+    }
+
+    private void setFacets(int ordinal, ProductDTO product) {
+        documents.set(ordinal, product);
+        live.add(ordinal);
+        (Boolean.TRUE.equals(product.getActive()) ? active : inactive).add(ordinal);
+        if (product.getCategory() != null) {
+            byCategory.computeIfAbsent(product.getCategory(), c -> new RoaringBitmap()).add(ordinal);
+        }
+        if (product.getPrice() != null) {
+            byPriceBand.get(priceBand(product.getPrice())).add(ordinal);
+        }
+    }
+
+    private void clearFacets(int ordinal) {
+        ProductDTO previous = documents.get(ordinal);
+        live.remove(ordinal);
+        active.remove(ordinal);
+        inactive.remove(ordinal);
+        if (previous.getCategory() != null) {
+            RoaringBitmap ordinals = byCategory.get(previous.getCategory());
+            ordinals.remove(ordinal);
+            if (ordinals.isEmpty()) {
+                byCategory.remove(previous.getCategory());
+            }
+        }
+        if (previous.getPrice() != null) {
+            byPriceBand.get(priceBand(previous.getPrice())).remove(ordinal);
+        }
+    }
+
+    private static List<BigDecimal> parseBounds(String priceBands) {
+        List<BigDecimal> bounds = new ArrayList<>();
+        for (String bound : priceBands.split(",")) {
+            if (!bound.trim().isEmpty()) {
+                bounds.add(new BigDecimal(bound.trim()));
+            }
+        }
+        return bounds;
+    }
+
+    String priceBand(BigDecimal price) {
+        for (int i = 0; i < priceBandBounds.size(); i++) {
+            if (price.compareTo(priceBandBounds.get(i)) < 0) {
+                return priceBandLabels.get(i);
+            }
+        }
+        return priceBandLabels.get(priceBandLabels.size() - 1);
+    }
+
+    private List<ProductDTO> page(RoaringBitmap ordinals, long offset, int limit) {
+        List<ProductDTO> products = new ArrayList<>();
+        long end = Math.min(ordinals.getLongCardinality(), offset + limit);
+        for (long rank = offset; rank < end; rank++) {
+            products.add(documents.get(ordinals.select((int) rank)));
+        }
+        return products;
+    }
+
+    /**
+     * Union of the bitmaps for the selected values, or null when nothing is selected
+     */
+    private static RoaringBitmap union(Map<String, RoaringBitmap> facet, Collection<String> values,
+                                       boolean strict) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        RoaringBitmap union = new RoaringBitmap();
+        for (String value : values) {
+            RoaringBitmap ordinals = facet.get(value);
+            if (ordinals != null) {
+                union.or(ordinals);
+            } else if (strict) {
+                throw new IllegalArgumentException("Unknown facet value: " + value);
+            }
+        }
+        return union;
+    }
+
+    private RoaringBitmap intersect(RoaringBitmap... filters) {
+        RoaringBitmap result = live.clone();
+        for (RoaringBitmap filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Long> counts(Map<String, RoaringBitmap> facet, RoaringBitmap base) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, RoaringBitmap> entry : facet.entrySet()) {
+            counts.put(entry.getKey(), (long) RoaringBitmap.andCardinality(base, entry.getValue()));
+        }
+        return counts;
+    }
+
+    private Map<String, Long> activeCounts(RoaringBitmap base) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("true", (long) RoaringBitmap.andCardinality(base, active));
+        counts.put("false", (long) RoaringBitmap.andCardinality(base, inactive));
+        return counts;
+    }
+}
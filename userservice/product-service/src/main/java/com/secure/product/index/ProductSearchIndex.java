@@ -0,0 +1,320 @@
+package com.secure.product.index;
+
+import com.secure.product.dto.ProductDTO;
+import com.secure.product.event.ProductChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over product name, description and category.
+ *
+ * Terms map to postings (product id -> field-weighted term frequency). A sorted term
+ * dictionary answers prefix queries and a trigram index over the dictionary answers
+ * infix and typo-tolerant (edit distance 1, or 2 for long terms) queries. Every query
+ * term must match; documents are ranked by the sum of weight * idf * match quality.
+ *
+ * Built by ProductService at startup and kept current from ProductChangedEvents, and from
+ * writes on other instances through {@link ProductChangeBus}; a lost update is caught up by
+ * the periodic resync, which bounds staleness to product.index.resync-interval-ms (a lost
+ * delete is not, see ProductService#resyncIndexes). An older version of a product never
+ * replaces a newer one (see {@link ProductVersions}).
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final double EXACT_MATCH = 1.0;
+    private static final double PREFIX_MATCH = 0.8;
+    private static final double INFIX_MATCH = 0.5;
+    private static final double FUZZY_MATCH = 0.4;
+
+    private static final int GRAM = 3;
+    private static final int MAX_EXPANSIONS = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, ProductDTO> documents = new HashMap<>();
+    private final Map<Long, Set<String>> termsByDocument = new HashMap<>();
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termsByGram = new HashMap<>();
+    private final ProductVersions versions = new ProductVersions();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Index the given products and mark the index ready. Merged into what is already indexed, so
+     * a product changed after {@code products} was read keeps its newer copy.
+     */
+    public void load(Collection<ProductDTO> products) {
+        lock.writeLock().lock();
+        try {
+            products.forEach(this::replaceDocument);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index loaded with {} products", size());
+    }
+
+    /**
+     * Add or replace a product, unless the index already holds a newer version of it
+     */
+    public void index(ProductDTO product) {
+        lock.writeLock().lock();
+        try {
+            replaceDocument(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            versions.deleted(productId);
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.getProductId());
+        } else {
+            index(event.getProduct());
+        }
+    }
+
+    /**
+     * Ranked search. Returns at most {@code limit} products, best match first.
+     */
+    public List<ProductDTO> search(String query, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (queryTerms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String queryTerm : queryTerms) {
+                Map<Long, Double> termScores = scoreTerm(queryTerm);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + termScores.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(entry -> documents.get(entry.getKey()))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best score per document for one query term across exact, prefix, infix and fuzzy matches.
+     */
+    private Map<Long, Double> scoreTerm(String queryTerm) {
+        Map<String, Double> matches = new HashMap<>();
+        if (postings.containsKey(queryTerm)) {
+            matches.put(queryTerm, EXACT_MATCH);
+        }
+        for (String term : postings.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false).keySet()) {
+            if (matches.size() >= MAX_EXPANSIONS) {
+                break;
+            }
+            matches.putIfAbsent(term, PREFIX_MATCH);
+        }
+        int maxEdits = queryTerm.length() >= 8 ? 2 : queryTerm.length() >= 4 ? 1 : 0;
+        for (String term : candidatesByGram(queryTerm)) {
+            if (matches.containsKey(term) || matches.size() >= MAX_EXPANSIONS) {
+                continue;
+            }
+            if (queryTerm.length() >= GRAM && term.contains(queryTerm)) {
+                matches.put(term, INFIX_MATCH);
+            } else if (maxEdits > 0 && withinEditDistance(queryTerm, term, maxEdits)) {
+                matches.put(term, FUZZY_MATCH);
+            }
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        int documentCount = Math.max(1, documents.size());
+        for (Map.Entry<String, Double> match : matches.entrySet()) {
+            Map<Long, Float> termPostings = postings.get(match.getKey());
+            double idf = Math.log(1.0 + (double) documentCount / termPostings.size());
+            for (Map.Entry<Long, Float> posting : termPostings.entrySet()) {
+                double score = posting.getValue() * idf * match.getValue();
+                scores.merge(posting.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private Set<String> candidatesByGram(String queryTerm) {
+        Set<String> candidates = new HashSet<>();
+        for (String gram : grams(queryTerm)) {
+            Set<String> terms = termsByGram.get(gram);
+            if (terms != null) {
+                candidates.addAll(terms);
+            }
+        }
+        return candidates;
+    }
+
+    private void addDocument(ProductDTO product) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, product.getName(), NAME_WEIGHT);
+        addField(weights, product.getCategory(), CATEGORY_WEIGHT);
+        addField(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        documents.put(product.getId(), product);
+        termsByDocument.put(product.getId(), new HashSet<>(weights.keySet()));
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            Map<Long, Float> termPostings = postings.get(entry.getKey());
+            if (termPostings == null) {
+                termPostings = new HashMap<>();
+                postings.put(entry.getKey(), termPostings);
+                for (String gram : grams(entry.getKey())) {
+                    termsByGram.computeIfAbsent(gram, g -> new HashSet<>()).add(entry.getKey());
+                }
+            }
+            termPostings.put(product.getId(), entry.getValue());
+        }
+    }
+
+    private void replaceDocument(ProductDTO product) {
+        if (versions.admit(product)) {
+            removeDocument(product.getId());
+            addDocument(product);
+        }
+    }
+
+    private void removeDocument(Long productId) {
+        documents.remove(productId);
+        Set<String> terms = termsByDocument.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Float> termPostings = postings.get(term);
+            termPostings.remove(productId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+                for (String gram : grams(term)) {
+                    Set<String> gramTerms = termsByGram.get(gram);
+                    gramTerms.remove(term);
+                    if (gramTerms.isEmpty()) {
+                        termsByGram.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, Float::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> terms = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    private static Set<String> grams(String term) {
+        Set<String> grams = new HashSet<>();
+        if (term.length() <= GRAM) {
+            grams.add(term);
+            return grams;
+        }
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            grams.add(term.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * Levenshtein distance check with an early exit once every cell in a row exceeds maxEdits.
+     */
+    static boolean withinEditDistance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return false;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= maxEdits;
+    }
+}
@@ -0,0 +1,38 @@
+package com.secure.product.index;
+
+import com.secure.product.dto.ProductDTO;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Row versions of the products an in-memory index holds, so that a copy read before a later
+ * change (a resync read, an event delivered late) never replaces the newer copy already indexed.
+ * Deleted products keep a marker, so a stale copy cannot bring them back; ids are never reused.
+ *
+ * Not thread-safe: the owning index guards it with its own write lock.
+ */
+final class ProductVersions {
+
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final Map<Long, Long> versions = new HashMap<>();
+
+    /**
+     * Whether {@code product} is at least as new as the indexed copy; if so, its version is recorded.
+     * Equal versions are admitted: sharded stock changes without a version bump.
+     */
+    boolean admit(ProductDTO product) {
+        long version = product.getVersion() == null ? 0L : product.getVersion();
+        Long indexed = versions.get(product.getId());
+        if (indexed != null && indexed > version) {
+            return false;
+        }
+        versions.put(product.getId(), version);
+        return true;
+    }
+
+    void deleted(Long productId) {
+        versions.put(productId, DELETED);
+    }
+}
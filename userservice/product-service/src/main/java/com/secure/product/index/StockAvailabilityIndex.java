@@ -0,0 +1,70 @@
+package com.secure.product.index;
+
+import com.secure.product.dto.ProductDTO;
+import com.secure.product.event.ProductChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory available-stock counter per product, so availability reads never touch
+ * the product row that reservations and decrements lock.
+ *
+ * Values follow committed ProductChangedEvents, local or received from other instances through
+ * {@link ProductChangeBus} (at most product.index.resync-interval-ms behind when a message is
+ * lost), and are advisory: the conditional UPDATE in ProductRepository remains the only
+ * authority on whether units can be taken. Reads are lock-free; writes are serialized and
+ * never replace a product with an older version of it (see {@link ProductVersions}).
+ */
+@Slf4j
+@Component
+public class StockAvailabilityIndex {
+
+    private final Map<Long, Integer> available = new ConcurrentHashMap<>();
+    private final ProductVersions versions = new ProductVersions();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Index the given products and mark the index ready. Merged into what is already indexed, so
+     * a product changed after {@code products} was read keeps its newer copy.
+     */
+    public synchronized void load(Collection<ProductDTO> products) {
+        products.forEach(this::index);
+        ready = true;
+        log.info("Stock availability index loaded with {} products", available.size());
+    }
+
+    /**
+     * Available units, or null if the product is unknown to this instance
+     */
+    public Integer getAvailable(Long productId) {
+        return available.get(productId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            versions.deleted(event.getProductId());
+            available.remove(event.getProductId());
+        } else {
+            index(event.getProduct());
+        }
+    }
+
+    private void index(ProductDTO product) {
+        if (!versions.admit(product)) {
+            return;
+        }
+        boolean active = Boolean.TRUE.equals(product.getActive());
+        int stock = product.getStockQuantity() == null ? 0 : product.getStockQuantity();
+        available.put(product.getId(), active ? stock : 0);
+    }
+}
@@ -1,10 +1,20 @@
 package com.secure.product.repository;
 
 import com.secure.product.entity.Product;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Product Repository
@@ -23,7 +33,82 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByActiveTrue();
 
     /**
-     * Search products by name (case-insensitive)
+     * Products whose name, description or category contains {@code term} (case-insensitive),
+     * ordered by name; only {@code limit} rows are read
      */
-    List<Product> findByNameContainingIgnoreCase(String name);
+    default List<Product> search(String term, int limit) {
+        return findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseOrCategoryContainingIgnoreCase(
+                term, term, term, PageRequest.of(0, limit, Sort.by("name", "id")));
+    }
+
+    List<Product> findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseOrCategoryContainingIgnoreCase(
+            String name, String description, String category, Pageable pageable);
+
+    /**
+     * Atomically decrement stock if the product is active and has enough stock.
+     * The row lock taken by the UPDATE serialises concurrent decrements; no prior read is needed.
+     *
+     * @return 1 if stock was decremented, 0 if the product is missing, inactive, short of stock
+     * or sharded (its stock is in slots)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.updatedAt = :now, "
+            + "p.version = p.version + 1 "
+            + "WHERE p.id = :id AND p.active = true AND p.stockQuantity >= :quantity AND p.shardedStock = false")
+    int decrementStockIfAvailable(@Param("id") Long id,
+                                  @Param("quantity") int quantity,
+                                  @Param("now") LocalDateTime now);
+
+    /**
+     * Atomically give stock back (released or expired reservations)
+     *
+     * @return 1 if stock was incremented, 0 if the product is missing or sharded
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, p.updatedAt = :now, "
+            + "p.version = p.version + 1 WHERE p.id = :id AND p.shardedStock = false")
+    int incrementStock(@Param("id") Long id,
+                       @Param("quantity") int quantity,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Find a product and lock its row until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Ids of products written after {@code since}; every write sets updated_at
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.updatedAt > :since")
+    List<Long> findIdsUpdatedAfter(@Param("since") LocalDateTime since);
+
+    /**
+     * Ids of products whose stock is kept in slots
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.shardedStock = true")
+    List<Long> findShardedStockIds();
+
+    /**
+     * Active flag only, without loading (or locking) the product
+     */
+    @Query("SELECT p.active FROM Product p WHERE p.id = :id")
+    Optional<Boolean> findActiveById(@Param("id") Long id);
+
+    /**
+     * Version and stock columns only, for answering conditional GETs without loading the product
+     */
+    @Query("SELECT p.version AS version, p.stockQuantity AS stockQuantity, p.shardedStock AS shardedStock "
+            + "FROM Product p WHERE p.id = :id")
+    Optional<VersionView> findVersionById(@Param("id") Long id);
+
+    interface VersionView {
+
+        Long getVersion();
+
+        Integer getStockQuantity();
+
+        Boolean getShardedStock();
+    }
 }
@@ -0,0 +1,55 @@
+package com.secure.product.repository;
+
+import com.secure.product.entity.ProductStockSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+
+/**
+ * Product Stock Slot Repository
+ */
+@Repository
+public interface ProductStockSlotRepository extends JpaRepository<ProductStockSlot, ProductStockSlot.Key> {
+
+    /**
+     * Lock every slot of a product, in slot order so concurrent rebalances cannot deadlock
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ProductStockSlot s WHERE s.productId = :productId ORDER BY s.slot")
+    List<ProductStockSlot> lockSlots(@Param("productId") Long productId);
+
+    /**
+     * Atomically take stock from one slot if it holds enough
+     *
+     * @return 1 if decremented, 0 if the slot is missing or short
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductStockSlot s SET s.quantity = s.quantity - :quantity "
+            + "WHERE s.productId = :productId AND s.slot = :slot AND s.quantity >= :quantity")
+    int decrementSlot(@Param("productId") Long productId,
+                      @Param("slot") int slot,
+                      @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductStockSlot s SET s.quantity = s.quantity + :quantity "
+            + "WHERE s.productId = :productId AND s.slot = :slot")
+    int incrementSlot(@Param("productId") Long productId,
+                      @Param("slot") int slot,
+                      @Param("quantity") int quantity);
+
+    @Query("SELECT COALESCE(SUM(s.quantity), 0) FROM ProductStockSlot s WHERE s.productId = :productId")
+    long sumQuantity(@Param("productId") Long productId);
+
+    @Query("SELECT COUNT(s) FROM ProductStockSlot s WHERE s.productId = :productId")
+    int countSlots(@Param("productId") Long productId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ProductStockSlot s WHERE s.productId = :productId")
+    int deleteSlots(@Param("productId") Long productId);
+}
@@ -0,0 +1,48 @@
+package com.secure.product.repository;
+
+import com.secure.product.entity.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stock Reservation Repository
+ */
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    /**
+     * Find all reservation lines of an order
+     */
+    List<StockReservation> findByOrderId(Long orderId);
+
+    /**
+     * Find all reservation lines of several orders
+     */
+    List<StockReservation> findByOrderIdIn(Collection<Long> orderIds);
+
+    /**
+     * Find reservations in the given status that expired before {@code now}, oldest first
+     */
+    List<StockReservation> findByStatusAndExpiresAtBeforeOrderByExpiresAtAsc(String status, LocalDateTime now,
+                                                                             Pageable pageable);
+
+    /**
+     * Move a reservation from one status to another only if it is still in {@code from}.
+     * Confirm, release and the expiry sweeper race on the same rows; only the caller that
+     * gets 1 back owns the transition (and, for release/expiry, the restock).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = :to, r.updatedAt = :now WHERE r.id = :id AND r.status = :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") String from,
+                   @Param("to") String to,
+                   @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,188 @@
+package com.secure.product.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Preloads the product caches after startup so that a new replica does not send its first
+ * minutes of traffic to the database.
+ *
+ * Warms the products list and, in parallel chunks, the configured product ids followed by the
+ * most-read ids recorded by {@link ProductAccessTracker}. Runs once the in-memory indexes are
+ * built; as a health indicator (part of the readiness group) it reports OUT_OF_SERVICE until
+ * the warm-up completes, fails or its timeout runs out, so Kubernetes only routes traffic
+ * afterwards and a failed warm-up cannot keep the pod out of service.
+ */
+@Component
+@Slf4j
+public class CacheWarmer implements HealthIndicator {
+
+    private static final int CHUNK_SIZE = 100;
+
+    enum State { PENDING, RUNNING, COMPLETED, TIMED_OUT, FAILED, DISABLED }
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductAccessTracker accessTracker;
+
+    @Value("${product.cache.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.cache.warmup.timeout:30s}")
+    private Duration timeout;
+
+    @Value("${product.cache.warmup.threads:4}")
+    private int threads;
+
+    @Value("${product.cache.warmup.top-products:500}")
+    private int topProducts;
+
+    @Value("${product.cache.warmup.product-ids:}")
+    private String productIds;
+
+    private List<Long> configuredIds = List.of();
+
+    private volatile State state = State.PENDING;
+    private volatile int warmedProducts;
+    private volatile long durationMs;
+
+    /**
+     * Parse product-ids at startup, so that a malformed entry fails the deployment instead of
+     * the warm-up
+     */
+    @PostConstruct
+    void parseProductIds() {
+        List<Long> ids = new ArrayList<>();
+        for (String id : productIds.split(",")) {
+            if (id.isBlank()) {
+                continue;
+            }
+            try {
+                ids.add(Long.valueOf(id.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException(
+                        "Invalid product id '" + id.trim() + "' in product.cache.warmup.product-ids", e);
+            }
+        }
+        configuredIds = List.copyOf(ids);
+    }
+
+    /**
+     * Start the warm-up in the background after the index build (which runs on the same event)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onApplicationReady() {
+        if (!enabled) {
+            state = State.DISABLED;
+            log.info("Cache warm-up disabled");
+            return;
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-warmup-");
+        threadFactory.setDaemon(true);
+        threadFactory.newThread(this::warmUp).start();
+    }
+
+    void warmUp() {
+        state = State.RUNNING;
+        long started = System.currentTimeMillis();
+        State outcome = State.FAILED;
+        int warmed = 0;
+        try {
+            List<Long> ids = productIdsToWarm();
+            log.info("Warming product caches: products list and {} products", ids.size());
+
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            tasks.add(() -> {
+                productService.getAllProducts();
+                return 0;
+            });
+            for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+                tasks.add(() -> productService.getProductsByIds(chunk).getProducts().size());
+            }
+
+            boolean timedOut = false;
+            ExecutorService executor = Executors.newFixedThreadPool(threads,
+                    new CustomizableThreadFactory("cache-warmup-worker-"));
+            try {
+                for (Future<Integer> future : executor.invokeAll(tasks, timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    try {
+                        warmed += future.get();
+                    } catch (CancellationException e) {
+                        timedOut = true;
+                    } catch (ExecutionException e) {
+                        log.warn("Cache warm-up step failed: {}", e.getCause().getMessage());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                timedOut = true;
+            } finally {
+                executor.shutdownNow();
+            }
+            outcome = timedOut ? State.TIMED_OUT : State.COMPLETED;
+        } catch (RuntimeException e) {
+            log.error("Cache warm-up failed, serving with cold caches", e);
+        } finally {
+            warmedProducts = warmed;
+            durationMs = System.currentTimeMillis() - started;
+            state = outcome;
+        }
+        if (outcome == State.TIMED_OUT) {
+            log.warn("Cache warm-up timed out after {} ms with {} products warmed", durationMs, warmed);
+        } else if (outcome == State.COMPLETED) {
+            log.info("Cache warm-up completed in {} ms: {} products warmed", durationMs, warmed);
+        }
+    }
+
+    /**
+     * Configured ids first, then the most-read ids, without duplicates
+     */
+    private List<Long> productIdsToWarm() {
+        Set<Long> ids = new LinkedHashSet<>(configuredIds);
+        ids.addAll(accessTracker.topProductIds(topProducts));
+        return new ArrayList<>(ids);
+    }
+
+    State getState() {
+        return state;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = state == State.PENDING || state == State.RUNNING
+                ? Health.outOfService()
+                : Health.up();
+        return builder
+                .withDetail("state", state)
+                .withDetail("products", warmedProducts)
+                .withDetail("durationMs", durationMs)
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.secure.product.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records which products are read, so that a freshly started replica knows what to warm.
+ *
+ * Reads are counted in memory and flushed periodically into a Redis sorted set shared by all
+ * replicas (one pipelined ZINCRBY per product read since the last flush). The set is trimmed
+ * to the most-read products after each flush.
+ */
+@Component
+@Slf4j
+public class ProductAccessTracker {
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Value("${product.cache.hot-keys.key:product:hot-ids}")
+    private String key;
+
+    @Value("${product.cache.hot-keys.max-tracked:5000}")
+    private int maxTracked;
+
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Count reads of products; ids beyond maxTracked distinct ids per flush interval are dropped
+     */
+    public void recordAccess(Collection<Long> productIds) {
+        for (Long productId : productIds) {
+            LongAdder count = pending.get(productId);
+            if (count == null) {
+                if (pending.size() >= maxTracked) {
+                    continue;
+                }
+                count = pending.computeIfAbsent(productId, id -> new LongAdder());
+            }
+            count.increment();
+        }
+    }
+
+    public void recordAccess(Long productId) {
+        recordAccess(Collections.singletonList(productId));
+    }
+
+    @Scheduled(fixedDelayString = "${product.cache.hot-keys.flush-interval-ms:60000}",
+            initialDelayString = "${product.cache.hot-keys.flush-interval-ms:60000}")
+    public void flush() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Long productId : new ArrayList<>(pending.keySet())) {
+            LongAdder count = pending.remove(productId);
+            if (count != null) {
+                counts.put(productId, count.sum());
+            }
+        }
+        if (counts.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection commands = (StringRedisConnection) connection;
+                counts.forEach((productId, count) -> commands.zIncrBy(key, count, productId.toString()));
+                return null;
+            });
+            // Keep the top maxTracked members (ranks are ascending by score)
+            redisTemplate.opsForZSet().removeRange(key, 0, -(maxTracked + 1L));
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush {} product access counts: {}", counts.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Most-read product ids across all replicas, most-read first; empty if Redis is unavailable
+     */
+    public List<Long> topProductIds(int limit) {
+        List<Long> ids = new ArrayList<>();
+        if (limit <= 0) {
+            return ids;
+        }
+        try {
+            Set<String> members = redisTemplate.opsForZSet().reverseRange(key, 0, limit - 1L);
+            if (members != null) {
+                for (String member : members) {
+                    ids.add(Long.valueOf(member));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to read hot product ids: {}", e.getMessage());
+        }
+        return ids;
+    }
+}
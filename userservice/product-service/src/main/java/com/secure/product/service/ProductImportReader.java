@@ -0,0 +1,153 @@
+package com.secure.product.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.secure.product.dto.CreateProductRequest;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads import rows one at a time from CSV (with a header line) or NDJSON (one JSON object per line),
+ * so an import never holds more than the current row. A row that cannot be parsed is reported as an
+ * error and reading continues with the next row; unknown columns/fields are ignored.
+ */
+abstract class ProductImportReader implements Closeable {
+
+    private static final ObjectReader JSON_ROW = new ObjectMapper()
+            .readerFor(CreateProductRequest.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static final ObjectReader CSV_ROW = new CsvMapper()
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .readerFor(CreateProductRequest.class)
+            .with(CsvSchema.emptySchema().withHeader())
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    /**
+     * Line of the current row (1-based, as in the uploaded file)
+     */
+    protected long line;
+    protected CreateProductRequest row;
+    protected String error;
+
+    static ProductImportReader csv(InputStream input) throws IOException {
+        return new Csv(input);
+    }
+
+    static ProductImportReader ndjson(InputStream input) {
+        return new NdJson(input);
+    }
+
+    /**
+     * Advance to the next row.
+     *
+     * @return false at end of input; otherwise exactly one of {@link #row()} and {@link #error()} is set
+     */
+    abstract boolean next() throws IOException;
+
+    long line() {
+        return line;
+    }
+
+    CreateProductRequest row() {
+        return row;
+    }
+
+    String error() {
+        return error;
+    }
+
+    static String describe(JsonProcessingException e) {
+        if (e instanceof JsonMappingException && !((JsonMappingException) e).getPath().isEmpty()) {
+            JsonMappingException mapping = (JsonMappingException) e;
+            return "Invalid value for " + mapping.getPath().get(0).getFieldName() + ": " + e.getOriginalMessage();
+        }
+        return e.getOriginalMessage();
+    }
+
+    private static final class NdJson extends ProductImportReader {
+
+        private final BufferedReader reader;
+
+        NdJson(InputStream input) {
+            this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        boolean next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+                if (text == null) {
+                    return false;
+                }
+            } while (text.isBlank());
+
+            row = null;
+            error = null;
+            try {
+                row = JSON_ROW.readValue(text);
+            } catch (JsonProcessingException e) {
+                error = describe(e);
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class Csv extends ProductImportReader {
+
+        private final MappingIterator<CreateProductRequest> rows;
+
+        Csv(InputStream input) throws IOException {
+            this.rows = CSV_ROW.readValues(input);
+        }
+
+        @Override
+        boolean next() throws IOException {
+            row = null;
+            error = null;
+            try {
+                if (!rows.hasNextValue()) {
+                    return false;
+                }
+                line = rows.getCurrentLocation().getLineNr();
+                row = rows.nextValue();
+            } catch (JsonParseException e) {
+                // Broken CSV syntax (e.g. an unterminated quote): the parser cannot resynchronise
+                throw new IOException("Malformed CSV at line " + e.getLocation().getLineNr() + ": "
+                        + e.getOriginalMessage(), e);
+            } catch (JsonProcessingException e) {
+                error = describe(e);
+            } catch (RuntimeJsonMappingException e) {
+                error = e.getMessage();
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            rows.close();
+        }
+    }
+}
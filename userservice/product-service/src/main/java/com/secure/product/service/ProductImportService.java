@@ -0,0 +1,148 @@
+package com.secure.product.service;
+
+import com.secure.product.dto.CreateProductRequest;
+import com.secure.product.dto.ProductImportResult;
+import com.secure.product.entity.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming bulk product import.
+ *
+ * Rows are parsed and validated one at a time and inserted in chunks of {@code chunk-size},
+ * one transaction per chunk, so memory stays constant however large the upload is and rows
+ * imported before a failure stay imported. A chunk the database rejects is retried row by row
+ * to find the offending rows. Rejected rows are reported with their line number.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${product.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${product.import.max-errors:1000}")
+    private int maxErrors;
+
+    public ProductImportResult importProducts(InputStream input, Format format) throws IOException {
+        long started = System.nanoTime();
+        Report report = new Report();
+        List<Product> chunk = new ArrayList<>(chunkSize);
+        List<Long> lines = new ArrayList<>(chunkSize);
+
+        try (ProductImportReader reader = format == Format.CSV
+                ? ProductImportReader.csv(input)
+                : ProductImportReader.ndjson(input)) {
+            while (reader.next()) {
+                report.rows++;
+                String error = reader.error() != null ? reader.error() : validate(reader.row());
+                if (error != null) {
+                    report.reject(reader.line(), error);
+                    continue;
+                }
+                chunk.add(toProduct(reader.row()));
+                lines.add(reader.line());
+                if (chunk.size() == chunkSize) {
+                    flush(chunk, lines, report);
+                }
+            }
+            flush(chunk, lines, report);
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Product import finished: {} rows, {} imported, {} failed in {} ms",
+                report.rows, report.imported, report.failed, durationMs);
+        return ProductImportResult.builder()
+                .rows(report.rows)
+                .imported(report.imported)
+                .failed(report.failed)
+                .errors(report.errors)
+                .errorsTruncated(report.failed > report.errors.size())
+                .durationMs(durationMs)
+                .build();
+    }
+
+    private void flush(List<Product> chunk, List<Long> lines, Report report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            report.imported += productService.importProducts(chunk);
+        } catch (DataAccessException e) {
+            log.warn("Import chunk of {} rows rejected ({}), retrying row by row", chunk.size(), e.getMessage());
+            for (int i = 0; i < chunk.size(); i++) {
+                Product product = chunk.get(i);
+                product.setId(null);
+                product.setVersion(null);
+                try {
+                    report.imported += productService.importProducts(Collections.singletonList(product));
+                } catch (DataAccessException rowError) {
+                    report.reject(lines.get(i), rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        chunk.clear();
+        lines.clear();
+    }
+
+    private String validate(CreateProductRequest row) {
+        Set<ConstraintViolation<CreateProductRequest>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.joining("; "));
+    }
+
+    private static Product toProduct(CreateProductRequest row) {
+        return Product.builder()
+                .name(row.getName())
+                .description(row.getDescription())
+                .price(row.getPrice())
+                .stockQuantity(row.getStockQuantity())
+                .category(row.getCategory())
+                .active(true)
+                .build();
+    }
+
+    private final class Report {
+
+        private long rows;
+        private long imported;
+        private long failed;
+        private final List<ProductImportResult.RowError> errors = new ArrayList<>();
+
+        void reject(long line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(ProductImportResult.RowError.builder().line(line).message(message).build());
+            }
+        }
+    }
+}
@@ -1,19 +1,48 @@
 package com.secure.product.service;
 
 import com.secure.product.dto.CreateProductRequest;
+import com.secure.product.dto.ProductBatchResponse;
 import com.secure.product.dto.ProductDTO;
+import com.secure.product.dto.ProductFacetsResponse;
+import com.secure.product.dto.StockAvailabilityDTO;
+import com.secure.product.dto.StockDecrementRequest;
 import com.secure.product.dto.UpdateProductRequest;
 import com.secure.product.entity.Product;
+import com.secure.product.event.ProductChangedEvent;
+import com.secure.product.index.ProductFacetIndex;
+import com.secure.product.index.ProductSearchIndex;
+import com.secure.product.index.ProductChangeBus;
+import com.secure.product.index.StockAvailabilityIndex;
 import com.secure.product.repository.ProductRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
@@ -24,13 +53,136 @@ import java.util.stream.Collectors;
 @Transactional
 public class ProductService {
 
+    private static final int RESYNC_CHUNK_SIZE = 1000;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private StockAvailabilityIndex stockAvailabilityIndex;
+
+    @Autowired
+    private ShardedStockService shardedStockService;
+
+    @Value("${product.search.index.enabled:true}")
+    private boolean searchIndexEnabled;
+
+    @Value("${product.search.max-results:100}")
+    private int searchMaxResults;
+
+    @Value("${product.facets.index.enabled:true}")
+    private boolean facetIndexEnabled;
+
+    @Value("${product.batch.max-ids:500}")
+    private int batchMaxIds;
+
+    @Value("${product.index.resync-overlap:1m}")
+    private Duration resyncOverlap;
+
     /**
-     * Get all products with caching
+     * Start of the last index load or resync; rows updated since then are read again by the next resync
      */
-    @Cacheable("products")
+    private volatile LocalDateTime indexedSince;
+
+    /**
+     * Build in-memory indexes from the database once the application is ready
+     * (before the cache warm-up, which listens to the same event)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(readOnly = true)
+    public void buildIndexes() {
+        log.info("Building product indexes");
+        if (!searchIndexEnabled) {
+            log.info("Product search index disabled; searches use the database");
+        }
+        if (!facetIndexEnabled) {
+            log.info("Product facet index disabled; category listings use the database");
+        }
+        LocalDateTime started = LocalDateTime.now();
+        List<ProductDTO> products = productRepository.findAll().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        stockAvailabilityIndex.load(products);
+        if (searchIndexEnabled) {
+            productSearchIndex.load(products);
+        }
+        if (facetIndexEnabled) {
+            productFacetIndex.load(products);
+        }
+        indexedSince = started;
+    }
+
+    /**
+     * Catch the in-memory indexes up with the database every resync-interval. Writes on other
+     * instances normally reach this one within milliseconds through {@link ProductChangeBus};
+     * the resync bounds how long an index can stay stale when such a message is lost
+     * (pub/sub is at most once), e.g. while Redis was unreachable.
+     *
+     * Incremental: only rows whose updated_at is past the previous resync (less resync-overlap,
+     * for clock skew between instances and transactions still open at that time) are read, plus
+     * sharded products, whose stock changes in slot rows. The indexes keep the newer of two
+     * versions of a product, so a row read here never undoes a change applied meanwhile. A lost
+     * delete is not caught up: the product stays listed until the next restart, and reads of
+     * it find nothing.
+     */
+    @Scheduled(fixedDelayString = "${product.index.resync-interval-ms:300000}",
+            initialDelayString = "${product.index.resync-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void resyncIndexes() {
+        LocalDateTime since = indexedSince;
+        if (since == null) {
+            return;
+        }
+        LocalDateTime started = LocalDateTime.now();
+        Set<Long> changed = new LinkedHashSet<>(productRepository.findIdsUpdatedAfter(since.minus(resyncOverlap)));
+        changed.addAll(productRepository.findShardedStockIds());
+        log.debug("Resyncing {} products into the indexes", changed.size());
+        List<Long> ids = new ArrayList<>(changed);
+        for (int from = 0; from < ids.size(); from += RESYNC_CHUNK_SIZE) {
+            reindex(ids.subList(from, Math.min(from + RESYNC_CHUNK_SIZE, ids.size())));
+        }
+        indexedSince = started;
+    }
+
+    /**
+     * Reload products written on another instance into the in-memory indexes; ids that no
+     * longer exist are removed. Applied to the indexes directly rather than republished as
+     * ProductChangedEvents, so the change is not broadcast again.
+     */
+    @Transactional(readOnly = true)
+    public void reindex(Collection<Long> productIds) {
+        Map<Long, ProductDTO> found = productRepository.findAllById(productIds).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toMap(ProductDTO::getId, product -> product));
+        for (Long productId : productIds) {
+            ProductDTO product = found.get(productId);
+            ProductChangedEvent event = product == null
+                    ? ProductChangedEvent.deleted(productId)
+                    : ProductChangedEvent.upserted(product);
+            stockAvailabilityIndex.onProductChanged(event);
+            productSearchIndex.onProductChanged(event);
+            productFacetIndex.onProductChanged(event);
+        }
+    }
+
+    /**
+     * Get all products with caching.
+     * sync: concurrent misses on one instance wait for a single load instead of all querying the database.
+     */
+    @Cacheable(value = "products", sync = true)
     @Transactional(readOnly = true)
     public List<ProductDTO> getAllProducts() {
         log.info("Fetching all products from database");
@@ -40,9 +192,9 @@ public class ProductService {
     }
 
     /**
-     * Get product by ID with caching
+     * Get product by ID with caching (single-flight per id, see getAllProducts)
      */
-    @Cacheable(value = "product", key = "#id")
+    @Cacheable(value = "product", key = "#id", sync = true)
     @Transactional(readOnly = true)
     public ProductDTO getProductById(Long id) {
         log.info("Fetching product with id: {} from database", id);
@@ -51,6 +203,83 @@ public class ProductService {
         return convertToDTO(product);
     }
 
+    /**
+     * ETag of a product without loading it: taken from the product cache when present, otherwise
+     * from a version/stock projection (plus the slot total for sharded stock).
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> getProductETag(Long id) {
+        Cache productCache = cacheManager.getCache("product");
+        ProductDTO cached = productCache != null ? productCache.get(id, ProductDTO.class) : null;
+        if (cached != null && cached.getVersion() != null) {
+            return Optional.of(eTagOf(cached));
+        }
+        return productRepository.findVersionById(id)
+                .map(view -> view.getVersion() + "-" + (Boolean.TRUE.equals(view.getShardedStock())
+                        ? shardedStockService.total(id)
+                        : view.getStockQuantity()));
+    }
+
+    /**
+     * ETag of a loaded product: its version, plus its stock because sharded stock changes without
+     * a version bump. Null for cache entries written before products had versions.
+     */
+    public String eTagOf(ProductDTO product) {
+        return product.getVersion() != null ? product.getVersion() + "-" + product.getStockQuantity() : null;
+    }
+
+    /**
+     * Get many products by ID.
+     * Each id is looked up in the same "product" cache as {@link #getProductById}; all misses are
+     * loaded with one findAllById and written back to the cache. Ids that do not exist are
+     * reported in notFound.
+     */
+    @Transactional(readOnly = true)
+    public ProductBatchResponse getProductsByIds(Collection<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        if (requested.isEmpty() || requested.size() > batchMaxIds) {
+            throw new IllegalArgumentException("Between 1 and " + batchMaxIds + " product ids are allowed");
+        }
+
+        Cache productCache = cacheManager.getCache("product");
+        Map<Long, ProductDTO> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : requested) {
+            ProductDTO cached = productCache != null ? productCache.get(id, ProductDTO.class) : null;
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            log.info("Fetching {} of {} products from database", misses.size(), requested.size());
+            for (Product product : productRepository.findAllById(misses)) {
+                ProductDTO loaded = convertToDTO(product);
+                found.put(loaded.getId(), loaded);
+                if (productCache != null) {
+                    productCache.putIfAbsent(loaded.getId(), loaded);
+                }
+            }
+        }
+
+        Map<Long, ProductDTO> products = new LinkedHashMap<>();
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : requested) {
+            ProductDTO product = found.get(id);
+            if (product != null) {
+                products.put(id, product);
+            } else {
+                notFound.add(id);
+            }
+        }
+        return ProductBatchResponse.builder()
+                .products(products)
+                .notFound(notFound)
+                .build();
+    }
+
     /**
      * Create product and update cache
      */
@@ -73,7 +302,24 @@ public class ProductService {
         // Evict products list cache
         evictAllProductsCache();
 
-        return convertToDTO(savedProduct);
+        ProductDTO created = convertToDTO(savedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.upserted(created));
+        return created;
+    }
+
+    /**
+     * Insert a chunk of imported products in one transaction.
+     * Ids come from product_seq in blocks, so Hibernate sends the inserts as JDBC batches;
+     * the products list cache is evicted once for the whole chunk.
+     */
+    public int importProducts(List<Product> products) {
+        List<Product> saved = productRepository.saveAll(products);
+        productRepository.flush();
+        for (Product product : saved) {
+            eventPublisher.publishEvent(ProductChangedEvent.upserted(convertToDTO(product)));
+        }
+        evictAllProductsCache();
+        return saved.size();
     }
 
     /**
@@ -97,7 +343,11 @@ public class ProductService {
             product.setPrice(request.getPrice());
         }
         if (request.getStockQuantity() != null) {
-            product.setStockQuantity(request.getStockQuantity());
+            if (Boolean.TRUE.equals(product.getShardedStock())) {
+                shardedStockService.reset(id, request.getStockQuantity());
+            } else {
+                product.setStockQuantity(request.getStockQuantity());
+            }
         }
         if (request.getCategory() != null) {
             product.setCategory(request.getCategory());
@@ -112,7 +362,9 @@ public class ProductService {
         // Evict products list cache
         evictAllProductsCache();
 
-        return convertToDTO(updatedProduct);
+        ProductDTO updated = convertToDTO(updatedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.upserted(updated));
+        return updated;
     }
 
     /**
@@ -130,62 +382,230 @@ public class ProductService {
 
         // Evict products list cache
         evictAllProductsCache();
+
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
 
     /**
-     * Search products by name
+     * Search products by name, description and category.
+     * Served from the in-memory index (ranked, prefix and typo tolerant) once it is built;
+     * falls back to a case-insensitive substring match on the same fields, ordered by name and
+     * limited in the query, while the index is disabled or still building.
+     * {@code limit} is clamped to 1..search max-results.
      */
     @Transactional(readOnly = true)
-    public List<ProductDTO> searchProducts(String name) {
-        log.info("Searching products with name containing: {}", name);
-        return productRepository.findByNameContainingIgnoreCase(name).stream()
+    public List<ProductDTO> searchProducts(String name, int limit) {
+        int maxResults = Math.max(1, Math.min(limit, searchMaxResults));
+        if (searchIndexEnabled && productSearchIndex.isReady()) {
+            log.info("Searching product index for: {}", name);
+            return productSearchIndex.search(name, maxResults);
+        }
+        log.info("Searching products containing: {}", name);
+        return productRepository.search(name, maxResults).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Get products by category
+     * Get products by category.
+     * Served from the facet index once it is built; falls back to the database otherwise.
      */
     @Transactional(readOnly = true)
     public List<ProductDTO> getProductsByCategory(String category) {
+        if (facetIndexEnabled && productFacetIndex.isReady()) {
+            log.info("Fetching products by category from facet index: {}", category);
+            return productFacetIndex.findByCategory(category);
+        }
         log.info("Fetching products by category: {}", category);
         return productRepository.findByCategory(category).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Faceted listing with counts per category, price band and active flag, served from the facet index.
+     *
+     * @throws IllegalStateException while the facet index is disabled or still building; facets are
+     *                               never computed from a scan of the products table
+     */
+    public ProductFacetsResponse getFacets(List<String> categories, List<String> priceBands,
+                                           Boolean active, int page, int size) {
+        if (!facetIndexEnabled) {
+            throw new IllegalStateException("Facets are not available: the facet index is disabled");
+        }
+        if (!productFacetIndex.isReady()) {
+            throw new IllegalStateException("Facets are not available yet: the facet index is building");
+        }
+        return productFacetIndex.facets(categories, priceBands, active, page, size);
+    }
+
     /**
      * Decrement stock by the given quantity (called by order-service when an order is placed).
-     * Validates the product is active and has sufficient stock before decrementing.
+     * A single conditional UPDATE checks active flag and available stock and decrements atomically;
+     * the product is only read afterwards, to return it or to explain a rejected decrement.
      */
     @CacheEvict(value = "product", key = "#productId")
     public ProductDTO decrementStock(Long productId, int quantity) {
         log.info("Decrementing stock for productId={} by quantity={}", productId, quantity);
-        Product product = productRepository.findById(productId)
+        applyDecrement(productId, quantity);
+
+        Product updated = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
+        ProductDTO result = convertToDTO(updated);
+        log.info("Stock decremented for productId={}: new stock={}", productId, result.getStockQuantity());
 
-        if (!Boolean.TRUE.equals(product.getActive())) {
-            throw new RuntimeException("Product is not active: " + productId);
+        evictAllProductsCache();
+        eventPublisher.publishEvent(ProductChangedEvent.upserted(result));
+        return result;
+    }
+
+    /**
+     * Decrement stock for several products in one transaction.
+     * Quantities for the same product are summed and rows are updated in ascending id order,
+     * so concurrent batches always lock rows in the same order and cannot deadlock.
+     * If any item cannot be fulfilled the whole batch is rolled back.
+     */
+    public List<ProductDTO> decrementStockBatch(List<StockDecrementRequest.Item> items) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (StockDecrementRequest.Item item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
         }
-        if (product.getStockQuantity() < quantity) {
-            throw new RuntimeException("Insufficient stock for product " + productId
-                    + ". Available: " + product.getStockQuantity() + ", requested: " + quantity);
+        log.info("Decrementing stock for {} products", quantities.size());
+
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            applyDecrement(entry.getKey(), entry.getValue());
         }
 
-        product.setStockQuantity(product.getStockQuantity() - quantity);
-        Product updated = productRepository.save(product);
-        log.info("Stock decremented for productId={}: new stock={}", productId, updated.getStockQuantity());
+        return stockChanged(quantities.keySet());
+    }
+
+    /**
+     * Give stock back to several products (released or expired reservations).
+     * Rows are updated in ascending id order, like decrements. The single-row update skips
+     * sharded products; if it matches nothing the product may have been sharded by another
+     * instance, so the slots are re-read and tried again, as for decrements.
+     */
+    public List<ProductDTO> restoreStock(Map<Long, Integer> quantities) {
+        Map<Long, Integer> sorted = new TreeMap<>(quantities);
+        log.info("Restoring stock for {} products", sorted.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Long, Integer> entry : sorted.entrySet()) {
+            if (shardedStockService.increment(entry.getKey(), entry.getValue())) {
+                continue;
+            }
+            if (productRepository.incrementStock(entry.getKey(), entry.getValue(), now) == 0
+                    && !(shardedStockService.refresh(entry.getKey())
+                    && shardedStockService.increment(entry.getKey(), entry.getValue()))) {
+                log.warn("Cannot restore {} units to missing product {}", entry.getValue(), entry.getKey());
+            }
+        }
+        return stockChanged(sorted.keySet());
+    }
+
+    /**
+     * Split a product's stock across {@code slots} slot rows (flash-sale mode)
+     */
+    @CacheEvict(value = "product", key = "#id")
+    public ProductDTO enableShardedStock(Long id, int slots) {
+        log.info("Enabling sharded stock for product {} with {} slots", id, slots);
+        return publishChange(shardedStockService.enable(id, slots));
+    }
+
+    /**
+     * Fold a sharded product's slots back into a single stock row
+     */
+    @CacheEvict(value = "product", key = "#id")
+    public ProductDTO disableShardedStock(Long id) {
+        log.info("Disabling sharded stock for product {}", id);
+        return publishChange(shardedStockService.disable(id));
+    }
 
+    private ProductDTO publishChange(Product product) {
+        evictAllProductsCache();
+        ProductDTO result = convertToDTO(product);
+        eventPublisher.publishEvent(ProductChangedEvent.upserted(result));
+        return result;
+    }
+
+    /**
+     * Available stock, served from the in-memory counter; reads the database only for
+     * products this instance has not seen yet.
+     */
+    @Transactional(readOnly = true)
+    public StockAvailabilityDTO getAvailability(Long productId) {
+        Integer available = stockAvailabilityIndex.getAvailable(productId);
+        if (available == null) {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
+            available = Boolean.TRUE.equals(product.getActive()) ? convertToDTO(product).getStockQuantity() : 0;
+        }
+        return StockAvailabilityDTO.builder()
+                .productId(productId)
+                .available(available)
+                .build();
+    }
+
+    /**
+     * Reload products whose stock was changed by bulk UPDATEs, evict their cache entries
+     * and publish change events for the in-memory indexes
+     */
+    private List<ProductDTO> stockChanged(Collection<Long> productIds) {
+        Cache productCache = cacheManager.getCache("product");
+        List<ProductDTO> results = productRepository.findAllById(productIds).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        for (ProductDTO result : results) {
+            if (productCache != null) {
+                productCache.evict(result.getId());
+            }
+            eventPublisher.publishEvent(ProductChangedEvent.upserted(result));
+        }
         evictAllProductsCache();
-        return convertToDTO(updated);
+        return results;
+    }
+
+    private void applyDecrement(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new RuntimeException("Quantity must be positive for product " + productId);
+        }
+        if (shardedStockService.decrement(productId, quantity)) {
+            return;
+        }
+        if (productRepository.decrementStockIfAvailable(productId, quantity, LocalDateTime.now()) == 1) {
+            return;
+        }
+        Product product = productRepository.findById(productId).orElse(null);
+        if (product != null && Boolean.TRUE.equals(product.getShardedStock())
+                && shardedStockService.refresh(productId) && shardedStockService.decrement(productId, quantity)) {
+            return;
+        }
+        throw stockRejection(productId, product, quantity);
     }
 
     /**
-     * Evict all products list cache
+     * Explain why a conditional decrement matched no row
+     */
+    private RuntimeException stockRejection(Long productId, Product product, int quantity) {
+        if (product == null) {
+            return new RuntimeException("Product not found with id: " + productId);
+        }
+        if (!Boolean.TRUE.equals(product.getActive())) {
+            return new RuntimeException("Product is not active: " + productId);
+        }
+        return new RuntimeException("Insufficient stock for product " + productId
+                + ". Available: " + product.getStockQuantity() + ", requested: " + quantity);
+    }
+
+    /**
+     * Evict all products list cache.
+     * Clears through the CacheManager because calls from within this class bypass the caching proxy.
      */
-    @CacheEvict(value = "products", allEntries = true)
     public void evictAllProductsCache() {
         log.info("Evicting all products cache");
+        Cache productsCache = cacheManager.getCache("products");
+        if (productsCache != null) {
+            productsCache.clear();
+        }
     }
 
     /**
@@ -197,9 +617,12 @@ public class ProductService {
                 .name(product.getName())
                 .description(product.getDescription())
                 .price(product.getPrice())
-                .stockQuantity(product.getStockQuantity())
+                .stockQuantity(Boolean.TRUE.equals(product.getShardedStock())
+                        ? shardedStockService.total(product.getId())
+                        : product.getStockQuantity())
                 .category(product.getCategory())
                 .active(product.getActive())
+                .version(product.getVersion())
                 .build();
     }
 }
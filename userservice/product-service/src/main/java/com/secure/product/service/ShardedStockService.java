@@ -0,0 +1,235 @@
+package com.secure.product.service;
+
+import com.secure.product.entity.Product;
+import com.secure.product.entity.ProductStockSlot;
+import com.secure.product.repository.ProductRepository;
+import com.secure.product.repository.ProductStockSlotRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sharded stock for flash-sale SKUs.
+ *
+ * An opted-in product keeps its stock in N slot rows instead of products.stock_quantity.
+ * A decrement starts at a random slot and takes the first slot that holds enough, so
+ * concurrent orders for the same SKU lock different rows. When no single slot can cover
+ * a decrement, all slots are locked (in slot order) and the remaining stock is spread
+ * evenly again. Reads add the slots up.
+ *
+ * Which products are sharded is cached per instance; a product sharded by another
+ * instance is picked up the first time the single-row path misses on it.
+ */
+@Service
+@Slf4j
+@Transactional
+public class ShardedStockService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductStockSlotRepository slotRepository;
+
+    @Value("${product.stock.shards.max-slots:64}")
+    private int maxSlots;
+
+    /**
+     * Slot count per sharded product
+     */
+    private final Map<Long, Integer> slotCounts = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadShardedProducts() {
+        for (Long productId : productRepository.findShardedStockIds()) {
+            slotCounts.put(productId, slotRepository.countSlots(productId));
+        }
+        log.info("Loaded {} sharded stock products", slotCounts.size());
+    }
+
+    public boolean isSharded(Long productId) {
+        return slotCounts.containsKey(productId);
+    }
+
+    /**
+     * Re-read whether a product is sharded, e.g. after another instance changed it
+     */
+    @Transactional(readOnly = true)
+    public boolean refresh(Long productId) {
+        int slots = slotRepository.countSlots(productId);
+        if (slots > 0) {
+            slotCounts.put(productId, slots);
+            return true;
+        }
+        slotCounts.remove(productId);
+        return false;
+    }
+
+    /**
+     * Move a product's stock into {@code slots} slot rows (or re-split an already sharded product)
+     */
+    public Product enable(Long productId, int slots) {
+        if (slots < 2 || slots > maxSlots) {
+            throw new IllegalArgumentException("Slot count must be between 2 and " + maxSlots);
+        }
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
+
+        int total = product.getStockQuantity();
+        if (Boolean.TRUE.equals(product.getShardedStock())) {
+            total += (int) lockedTotal(productId);
+            slotRepository.deleteSlots(productId);
+            product = productRepository.findByIdForUpdate(productId).orElseThrow(IllegalStateException::new);
+        }
+
+        List<ProductStockSlot> rows = new ArrayList<>();
+        int[] quantities = spread(total, slots);
+        for (int slot = 0; slot < slots; slot++) {
+            rows.add(ProductStockSlot.builder().productId(productId).slot(slot).quantity(quantities[slot]).build());
+        }
+        slotRepository.saveAll(rows);
+
+        product.setStockQuantity(0);
+        product.setShardedStock(true);
+        Product saved = productRepository.save(product);
+        slotCounts.put(productId, slots);
+        log.info("Sharded stock enabled for product {}: {} units over {} slots", productId, total, slots);
+        return saved;
+    }
+
+    /**
+     * Fold the slots back into products.stock_quantity
+     */
+    public Product disable(Long productId) {
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
+        if (!Boolean.TRUE.equals(product.getShardedStock())) {
+            slotCounts.remove(productId);
+            return product;
+        }
+        int total = (int) lockedTotal(productId);
+        slotRepository.deleteSlots(productId);
+
+        product = productRepository.findByIdForUpdate(productId).orElseThrow(IllegalStateException::new);
+        product.setStockQuantity(product.getStockQuantity() + total);
+        product.setShardedStock(false);
+        Product saved = productRepository.save(product);
+        slotCounts.remove(productId);
+        log.info("Sharded stock disabled for product {}: {} units folded back", productId, total);
+        return saved;
+    }
+
+    /**
+     * Take {@code quantity} units from the product's slots.
+     *
+     * @return false if the product has no slots (it is not sharded), so the caller should use
+     * the single-row path
+     * @throws RuntimeException if the product is inactive or the slots together hold too little
+     */
+    public boolean decrement(Long productId, int quantity) {
+        Integer slots = slotCounts.get(productId);
+        if (slots == null) {
+            return false;
+        }
+        if (!productRepository.findActiveById(productId).orElse(false)) {
+            throw new RuntimeException("Product is not active: " + productId);
+        }
+
+        int start = ThreadLocalRandom.current().nextInt(slots);
+        for (int i = 0; i < slots; i++) {
+            if (slotRepository.decrementSlot(productId, (start + i) % slots, quantity) == 1) {
+                return true;
+            }
+        }
+        return decrementWithRebalance(productId, quantity);
+    }
+
+    /**
+     * Add {@code quantity} units to a random slot. If the slot is gone (another instance re-split
+     * or unsharded the product) the slot count is re-read and, if still sharded, tried once more.
+     *
+     * @return false if the product has no slots
+     */
+    public boolean increment(Long productId, int quantity) {
+        Integer slots = slotCounts.get(productId);
+        if (slots == null) {
+            return false;
+        }
+        int slot = ThreadLocalRandom.current().nextInt(slots);
+        if (slotRepository.incrementSlot(productId, slot, quantity) == 1) {
+            return true;
+        }
+        if (!refresh(productId)) {
+            return false;
+        }
+        slots = slotCounts.get(productId);
+        return slots != null
+                && slotRepository.incrementSlot(productId, ThreadLocalRandom.current().nextInt(slots), quantity) == 1;
+    }
+
+    /**
+     * Replace the product's total stock (admin update), spread evenly over its slots
+     */
+    public void reset(Long productId, int total) {
+        List<ProductStockSlot> locked = slotRepository.lockSlots(productId);
+        int[] quantities = spread(total, locked.size());
+        for (int i = 0; i < locked.size(); i++) {
+            locked.get(i).setQuantity(quantities[i]);
+        }
+    }
+
+    /**
+     * Total stock across all slots
+     */
+    @Transactional(readOnly = true)
+    public int total(Long productId) {
+        return (int) slotRepository.sumQuantity(productId);
+    }
+
+    /**
+     * No single slot could cover the decrement: lock all slots, take the units from the
+     * total and spread the rest evenly so drained slots are refilled
+     */
+    private boolean decrementWithRebalance(Long productId, int quantity) {
+        List<ProductStockSlot> locked = slotRepository.lockSlots(productId);
+        if (locked.isEmpty()) {
+            slotCounts.remove(productId);
+            return false;
+        }
+        int total = locked.stream().mapToInt(ProductStockSlot::getQuantity).sum();
+        if (total < quantity) {
+            throw new RuntimeException("Insufficient stock for product " + productId
+                    + ". Available: " + total + ", requested: " + quantity);
+        }
+        int[] quantities = spread(total - quantity, locked.size());
+        for (int i = 0; i < locked.size(); i++) {
+            locked.get(i).setQuantity(quantities[i]);
+        }
+        slotRepository.flush();
+        log.debug("Rebalanced {} slots of product {} after drain", locked.size(), productId);
+        return true;
+    }
+
+    private long lockedTotal(Long productId) {
+        return slotRepository.lockSlots(productId).stream().mapToLong(ProductStockSlot::getQuantity).sum();
+    }
+
+    static int[] spread(int total, int slots) {
+        int[] quantities = new int[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            quantities[slot] = total / slots + (slot < total % slots ? 1 : 0);
+        }
+        return quantities;
+    }
+}
@@ -0,0 +1,218 @@
+package com.secure.product.service;
+
+import com.secure.product.dto.StockDecrementRequest;
+import com.secure.product.dto.StockReservationDTO;
+import com.secure.product.dto.StockReservationRequest;
+import com.secure.product.entity.StockReservation;
+import com.secure.product.repository.StockReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Stock reservations: reserve holds units for an order with a TTL, confirm keeps them,
+ * release (or expiry) gives them back, and return gives back the units of cancelled orders.
+ *
+ * Reserving takes the units from the product immediately with the same conditional UPDATE
+ * as a stock decrement, so available stock never includes held units. Every status change
+ * is a conditional transition from HELD, so confirm, release and the expiry sweeper can race
+ * on the same rows without double-restocking.
+ */
+@Service
+@Slf4j
+@Transactional
+public class StockReservationService {
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Value("${product.reservations.ttl:10m}")
+    private Duration defaultTtl;
+
+    @Value("${product.reservations.max-ttl:1h}")
+    private Duration maxTtl;
+
+    /**
+     * Hold stock for every item of an order, all-or-nothing.
+     * Idempotent per order: a repeated request returns the existing reservation.
+     */
+    public StockReservationDTO reserve(StockReservationRequest request) {
+        List<StockReservation> existing = reservationRepository.findByOrderId(request.getOrderId());
+        if (!existing.isEmpty()) {
+            log.info("Reservation for order {} already exists", request.getOrderId());
+            return toDTO(request.getOrderId(), existing);
+        }
+
+        Duration ttl = request.getTtlSeconds() == null ? defaultTtl : Duration.ofSeconds(request.getTtlSeconds());
+        if (ttl.compareTo(maxTtl) > 0) {
+            ttl = maxTtl;
+        }
+        log.info("Reserving stock for order {} ({} items, ttl={})", request.getOrderId(),
+                request.getItems().size(), ttl);
+
+        productService.decrementStockBatch(request.getItems());
+
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (StockDecrementRequest.Item item : request.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+        List<StockReservation> reservations = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            reservations.add(StockReservation.builder()
+                    .orderId(request.getOrderId())
+                    .productId(entry.getKey())
+                    .quantity(entry.getValue())
+                    .status(StockReservation.HELD)
+                    .expiresAt(expiresAt)
+                    .build());
+        }
+        return toDTO(request.getOrderId(), reservationRepository.saveAll(reservations));
+    }
+
+    /**
+     * Finalize the held units of an order. Fails if any line has already been released or expired.
+     */
+    public StockReservationDTO confirm(Long orderId) {
+        log.info("Confirming reservation for order {}", orderId);
+        List<StockReservation> reservations = findReservations(orderId);
+        LocalDateTime now = LocalDateTime.now();
+        for (StockReservation reservation : reservations) {
+            if (StockReservation.CONFIRMED.equals(reservation.getStatus())) {
+                continue;
+            }
+            if (!StockReservation.HELD.equals(reservation.getStatus())
+                    || reservationRepository.transition(reservation.getId(), StockReservation.HELD,
+                    StockReservation.CONFIRMED, now) == 0) {
+                throw new RuntimeException("Reservation for order " + orderId + " is no longer held");
+            }
+        }
+        return toDTO(orderId, reservationRepository.findByOrderId(orderId));
+    }
+
+    /**
+     * Give back the units still held for an order. Confirmed lines are left alone.
+     */
+    public StockReservationDTO release(Long orderId) {
+        log.info("Releasing reservation for order {}", orderId);
+        List<StockReservation> reservations = findReservations(orderId);
+        restock(reservations, StockReservation.RELEASED);
+        return toDTO(orderId, reservationRepository.findByOrderId(orderId));
+    }
+
+    /**
+     * Give back the stock of cancelled orders in one batch: confirmed lines become RETURNED and
+     * lines still held become RELEASED, with a single stock increment per product for the whole
+     * batch. Lines already returned, released or expired are skipped, so redelivering a batch
+     * restocks nothing twice; orders without a reservation are ignored.
+     *
+     * @return units given back per product
+     */
+    public Map<Long, Integer> returnStock(Collection<Long> orderIds) {
+        log.info("Returning stock of {} cancelled orders", orderIds.size());
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (StockReservation reservation : reservationRepository.findByOrderIdIn(orderIds)) {
+            String to = StockReservation.HELD.equals(reservation.getStatus()) ? StockReservation.RELEASED
+                    : StockReservation.CONFIRMED.equals(reservation.getStatus()) ? StockReservation.RETURNED
+                    : null;
+            if (to != null && reservationRepository.transition(reservation.getId(), reservation.getStatus(), to, now) == 1) {
+                quantities.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+            }
+        }
+        if (!quantities.isEmpty()) {
+            productService.restoreStock(quantities);
+        }
+        return quantities;
+    }
+
+    @Transactional(readOnly = true)
+    public StockReservationDTO getReservation(Long orderId) {
+        return toDTO(orderId, findReservations(orderId));
+    }
+
+    /**
+     * Expire one batch of holds past their TTL and restock their units.
+     *
+     * @return number of expired holds found; fewer than {@code batchSize} means the backlog is drained
+     */
+    public int expireBatch(int batchSize) {
+        List<StockReservation> expired = reservationRepository.findByStatusAndExpiresAtBeforeOrderByExpiresAtAsc(
+                StockReservation.HELD, LocalDateTime.now(), PageRequest.of(0, batchSize));
+        if (!expired.isEmpty()) {
+            int restocked = restock(expired, StockReservation.EXPIRED);
+            log.info("Expired {} stock reservations", restocked);
+        }
+        return expired.size();
+    }
+
+    /**
+     * Move HELD lines to {@code status} and restock exactly the lines this call transitioned,
+     * aggregated per product
+     */
+    private int restock(List<StockReservation> reservations, String status) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Integer> quantities = new HashMap<>();
+        int transitioned = 0;
+        for (StockReservation reservation : reservations) {
+            if (StockReservation.HELD.equals(reservation.getStatus())
+                    && reservationRepository.transition(reservation.getId(), StockReservation.HELD, status, now) == 1) {
+                quantities.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+                transitioned++;
+            }
+        }
+        if (!quantities.isEmpty()) {
+            productService.restoreStock(quantities);
+        }
+        return transitioned;
+    }
+
+    private List<StockReservation> findReservations(Long orderId) {
+        List<StockReservation> reservations = reservationRepository.findByOrderId(orderId);
+        if (reservations.isEmpty()) {
+            throw new RuntimeException("Reservation not found for order: " + orderId);
+        }
+        return reservations;
+    }
+
+    /**
+     * The order-level status is HELD while any line is held, otherwise the status shared by
+     * all lines (CONFIRMED, RELEASED or EXPIRED), or MIXED
+     */
+    private StockReservationDTO toDTO(Long orderId, List<StockReservation> reservations) {
+        List<String> statuses = reservations.stream()
+                .map(StockReservation::getStatus)
+                .distinct()
+                .collect(Collectors.toList());
+        String status = statuses.contains(StockReservation.HELD) ? StockReservation.HELD
+                : statuses.size() == 1 ? statuses.get(0) : "MIXED";
+        return StockReservationDTO.builder()
+                .orderId(orderId)
+                .status(status)
+                .expiresAt(reservations.get(0).getExpiresAt())
+                .lines(reservations.stream()
+                        .map(r -> StockReservationDTO.Line.builder()
+                                .productId(r.getProductId())
+                                .quantity(r.getQuantity())
+                                .status(r.getStatus())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.secure.product.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background sweeper that frees stock held by expired reservations.
+ * Each batch runs in its own transaction so a large backlog never holds locks for long;
+ * conditional status transitions make it safe to run on every replica.
+ */
+@Component
+@Slf4j
+public class StockReservationSweeper {
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Value("${product.reservations.sweep-batch-size:100}")
+    private int batchSize;
+
+    @Value("${product.reservations.sweep-max-batches:50}")
+    private int maxBatches;
+
+    @Scheduled(fixedDelayString = "${product.reservations.sweep-interval-ms:30000}",
+            initialDelayString = "${product.reservations.sweep-interval-ms:30000}")
+    public void sweep() {
+        try {
+            for (int batch = 0; batch < maxBatches; batch++) {
+                if (reservationService.expireBatch(batchSize) < batchSize) {
+                    return;
+                }
+            }
+            log.warn("Reservation sweep stopped after {} batches; the rest is left for the next run", maxBatches);
+        } catch (RuntimeException e) {
+            log.error("Reservation sweep failed: {}", e.getMessage(), e);
+        }
+    }
+}
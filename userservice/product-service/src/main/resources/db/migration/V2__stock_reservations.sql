@@ -0,0 +1,17 @@
+-- Product Service - Stock reservations
+-- Units held for an order until confirmed, released or expired
+
+CREATE TABLE stock_reservations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    order_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_stock_reservations_order_product UNIQUE (order_id, product_id)
+);
+
+-- Expiry sweeper scans held reservations by expiry time
+CREATE INDEX idx_stock_reservations_status_expires ON stock_reservations (status, expires_at);
@@ -0,0 +1,12 @@
+-- Product Service - Sharded stock
+-- Opt-in per product: stock is split across slot rows that are decremented independently
+
+ALTER TABLE products ADD COLUMN sharded_stock BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE TABLE product_stock_slots (
+    product_id BIGINT NOT NULL,
+    slot INT NOT NULL,
+    quantity INT NOT NULL,
+    PRIMARY KEY (product_id, slot),
+    CONSTRAINT fk_product_stock_slots_product FOREIGN KEY (product_id) REFERENCES products (id) ON DELETE CASCADE
+);
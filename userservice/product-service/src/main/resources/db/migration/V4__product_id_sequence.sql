@@ -0,0 +1,12 @@
+-- Product Service - Sequence-generated product ids
+-- Hibernate cannot batch inserts for IDENTITY ids, so product ids now come from a sequence
+-- that Hibernate reserves in blocks of 50 (pooled optimizer, allocationSize = INCREMENT BY).
+-- The sequence starts one block above the current maximum id: the first block handed out is
+-- (start - 49 .. start). The identity default is dropped because its values would collide
+-- with blocks reserved by Hibernate; inserts outside Hibernate must take ids from product_seq.
+
+CREATE SEQUENCE product_seq START WITH 1 INCREMENT BY 50;
+
+ALTER SEQUENCE product_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM products);
+
+ALTER TABLE products ALTER COLUMN id DROP IDENTITY;
@@ -0,0 +1,4 @@
+-- Product Service - Row versions
+-- Bumped by every write (entity updates and stock UPDATEs); used for optimistic locking and ETags
+
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,4 @@
+-- Product Service - Incremental index resync
+-- Every instance reads the products written since its last resync; keeps that a range scan
+
+CREATE INDEX idx_products_updated_at ON products(updated_at);
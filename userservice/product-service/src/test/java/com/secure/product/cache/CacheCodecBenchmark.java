@@ -0,0 +1,88 @@
+package com.secure.product.cache;
+
+import com.secure.product.dto.ProductDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode time and payload size of the legacy JSON cache format versus the Smile codec,
+ * for a single {@link ProductDTO} and a {@code List<ProductDTO>} (the "products" cache value).
+ *
+ * Run with: {@code mvn -pl product-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.secure.product.cache.CacheCodecBenchmark}
+ * Payload sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    @Param({"json", "smile"})
+    private String codecName;
+
+    @Param({"1", "100"})
+    private int products;
+
+    private CacheValueCodec codec;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JsonCacheValueCodec json = new JsonCacheValueCodec();
+        codec = "json".equals(codecName) ? json : new SmileCacheValueCodec(json).register(1, ProductDTO.class);
+
+        List<ProductDTO> list = new ArrayList<>();
+        for (int i = 0; i < products; i++) {
+            list.add(ProductDTO.builder()
+                    .id((long) i)
+                    .name("Mechanical Keyboard " + i)
+                    .description("RGB mechanical keyboard with Cherry MX switches")
+                    .price(new BigDecimal("149.99"))
+                    .stockQuantity(75)
+                    .category("Electronics")
+                    .active(true)
+                    .build());
+        }
+        value = products == 1 ? list.get(0) : list;
+        encoded = codec.encode(value);
+        System.out.printf("%n[payload] codec=%s products=%d bytes=%d%n", codecName, products, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codec.encode(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return codec.decode(encoded);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CacheCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,128 @@
+package com.secure.product.cache;
+
+import com.secure.product.dto.ProductDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmileCacheValueCodecTest {
+
+    private JsonCacheValueCodec jsonCodec;
+    private SmileCacheValueCodec smileCodec;
+    private ProductDTO product;
+
+    @BeforeEach
+    void setUp() {
+        jsonCodec = new JsonCacheValueCodec();
+        smileCodec = new SmileCacheValueCodec(jsonCodec).register(1, ProductDTO.class);
+        product = ProductDTO.builder()
+                .id(7L)
+                .name("Laptop Pro 15")
+                .description("High-performance laptop with 16GB RAM and 512GB SSD")
+                .price(new BigDecimal("1299.99"))
+                .stockQuantity(50)
+                .category("Electronics")
+                .active(true)
+                .build();
+    }
+
+    @Test
+    void roundTripsSingleValue() {
+        byte[] bytes = smileCodec.encode(product);
+
+        assertEquals(SmileCacheValueCodec.MAGIC, bytes[0]);
+        assertEquals(product, smileCodec.decode(bytes));
+        assertTrue(bytes.length < jsonCodec.encode(product).length);
+    }
+
+    @Test
+    void roundTripsListsIncludingEmpty() {
+        ProductDTO other = ProductDTO.builder().id(8L).name("Wireless Mouse").price(new BigDecimal("29.99")).build();
+        List<ProductDTO> products = Arrays.asList(product, other);
+
+        assertEquals(products, smileCodec.decode(smileCodec.encode(products)));
+        assertEquals(new ArrayList<>(), smileCodec.decode(smileCodec.encode(new ArrayList<>())));
+    }
+
+    @Test
+    void readsLegacyJsonEntries() {
+        byte[] legacy = jsonCodec.encode(product);
+
+        assertEquals(product, smileCodec.decode(legacy));
+    }
+
+    @Test
+    void fallsBackToJsonForUnregisteredTypes() {
+        Map<String, Integer> counts = new HashMap<>();
+        counts.put("Electronics", 5);
+
+        byte[] bytes = smileCodec.encode(counts);
+
+        assertNotEquals(SmileCacheValueCodec.MAGIC, bytes[0]);
+        assertEquals(counts, smileCodec.decode(bytes));
+    }
+
+    @Test
+    void treatsNewerFormatVersionAndUnknownTagsAsMiss() {
+        byte[] newer = smileCodec.encode(product);
+        newer[1] = (byte) (SmileCacheValueCodec.FORMAT_VERSION + 1);
+        byte[] unknownTag = smileCodec.encode(product);
+        unknownTag[2] = 42;
+
+        assertNull(smileCodec.decode(newer));
+        assertNull(smileCodec.decode(unknownTag));
+    }
+
+    @Test
+    void ignoresFieldsAddedByNewerWriters() {
+        SmileCacheValueCodec newerWriter = new SmileCacheValueCodec(jsonCodec).register(1, ExtendedProduct.class);
+        ExtendedProduct extended = new ExtendedProduct();
+        extended.setId(9L);
+        extended.setName("Yoga Mat");
+        extended.setRating(4.5);
+
+        ProductDTO decoded = (ProductDTO) smileCodec.decode(newerWriter.encode(extended));
+
+        assertEquals(9L, decoded.getId());
+        assertEquals("Yoga Mat", decoded.getName());
+        assertNull(decoded.getPrice());
+    }
+
+    static class ExtendedProduct {
+        private Long id;
+        private String name;
+        private Double rating;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Double getRating() {
+            return rating;
+        }
+
+        public void setRating(Double rating) {
+            this.rating = rating;
+        }
+    }
+}
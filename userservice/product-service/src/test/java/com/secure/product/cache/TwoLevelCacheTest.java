@@ -0,0 +1,115 @@
+package com.secure.product.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class TwoLevelCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ConcurrentMapCache remoteCache = new ConcurrentMapCache("product", false);
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        TwoLevelCache cache = cache(RefreshAhead.disabled());
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> cache.get(1L, () -> {
+                    calls.incrementAndGet();
+                    loading.countDown();
+                    release.await();
+                    return "product-1";
+                })));
+            }
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("product-1", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(1, counter("cache.loads", "loaded").count());
+        assertEquals(7, counter("cache.loads", "collapsed").count());
+        assertEquals("product-1", remoteCache.get(1L).get());
+    }
+
+    @Test
+    void hotEntryIsRefreshedInTheBackgroundBeforeExpiry() throws Exception {
+        // A huge beta makes every read of a stamped entry due for refresh
+        TwoLevelCache cache = cache(new RefreshAhead(refreshExecutor, 1e12, Duration.ofMinutes(10)));
+        assertEquals("v1", cache.get(1L, () -> "v1"));
+
+        assertEquals("v1", cache.get(1L, () -> "v2"));
+        refreshExecutor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+
+        assertEquals("v2", cache.get(1L).get());
+        assertEquals("v2", remoteCache.get(1L).get());
+        assertEquals(1, counter("cache.refreshes", "success").count());
+        assertEquals(1, counter("cache.loads", "loaded").count());
+    }
+
+    @Test
+    void refreshOfAnEvictedEntryIsDiscarded() throws Exception {
+        TwoLevelCache cache = cache(new RefreshAhead(refreshExecutor, 1e12, Duration.ofMinutes(10)));
+        cache.get(1L, () -> "v1");
+        CountDownLatch release = new CountDownLatch(1);
+
+        cache.get(1L, () -> {
+            release.await();
+            return "stale";
+        });
+        cache.evict(1L);
+        release.countDown();
+        refreshExecutor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+
+        assertNull(cache.get(1L));
+        assertEquals(0, counter("cache.refreshes", "success").count());
+    }
+
+    private TwoLevelCache cache(RefreshAhead refreshAhead) {
+        CaffeineCache localCache = new CaffeineCache("product", Caffeine.newBuilder().maximumSize(100).build(), false);
+        TwoLevelCache.Metrics metrics = new TwoLevelCache.Metrics(
+                registry.counter("cache.l2.gets", "result", "hit"), registry.counter("cache.l2.gets", "result", "miss"),
+                registry.counter("cache.loads", "result", "loaded"), registry.counter("cache.loads", "result", "collapsed"),
+                registry.counter("cache.refreshes", "result", "success"),
+                registry.counter("cache.refreshes", "result", "failure"));
+        return new TwoLevelCache("product", localCache, remoteCache, mock(CacheInvalidationBus.class), metrics,
+                refreshAhead);
+    }
+
+    private Counter counter(String name, String result) {
+        return registry.counter(name, "result", result);
+    }
+}
@@ -0,0 +1,133 @@
+package com.secure.product.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.secure.common.dto.ApiResponse;
+import com.secure.product.dto.ProductDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-side cost of one poll of GET /products/{id} on H2 when the client already has the
+ * current representation: loading, mapping and serializing the product (what a 200 costs,
+ * and what a shallow ETag would still cost) versus the version/stock projection that answers
+ * If-None-Match with 304.
+ *
+ * Run with: {@code mvn -pl product-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.secure.product.controller.ConditionalGetBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConditionalGetBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:etagbench;DB_CLOSE_DELAY=-1";
+    private static final int PRODUCTS = 10_000;
+
+    @Param({"100", "1000"})
+    int descriptionLength;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Connection connection;
+    private PreparedStatement full;
+    private PreparedStatement version;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(URL);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS products");
+            statement.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL, "
+                    + "description VARCHAR(1000), price DECIMAL(10, 2) NOT NULL, stock_quantity INT NOT NULL, "
+                    + "category VARCHAR(100), active BOOLEAN NOT NULL, sharded_stock BOOLEAN NOT NULL, "
+                    + "version BIGINT NOT NULL)");
+        }
+        String description = "d".repeat(descriptionLength);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO products VALUES (?, ?, ?, 19.99, 100, 'Electronics', TRUE, FALSE, 3)")) {
+            for (long id = 1; id <= PRODUCTS; id++) {
+                insert.setLong(1, id);
+                insert.setString(2, "Product " + id);
+                insert.setString(3, description);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        full = connection.prepareStatement("SELECT id, name, description, price, stock_quantity, category, active, "
+                + "sharded_stock, version FROM products WHERE id = ?");
+        version = connection.prepareStatement(
+                "SELECT version, stock_quantity, sharded_stock FROM products WHERE id = ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public byte[] fullResponse() throws Exception {
+        full.setLong(1, randomId());
+        try (ResultSet row = full.executeQuery()) {
+            row.next();
+            ProductDTO product = ProductDTO.builder()
+                    .id(row.getLong(1))
+                    .name(row.getString(2))
+                    .description(row.getString(3))
+                    .price(row.getBigDecimal(4))
+                    .stockQuantity(row.getInt(5))
+                    .category(row.getString(6))
+                    .active(row.getBoolean(7))
+                    .version(row.getLong(9))
+                    .build();
+            return objectMapper.writeValueAsBytes(ApiResponse.builder()
+                    .success(true)
+                    .message("Product retrieved successfully")
+                    .data(product)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public boolean notModified() throws SQLException {
+        version.setLong(1, randomId());
+        try (ResultSet row = version.executeQuery()) {
+            row.next();
+            return (row.getLong(1) + "-" + row.getInt(2)).equals("3-100");
+        }
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, PRODUCTS + 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConditionalGetBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
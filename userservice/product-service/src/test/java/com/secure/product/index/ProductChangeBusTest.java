@@ -0,0 +1,73 @@
+package com.secure.product.index;
+
+import com.secure.product.dto.ProductDTO;
+import com.secure.product.event.ProductChangedEvent;
+import com.secure.product.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductChangeBusTest {
+
+    private static final String CHANNEL = "product:index-changes";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ProductService productService;
+
+    @InjectMocks
+    private ProductChangeBus productChangeBus;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productChangeBus, "channel", CHANNEL);
+    }
+
+    @Test
+    void publishesCommittedChangesAndIgnoresItsOwnMessages() {
+        productChangeBus.onProductChanged(ProductChangedEvent.upserted(ProductDTO.builder().id(5L).build()));
+
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), body.capture());
+        productChangeBus.onMessage(message(body.getValue()), null);
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void reindexesProductsChangedOnAnotherInstance() {
+        productChangeBus.onMessage(message("{\"origin\":\"peer\",\"productId\":7}"), null);
+
+        verify(productService).reindex(Collections.singletonList(7L));
+    }
+
+    @Test
+    void ignoresMalformedMessagesAndSwallowsPublishFailures() {
+        productChangeBus.onMessage(message("not json"), null);
+        doThrow(new IllegalStateException("redis down")).when(redisTemplate).convertAndSend(any(), any());
+
+        assertDoesNotThrow(() -> productChangeBus.onProductChanged(ProductChangedEvent.deleted(3L)));
+        verifyNoInteractions(productService);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
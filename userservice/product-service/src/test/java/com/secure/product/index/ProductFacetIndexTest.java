@@ -0,0 +1,96 @@
+package com.secure.product.index;
+
+import com.secure.product.dto.ProductDTO;
+import com.secure.product.dto.ProductFacetsResponse;
+import com.secure.product.event.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductFacetIndexTest {
+
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductFacetIndex("25,50,100,500");
+        index.load(Arrays.asList(
+                product(1L, "Electronics", "1299.99", true),
+                product(2L, "Electronics", "29.99", true),
+                product(3L, "Books", "19.99", true),
+                product(4L, "Books", "45.00", false),
+                product(5L, "Sports", "24.99", true)));
+    }
+
+    @Test
+    void labelsPriceBandsFromBoundaries() {
+        assertEquals("0-25", index.priceBand(new BigDecimal("24.99")));
+        assertEquals("25-50", index.priceBand(new BigDecimal("25")));
+        assertEquals("500+", index.priceBand(new BigDecimal("1299.99")));
+    }
+
+    @Test
+    void countsEachFacetAgainstTheOtherFilters() {
+        ProductFacetsResponse facets = index.facets(
+                Collections.singletonList("Books"), null, true, 0, 20);
+
+        assertEquals(1, facets.getTotal());
+        assertEquals(Arrays.asList(3L), ids(facets.getProducts()));
+        assertEquals(Long.valueOf(2), facets.getCategories().get("Electronics"));
+        assertEquals(Long.valueOf(1), facets.getCategories().get("Books"));
+        assertEquals(Long.valueOf(1), facets.getPriceBands().get("0-25"));
+        assertEquals(Long.valueOf(0), facets.getPriceBands().get("25-50"));
+        assertEquals(Long.valueOf(1), facets.getActive().get("true"));
+        assertEquals(Long.valueOf(1), facets.getActive().get("false"));
+    }
+
+    @Test
+    void orsValuesWithinAFacetAndPages() {
+        ProductFacetsResponse facets = index.facets(
+                Arrays.asList("Books", "Sports"), Arrays.asList("0-25", "25-50"), null, 1, 2);
+
+        assertEquals(3, facets.getTotal());
+        assertEquals(Arrays.asList(5L), ids(facets.getProducts()));
+    }
+
+    @Test
+    void rejectsUnknownPriceBand() {
+        assertThrows(IllegalArgumentException.class,
+                () -> index.facets(null, Collections.singletonList("1-2"), null, 0, 20));
+    }
+
+    @Test
+    void movesProductsBetweenBitmapsOnUpdateAndDelete() {
+        index.onProductChanged(ProductChangedEvent.upserted(product(2L, "Sports", "29.99", false)));
+        index.onProductChanged(ProductChangedEvent.deleted(5L));
+        index.onProductChanged(ProductChangedEvent.upserted(product(6L, "Toys", "9.99", true)));
+
+        assertEquals(Arrays.asList(1L), ids(index.findByCategory("Electronics")));
+        assertEquals(Arrays.asList(2L), ids(index.findByCategory("Sports")));
+        assertEquals(Arrays.asList(6L), ids(index.findByCategory("Toys")));
+        assertEquals(5, index.size());
+        assertEquals(Long.valueOf(2), index.facets(null, null, null, 0, 20).getActive().get("false"));
+    }
+
+    private static List<Long> ids(List<ProductDTO> products) {
+        return products.stream().map(ProductDTO::getId).collect(Collectors.toList());
+    }
+
+    private static ProductDTO product(Long id, String category, String price, boolean active) {
+        return ProductDTO.builder()
+                .id(id)
+                .name("Product " + id)
+                .category(category)
+                .price(new BigDecimal(price))
+                .stockQuantity(10)
+                .active(active)
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.secure.product.index;
+
+import com.secure.product.dto.ProductDTO;
+import com.secure.product.event.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.load(Arrays.asList(
+                product(1L, "Laptop Pro 15", "High-performance laptop with 16GB RAM", "Electronics"),
+                product(2L, "Laptop Sleeve", "Neoprene sleeve", "Accessories"),
+                product(3L, "Wireless Mouse", "Ergonomic mouse for laptop users", "Electronics"),
+                product(4L, "Yoga Mat", "Non-slip exercise mat", "Sports")));
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        assertEquals(Arrays.asList(1L, 2L, 3L), ids(index.search("laptop", 10)));
+    }
+
+    @Test
+    void requiresEveryQueryTerm() {
+        assertEquals(Arrays.asList(1L), ids(index.search("laptop electronics ram", 10)));
+        assertTrue(index.search("laptop yoga", 10).isEmpty());
+    }
+
+    @Test
+    void matchesPrefixInfixAndTypos() {
+        assertEquals(Arrays.asList(3L), ids(index.search("wirel", 10)));
+        assertEquals(Arrays.asList(4L), ids(index.search("xercise", 10)));
+        assertEquals(Arrays.asList(3L), ids(index.search("wireles mouce", 10)));
+    }
+
+    @Test
+    void appliesUpdatesAndDeletesFromEvents() {
+        index.onProductChanged(ProductChangedEvent.upserted(
+                product(4L, "Travel Yoga Mat", "Foldable mat", "Sports")));
+        index.onProductChanged(ProductChangedEvent.deleted(2L));
+
+        assertEquals(Arrays.asList(4L), ids(index.search("travel", 10)));
+        assertTrue(index.search("exercise", 10).isEmpty());
+        assertTrue(index.search("sleeve", 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void olderCopyNeverReplacesANewerOne() {
+        ProductDTO renamed = product(4L, "Travel Yoga Mat", "Foldable mat", "Sports");
+        renamed.setVersion(2L);
+        ProductDTO stale = product(4L, "Yoga Mat", "Non-slip exercise mat", "Sports");
+        stale.setVersion(1L);
+
+        index.onProductChanged(ProductChangedEvent.upserted(renamed));
+        index.load(Arrays.asList(stale));
+
+        assertEquals(Arrays.asList(4L), ids(index.search("travel", 10)));
+        assertTrue(index.search("exercise", 10).isEmpty());
+    }
+
+    @Test
+    void staleCopyDoesNotBringADeletedProductBack() {
+        index.onProductChanged(ProductChangedEvent.deleted(2L));
+        index.load(Arrays.asList(product(2L, "Laptop Sleeve", "Neoprene sleeve", "Accessories")));
+
+        assertTrue(index.search("sleeve", 10).isEmpty());
+    }
+
+    @Test
+    void honoursLimit() {
+        assertEquals(1, index.search("laptop", 1).size());
+    }
+
+    private static List<Long> ids(List<ProductDTO> products) {
+        return products.stream().map(ProductDTO::getId).collect(Collectors.toList());
+    }
+
+    private static ProductDTO product(Long id, String name, String description, String category) {
+        return ProductDTO.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .category(category)
+                .price(new BigDecimal("10.00"))
+                .stockQuantity(5)
+                .active(true)
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.secure.product.index;
+
+import com.secure.product.dto.ProductDTO;
+import com.secure.product.event.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockAvailabilityIndexTest {
+
+    private StockAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new StockAvailabilityIndex();
+        index.load(Arrays.asList(product(1L, 5, 1L), product(2L, 3, 1L)));
+    }
+
+    @Test
+    void followsEventsAndReportsInactiveProductsAsEmpty() {
+        ProductDTO inactive = product(2L, 3, 2L);
+        inactive.setActive(false);
+
+        index.onProductChanged(ProductChangedEvent.upserted(product(1L, 4, 2L)));
+        index.onProductChanged(ProductChangedEvent.upserted(inactive));
+
+        assertTrue(index.isReady());
+        assertEquals(4, index.getAvailable(1L));
+        assertEquals(0, index.getAvailable(2L));
+        assertNull(index.getAvailable(3L));
+    }
+
+    @Test
+    void reloadKeepsChangesNewerThanItsSnapshot() {
+        index.onProductChanged(ProductChangedEvent.upserted(product(1L, 2, 3L)));
+
+        index.load(Arrays.asList(product(1L, 5, 2L), product(2L, 1, 2L)));
+
+        assertEquals(2, index.getAvailable(1L));
+        assertEquals(1, index.getAvailable(2L));
+    }
+
+    @Test
+    void reloadDoesNotBringADeletedProductBack() {
+        index.onProductChanged(ProductChangedEvent.deleted(1L));
+
+        index.load(Collections.singletonList(product(1L, 5, 1L)));
+
+        assertNull(index.getAvailable(1L));
+    }
+
+    @Test
+    void reloadNeverEmptiesTheIndex() {
+        index.load(Collections.singletonList(product(3L, 7, 1L)));
+
+        assertEquals(5, index.getAvailable(1L));
+        assertEquals(7, index.getAvailable(3L));
+    }
+
+    private static ProductDTO product(Long id, int stock, long version) {
+        return ProductDTO.builder()
+                .id(id)
+                .stockQuantity(stock)
+                .active(true)
+                .version(version)
+                .build();
+    }
+}
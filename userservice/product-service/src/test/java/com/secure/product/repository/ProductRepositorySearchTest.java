@@ -0,0 +1,63 @@
+package com.secure.product.repository;
+
+import com.secure.product.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The database fallback of GET /products/search, against the migrated schema
+ */
+@DataJpaTest(properties = "spring.cloud.config.enabled=false")
+class ProductRepositorySearchTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.saveAll(Arrays.asList(
+                product("Zephyr Lamp", "Desk lamp", "Lighting"),
+                product("Reading Light", "Clip-on, as bright as a ZEPHYR lamp", "Lighting"),
+                product("Fan", "Quiet desk fan", "Zephyr Home"),
+                product("Kettle", "Boils water", "Kitchen")));
+    }
+
+    @Test
+    void matchesNameDescriptionAndCategoryIgnoringCase() {
+        assertEquals(Arrays.asList("Fan", "Reading Light", "Zephyr Lamp"), names(productRepository.search("zephyr", 10)));
+    }
+
+    @Test
+    void readsOnlyTheLimitInNameOrder() {
+        assertEquals(Arrays.asList("Fan", "Reading Light"), names(productRepository.search("zephyr", 2)));
+    }
+
+    @Test
+    void likeWildcardsInTheTermAreLiteral() {
+        assertTrue(productRepository.search("zephyr%lamp", 10).isEmpty());
+    }
+
+    private static List<String> names(List<Product> products) {
+        return products.stream().map(Product::getName).collect(Collectors.toList());
+    }
+
+    private static Product product(String name, String description, String category) {
+        return Product.builder()
+                .name(name)
+                .description(description)
+                .price(BigDecimal.TEN)
+                .stockQuantity(5)
+                .category(category)
+                .active(true)
+                .build();
+    }
+}
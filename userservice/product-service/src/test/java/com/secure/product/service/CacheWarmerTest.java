@@ -0,0 +1,110 @@
+package com.secure.product.service;
+
+import com.secure.product.dto.ProductBatchResponse;
+import com.secure.product.dto.ProductDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmerTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProductAccessTracker accessTracker;
+
+    @InjectMocks
+    private CacheWarmer cacheWarmer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cacheWarmer, "enabled", true);
+        ReflectionTestUtils.setField(cacheWarmer, "timeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(cacheWarmer, "threads", 2);
+        ReflectionTestUtils.setField(cacheWarmer, "topProducts", 10);
+        ReflectionTestUtils.setField(cacheWarmer, "productIds", "7, 1");
+        cacheWarmer.parseProductIds();
+    }
+
+    @Test
+    void warmsConfiguredAndMostReadProductsThenReportsReady() {
+        when(accessTracker.topProductIds(10)).thenReturn(Arrays.asList(1L, 2L));
+        when(productService.getProductsByIds(Arrays.asList(7L, 1L, 2L))).thenReturn(batch(7L, 1L, 2L));
+        assertEquals(Status.OUT_OF_SERVICE, cacheWarmer.health().getStatus());
+
+        cacheWarmer.warmUp();
+
+        verify(productService).getAllProducts();
+        assertEquals(CacheWarmer.State.COMPLETED, cacheWarmer.getState());
+        assertEquals(Status.UP, cacheWarmer.health().getStatus());
+        assertEquals(3, cacheWarmer.health().getDetails().get("products"));
+    }
+
+    @Test
+    void reportsReadyWhenWarmUpTimesOut() {
+        ReflectionTestUtils.setField(cacheWarmer, "timeout", Duration.ofMillis(200));
+        when(accessTracker.topProductIds(10)).thenReturn(Collections.emptyList());
+        when(productService.getProductsByIds(anyList())).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return batch();
+        });
+
+        cacheWarmer.warmUp();
+
+        assertEquals(CacheWarmer.State.TIMED_OUT, cacheWarmer.getState());
+        assertEquals(Status.UP, cacheWarmer.health().getStatus());
+    }
+
+    @Test
+    void reportsReadyWhenWarmUpFailsOutsideAStep() {
+        when(accessTracker.topProductIds(10)).thenThrow(new IllegalStateException("tracker unavailable"));
+
+        cacheWarmer.warmUp();
+
+        assertEquals(CacheWarmer.State.FAILED, cacheWarmer.getState());
+        assertEquals(Status.UP, cacheWarmer.health().getStatus());
+    }
+
+    @Test
+    void completesWhenAWarmUpStepThrows() {
+        when(accessTracker.topProductIds(10)).thenReturn(Collections.emptyList());
+        when(productService.getProductsByIds(anyList())).thenThrow(new RuntimeException("database down"));
+
+        cacheWarmer.warmUp();
+
+        assertEquals(CacheWarmer.State.COMPLETED, cacheWarmer.getState());
+        assertEquals(Status.UP, cacheWarmer.health().getStatus());
+    }
+
+    @Test
+    void rejectsMalformedConfiguredIdsAtStartup() {
+        ReflectionTestUtils.setField(cacheWarmer, "productIds", "7, x1");
+
+        assertThrows(IllegalStateException.class, () -> cacheWarmer.parseProductIds());
+    }
+
+    private static ProductBatchResponse batch(Long... ids) {
+        Map<Long, ProductDTO> products = new LinkedHashMap<>();
+        for (Long id : ids) {
+            products.put(id, ProductDTO.builder().id(id).build());
+        }
+        return ProductBatchResponse.builder().products(products).notFound(List.of()).build();
+    }
+}
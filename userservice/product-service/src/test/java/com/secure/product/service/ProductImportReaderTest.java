@@ -0,0 +1,65 @@
+package com.secure.product.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductImportReaderTest {
+
+    @Test
+    void csvReadsRowsByHeaderAndReportsBadValuesPerLine() throws IOException {
+        String csv = "name,price,stockQuantity,category,sku\n"
+                + "Desk, 99.50 ,3,Home & Garden,X1\n"
+                + "Lamp,cheap,1,Home & Garden,X2\n"
+                + "\"Chair, oak\",45,,Home & Garden,X3\n";
+        try (ProductImportReader reader = ProductImportReader.csv(stream(csv))) {
+            assertTrue(reader.next());
+            assertEquals(2, reader.line());
+            assertEquals("Desk", reader.row().getName());
+            assertEquals(new BigDecimal("99.50"), reader.row().getPrice());
+
+            assertTrue(reader.next());
+            assertEquals(3, reader.line());
+            assertNull(reader.row());
+            assertTrue(reader.error().startsWith("Invalid value for price"), reader.error());
+
+            assertTrue(reader.next());
+            assertEquals(4, reader.line());
+            assertEquals("Chair, oak", reader.row().getName());
+            assertNull(reader.row().getStockQuantity());
+
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void ndjsonSkipsBlankLinesAndSurvivesMalformedLines() throws IOException {
+        String ndjson = "{\"name\":\"Pen\",\"price\":1.5,\"stockQuantity\":10}\n"
+                + "\n"
+                + "{\"name\":\"Broken\",\n"
+                + "{\"name\":\"Ink\",\"price\":3,\"stockQuantity\":4,\"extra\":true}\n";
+        try (ProductImportReader reader = ProductImportReader.ndjson(stream(ndjson))) {
+            assertTrue(reader.next());
+            assertEquals("Pen", reader.row().getName());
+
+            assertTrue(reader.next());
+            assertEquals(3, reader.line());
+            assertNotNull(reader.error());
+
+            assertTrue(reader.next());
+            assertEquals(4, reader.line());
+            assertEquals(Integer.valueOf(4), reader.row().getStockQuantity());
+
+            assertFalse(reader.next());
+        }
+    }
+
+    private static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,90 @@
+package com.secure.product.service;
+
+import com.secure.product.dto.ProductImportResult;
+import com.secure.product.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @InjectMocks
+    private ProductImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+        ReflectionTestUtils.setField(importService, "maxErrors", 1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importsValidRowsInChunksAndReportsInvalidOnes() throws IOException {
+        when(productService.importProducts(anyList())).thenAnswer(invocation -> ((List<Product>) invocation.getArgument(0)).size());
+        String csv = "name,price,stockQuantity\n"
+                + "A,1,1\n"
+                + ",2,2\n"
+                + "B,3,3\n"
+                + "C,-1,1\n"
+                + "D,4,4\n";
+
+        ProductImportResult result = importService.importProducts(stream(csv), ProductImportService.Format.CSV);
+
+        verify(productService, times(2)).importProducts(anyList());
+        assertEquals(5, result.getRows());
+        assertEquals(3, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(3, result.getErrors().get(0).getLine());
+        assertTrue(result.isErrorsTruncated());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void retriesARejectedChunkRowByRow() throws IOException {
+        when(productService.importProducts(anyList())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            if (products.stream().anyMatch(product -> product.getName().length() > 5)) {
+                throw new DataIntegrityViolationException("Value too long for column NAME");
+            }
+            return products.size();
+        });
+        String ndjson = "{\"name\":\"TooLongName\",\"price\":1,\"stockQuantity\":1}\n"
+                + "{\"name\":\"Ok\",\"price\":1,\"stockQuantity\":1}\n";
+
+        ProductImportResult result = importService.importProducts(stream(ndjson), ProductImportService.Format.NDJSON);
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getErrors().get(0).getLine());
+        verify(productService, times(3)).importProducts(anyList());
+    }
+
+    private static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
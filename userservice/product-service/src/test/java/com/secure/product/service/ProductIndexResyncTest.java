@@ -0,0 +1,103 @@
+package com.secure.product.service;
+
+import com.secure.product.entity.Product;
+import com.secure.product.event.ProductChangedEvent;
+import com.secure.product.index.ProductFacetIndex;
+import com.secure.product.index.ProductSearchIndex;
+import com.secure.product.index.StockAvailabilityIndex;
+import com.secure.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductIndexResyncTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockAvailabilityIndex stockAvailabilityIndex;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductFacetIndex productFacetIndex;
+
+    @Mock
+    private ShardedStockService shardedStockService;
+
+    @InjectMocks
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productService, "searchIndexEnabled", true);
+        ReflectionTestUtils.setField(productService, "facetIndexEnabled", true);
+        ReflectionTestUtils.setField(productService, "resyncOverlap", Duration.ofMinutes(1));
+    }
+
+    @Test
+    void resyncWaitsForTheFirstLoad() {
+        productService.resyncIndexes();
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void resyncReadsOnlyProductsWrittenSinceTheLastOneAndSharded() {
+        LocalDateTime loaded = LocalDateTime.now();
+        when(productRepository.findAll()).thenReturn(Collections.singletonList(product(1L)));
+        productService.buildIndexes();
+        verify(stockAvailabilityIndex).load(any());
+
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        when(productRepository.findIdsUpdatedAfter(since.capture())).thenReturn(Arrays.asList(2L, 3L));
+        when(productRepository.findShardedStockIds()).thenReturn(Collections.singletonList(2L));
+        when(productRepository.findAllById(Arrays.asList(2L, 3L))).thenReturn(Collections.singletonList(product(2L)));
+
+        productService.resyncIndexes();
+
+        assertFalse(since.getValue().isAfter(loaded.minusMinutes(1).plusSeconds(5)));
+        assertFalse(since.getValue().isBefore(loaded.minusMinutes(1).minusSeconds(5)));
+        ArgumentCaptor<ProductChangedEvent> events = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(stockAvailabilityIndex, times(2)).onProductChanged(events.capture());
+        List<ProductChangedEvent> applied = events.getAllValues();
+        assertEquals(2L, applied.get(0).getProductId());
+        assertFalse(applied.get(0).isDeleted());
+        assertEquals(3L, applied.get(1).getProductId());
+        assertTrue(applied.get(1).isDeleted());
+        verify(productSearchIndex, times(2)).onProductChanged(any());
+        verify(productFacetIndex, times(2)).onProductChanged(any());
+        verify(productRepository, times(1)).findAll();
+    }
+
+    private static Product product(Long id) {
+        return Product.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(BigDecimal.TEN)
+                .stockQuantity(5)
+                .category("Books")
+                .active(true)
+                .version(1L)
+                .build();
+    }
+}
@@ -0,0 +1,117 @@
+package com.secure.product.service;
+
+import com.secure.product.dto.ProductBatchResponse;
+import com.secure.product.dto.ProductDTO;
+import com.secure.product.entity.Product;
+import com.secure.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceBatchTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private ShardedStockService shardedStockService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ProductService productService;
+
+    private final ConcurrentMapCache productCache = new ConcurrentMapCache("product");
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productService, "batchMaxIds", 3);
+        lenient().when(cacheManager.getCache("product")).thenReturn(productCache);
+    }
+
+    @Test
+    void batchServesCacheHitsAndLoadsAllMissesInOneQuery() {
+        productCache.put(1L, ProductDTO.builder().id(1L).name("cached").build());
+        when(productRepository.findAllById(Arrays.asList(3L, 2L)))
+                .thenReturn(Collections.singletonList(product(2L)));
+
+        ProductBatchResponse batch = productService.getProductsByIds(Arrays.asList(3L, 1L, 2L, 1L));
+
+        verify(productRepository).findAllById(Arrays.asList(3L, 2L));
+        assertEquals(Arrays.asList(1L, 2L), List.copyOf(batch.getProducts().keySet()));
+        assertEquals("cached", batch.getProducts().get(1L).getName());
+        assertEquals(Collections.singletonList(3L), batch.getNotFound());
+        assertNotNull(productCache.get(2L));
+    }
+
+    @Test
+    void batchSkipsTheDatabaseWhenEverythingIsCached() {
+        productCache.put(1L, ProductDTO.builder().id(1L).build());
+
+        ProductBatchResponse batch = productService.getProductsByIds(Collections.singletonList(1L));
+
+        verifyNoInteractions(productRepository);
+        assertTrue(batch.getNotFound().isEmpty());
+    }
+
+    @Test
+    void batchRejectsTooManyIds() {
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.getProductsByIds(Arrays.asList(1L, 2L, 3L, 4L)));
+    }
+
+    @Test
+    void restoreUsesTheSlotsOfAProductShardedByAnotherInstance() {
+        when(shardedStockService.increment(1L, 4)).thenReturn(false, true);
+        when(productRepository.incrementStock(eq(1L), eq(4), any())).thenReturn(0);
+        when(shardedStockService.refresh(1L)).thenReturn(true);
+
+        productService.restoreStock(Map.of(1L, 4));
+
+        verify(shardedStockService, times(2)).increment(1L, 4);
+        verify(productRepository).incrementStock(eq(1L), eq(4), any());
+    }
+
+    @Test
+    void restoreUpdatesTheRowOfAnUnshardedProduct() {
+        when(productRepository.incrementStock(eq(2L), eq(3), any())).thenReturn(1);
+
+        productService.restoreStock(Map.of(2L, 3));
+
+        verify(shardedStockService, never()).refresh(2L);
+    }
+
+    private static Product product(Long id) {
+        return Product.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(BigDecimal.TEN)
+                .stockQuantity(5)
+                .category("Books")
+                .active(true)
+                .build();
+    }
+}
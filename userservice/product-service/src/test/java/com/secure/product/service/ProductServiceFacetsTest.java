@@ -0,0 +1,57 @@
+package com.secure.product.service;
+
+import com.secure.product.dto.ProductFacetsResponse;
+import com.secure.product.index.ProductFacetIndex;
+import com.secure.product.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceFacetsTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductFacetIndex productFacetIndex;
+
+    @InjectMocks
+    private ProductService productService;
+
+    @Test
+    void servedFromTheIndexOnceReady() {
+        ReflectionTestUtils.setField(productService, "facetIndexEnabled", true);
+        ProductFacetsResponse facets = ProductFacetsResponse.builder().build();
+        when(productFacetIndex.isReady()).thenReturn(true);
+        when(productFacetIndex.facets(Collections.singletonList("Books"), null, true, 0, 20)).thenReturn(facets);
+
+        assertSame(facets, productService.getFacets(Collections.singletonList("Books"), null, true, 0, 20));
+    }
+
+    @Test
+    void unavailableWhileTheIndexIsBuildingWithoutScanningTheTable() {
+        ReflectionTestUtils.setField(productService, "facetIndexEnabled", true);
+        when(productFacetIndex.isReady()).thenReturn(false);
+
+        assertThrows(IllegalStateException.class, () -> productService.getFacets(null, null, null, 0, 20));
+
+        verify(productFacetIndex, never()).facets(any(), any(), any(), anyInt(), anyInt());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void unavailableWhileTheIndexIsDisabled() {
+        assertThrows(IllegalStateException.class, () -> productService.getFacets(null, null, null, 0, 20));
+
+        verifyNoInteractions(productFacetIndex, productRepository);
+    }
+}
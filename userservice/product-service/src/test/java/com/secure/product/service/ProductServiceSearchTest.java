@@ -0,0 +1,82 @@
+package com.secure.product.service;
+
+import com.secure.product.dto.ProductDTO;
+import com.secure.product.entity.Product;
+import com.secure.product.index.ProductSearchIndex;
+import com.secure.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceSearchTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @InjectMocks
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productService, "searchMaxResults", 3);
+    }
+
+    @Test
+    void indexSearchClampsTheLimitToMaxResults() {
+        ReflectionTestUtils.setField(productService, "searchIndexEnabled", true);
+        when(productSearchIndex.isReady()).thenReturn(true);
+        when(productSearchIndex.search("book", 3)).thenReturn(Collections.emptyList());
+
+        productService.searchProducts("book", 1000);
+
+        verify(productSearchIndex).search("book", 3);
+    }
+
+    @Test
+    void databaseSearchClampsTheLimitToMaxResults() {
+        when(productRepository.search("book", 3)).thenReturn(products(3));
+
+        assertEquals(3, productService.searchProducts("book", 1000).size());
+    }
+
+    @Test
+    void negativeOrZeroLimitReturnsOneResultInsteadOfFailing() {
+        when(productRepository.search("book", 1)).thenReturn(products(1));
+
+        List<ProductDTO> negative = productService.searchProducts("book", -5);
+        List<ProductDTO> zero = productService.searchProducts("book", 0);
+
+        assertEquals(1, negative.size());
+        assertEquals(1, zero.size());
+    }
+
+    private static List<Product> products(int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> Product.builder()
+                        .id(id)
+                        .name("Book " + id)
+                        .price(BigDecimal.TEN)
+                        .stockQuantity(5)
+                        .category("Books")
+                        .active(true)
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
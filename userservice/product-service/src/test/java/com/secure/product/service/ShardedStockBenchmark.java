@@ -0,0 +1,136 @@
+package com.secure.product.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Throughput of stock decrements for one hot SKU under contention on H2, single stock row
+ * versus stock sharded across slot rows.
+ *
+ * Each operation is a short order transaction: decrement stock, insert a reservation row,
+ * commit. The stock row lock is held until commit, which is what serialises a single-row SKU.
+ * {@code holdMicros} models the rest of a real order transaction (other statements, network
+ * round trips, commit flush) while the lock is held; H2 in memory has none of that and
+ * serialises commits internally, so {@code holdMicros=0} mostly measures H2 itself.
+ * {@code slots=1} is the single-row baseline; sharded runs start at a random slot and move
+ * on to the next one when a slot is short, as ShardedStockService does.
+ *
+ * Run with: {@code mvn -pl product-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.secure.product.service.ShardedStockBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class ShardedStockBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:shardbench;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+    private static final long HOT_SKU = 1L;
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        @Param({"1", "8", "16"})
+        int slots;
+
+        @Param({"0", "200"})
+        long holdMicros;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            try (Connection connection = DriverManager.getConnection(URL);
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS product_stock_slots");
+                statement.execute("DROP TABLE IF EXISTS stock_reservations");
+                statement.execute("CREATE TABLE product_stock_slots (product_id BIGINT NOT NULL, slot INT NOT NULL, "
+                        + "quantity INT NOT NULL, PRIMARY KEY (product_id, slot))");
+                statement.execute("CREATE TABLE stock_reservations (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                        + "product_id BIGINT NOT NULL, quantity INT NOT NULL)");
+                for (int slot = 0; slot < slots; slot++) {
+                    statement.execute("INSERT INTO product_stock_slots VALUES (" + HOT_SKU + ", " + slot + ", "
+                            + (Integer.MAX_VALUE / slots) + ")");
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        Connection connection;
+        PreparedStatement decrement;
+        PreparedStatement reserve;
+
+        @Setup(Level.Trial)
+        public void setUp(Database database) throws SQLException {
+            connection = DriverManager.getConnection(URL);
+            connection.setAutoCommit(false);
+            decrement = connection.prepareStatement("UPDATE product_stock_slots SET quantity = quantity - 1 "
+                    + "WHERE product_id = ? AND slot = ? AND quantity >= 1");
+            reserve = connection.prepareStatement(
+                    "INSERT INTO stock_reservations (product_id, quantity) VALUES (?, 1)");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public boolean decrement(Database database, Session session) throws SQLException {
+        int start = database.slots == 1 ? 0 : ThreadLocalRandom.current().nextInt(database.slots);
+        try {
+            for (int i = 0; i < database.slots; i++) {
+                session.decrement.setLong(1, HOT_SKU);
+                session.decrement.setInt(2, (start + i) % database.slots);
+                if (session.decrement.executeUpdate() == 1) {
+                    session.reserve.setLong(1, HOT_SKU);
+                    session.reserve.executeUpdate();
+                    if (database.holdMicros > 0) {
+                        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(database.holdMicros));
+                    }
+                    session.connection.commit();
+                    return true;
+                }
+            }
+            session.connection.rollback();
+            return false;
+        } catch (SQLException e) {
+            session.connection.rollback();
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ShardedStockBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
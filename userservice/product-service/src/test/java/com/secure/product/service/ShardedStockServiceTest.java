@@ -0,0 +1,96 @@
+package com.secure.product.service;
+
+import com.secure.product.entity.ProductStockSlot;
+import com.secure.product.repository.ProductRepository;
+import com.secure.product.repository.ProductStockSlotRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedStockServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductStockSlotRepository slotRepository;
+
+    @InjectMocks
+    private ShardedStockService shardedStockService;
+
+    @Test
+    void spreadKeepsTheTotalAndDiffersByAtMostOne() {
+        assertArrayEquals(new int[]{4, 3, 3}, ShardedStockService.spread(10, 3));
+        assertArrayEquals(new int[]{0, 0, 0, 0}, ShardedStockService.spread(0, 4));
+    }
+
+    @Test
+    void decrementLeavesUnshardedProductsToTheSingleRowPath() {
+        assertFalse(shardedStockService.decrement(1L, 1));
+        verifyNoInteractions(slotRepository);
+    }
+
+    @Test
+    void decrementRebalancesWhenNoSingleSlotHoldsEnough() {
+        when(slotRepository.countSlots(1L)).thenReturn(3);
+        shardedStockService.refresh(1L);
+        when(productRepository.findActiveById(1L)).thenReturn(Optional.of(true));
+        when(slotRepository.decrementSlot(eq(1L), anyInt(), eq(5))).thenReturn(0);
+        List<ProductStockSlot> slots = Arrays.asList(slot(0, 4), slot(1, 0), slot(2, 3));
+        when(slotRepository.lockSlots(1L)).thenReturn(slots);
+
+        assertTrue(shardedStockService.decrement(1L, 5));
+
+        verify(slotRepository, times(3)).decrementSlot(eq(1L), anyInt(), eq(5));
+        assertEquals(Arrays.asList(1, 1, 0), Arrays.asList(
+                slots.get(0).getQuantity(), slots.get(1).getQuantity(), slots.get(2).getQuantity()));
+    }
+
+    @Test
+    void decrementFailsWhenAllSlotsTogetherHoldTooLittle() {
+        when(slotRepository.countSlots(1L)).thenReturn(2);
+        shardedStockService.refresh(1L);
+        when(productRepository.findActiveById(1L)).thenReturn(Optional.of(true));
+        when(slotRepository.lockSlots(1L)).thenReturn(Arrays.asList(slot(0, 1), slot(1, 1)));
+
+        assertThrows(RuntimeException.class, () -> shardedStockService.decrement(1L, 3));
+    }
+
+    @Test
+    void incrementRetriesWithTheNewSlotCountAfterAReSplitElsewhere() {
+        when(slotRepository.countSlots(1L)).thenReturn(8, 2);
+        shardedStockService.refresh(1L);
+        when(slotRepository.incrementSlot(eq(1L), anyInt(), eq(5))).thenReturn(0, 1);
+
+        assertTrue(shardedStockService.increment(1L, 5));
+
+        verify(slotRepository, times(2)).incrementSlot(eq(1L), anyInt(), eq(5));
+        assertTrue(shardedStockService.isSharded(1L));
+    }
+
+    @Test
+    void incrementFallsBackToTheRowOnceTheProductIsUnshardedElsewhere() {
+        when(slotRepository.countSlots(1L)).thenReturn(4, 0);
+        shardedStockService.refresh(1L);
+        when(slotRepository.incrementSlot(eq(1L), anyInt(), eq(5))).thenReturn(0);
+
+        assertFalse(shardedStockService.increment(1L, 5));
+
+        assertFalse(shardedStockService.isSharded(1L));
+    }
+
+    private static ProductStockSlot slot(int slot, int quantity) {
+        return ProductStockSlot.builder().productId(1L).slot(slot).quantity(quantity).build();
+    }
+}
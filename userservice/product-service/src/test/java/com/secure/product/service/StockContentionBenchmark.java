@@ -0,0 +1,164 @@
+package com.secure.product.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Many threads decrementing one hot SKU on H2: the original read-check-save sequence
+ * versus the single conditional UPDATE used by ProductService.
+ *
+ * Besides throughput, each trial prints how many successful decrements were lost
+ * (acknowledged to the caller but not reflected in the stock column).
+ *
+ * Run with: {@code mvn -pl product-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.secure.product.service.StockContentionBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class StockContentionBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:stockbench;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+    private static final int INITIAL_STOCK = Integer.MAX_VALUE;
+    private static final long HOT_SKU = 1L;
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        final AtomicLong acknowledged = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            try (Connection connection = DriverManager.getConnection(URL);
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS products");
+                statement.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, stock_quantity INT NOT NULL, "
+                        + "active BOOLEAN NOT NULL, updated_at TIMESTAMP)");
+                statement.execute("INSERT INTO products VALUES (" + HOT_SKU + ", " + INITIAL_STOCK
+                        + ", TRUE, CURRENT_TIMESTAMP)");
+            }
+            acknowledged.set(0);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            try (Connection connection = DriverManager.getConnection(URL);
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT stock_quantity FROM products WHERE id = " + HOT_SKU)) {
+                rs.next();
+                long applied = (long) INITIAL_STOCK - rs.getInt(1);
+                System.out.printf("%n[stock] acknowledged=%d applied=%d lost=%d%n",
+                        acknowledged.get(), applied, acknowledged.get() - applied);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        Connection connection;
+        PreparedStatement select;
+        PreparedStatement write;
+        PreparedStatement conditionalUpdate;
+
+        /**
+         * Takes the Database state so the table exists before statements are prepared
+         */
+        @Setup(Level.Trial)
+        public void setUp(Database database) throws SQLException {
+            connection = DriverManager.getConnection(URL);
+            select = connection.prepareStatement(
+                    "SELECT stock_quantity, active FROM products WHERE id = ?");
+            write = connection.prepareStatement(
+                    "UPDATE products SET stock_quantity = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?");
+            conditionalUpdate = connection.prepareStatement(
+                    "UPDATE products SET stock_quantity = stock_quantity - ?, updated_at = CURRENT_TIMESTAMP "
+                            + "WHERE id = ? AND active = TRUE AND stock_quantity >= ?");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    /**
+     * findById, check in Java, save: the previous decrementStock
+     */
+    @Benchmark
+    public boolean readCheckWrite(Database database, Session session) throws SQLException {
+        Connection connection = session.connection;
+        connection.setAutoCommit(false);
+        try {
+            session.select.setLong(1, HOT_SKU);
+            int stock;
+            boolean active;
+            try (ResultSet rs = session.select.executeQuery()) {
+                rs.next();
+                stock = rs.getInt(1);
+                active = rs.getBoolean(2);
+            }
+            if (!active || stock < 1) {
+                connection.rollback();
+                return false;
+            }
+            session.write.setInt(1, stock - 1);
+            session.write.setLong(2, HOT_SKU);
+            session.write.executeUpdate();
+            connection.commit();
+            database.acknowledged.incrementAndGet();
+            return true;
+        } catch (SQLException e) {
+            connection.rollback();
+            return false;
+        }
+    }
+
+    /**
+     * One conditional UPDATE, no prior read: the current decrementStock
+     */
+    @Benchmark
+    public boolean conditionalUpdate(Database database, Session session) throws SQLException {
+        session.connection.setAutoCommit(true);
+        session.conditionalUpdate.setInt(1, 1);
+        session.conditionalUpdate.setLong(2, HOT_SKU);
+        session.conditionalUpdate.setInt(3, 1);
+        boolean decremented = session.conditionalUpdate.executeUpdate() == 1;
+        if (decremented) {
+            database.acknowledged.incrementAndGet();
+        }
+        return decremented;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StockContentionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
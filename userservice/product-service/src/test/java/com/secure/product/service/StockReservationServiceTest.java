@@ -0,0 +1,144 @@
+package com.secure.product.service;
+
+import com.secure.product.dto.StockDecrementRequest;
+import com.secure.product.dto.StockReservationDTO;
+import com.secure.product.dto.StockReservationRequest;
+import com.secure.product.entity.StockReservation;
+import com.secure.product.repository.StockReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+
+    @Mock
+    private StockReservationRepository reservationRepository;
+
+    @Mock
+    private ProductService productService;
+
+    @InjectMocks
+    private StockReservationService reservationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reservationService, "defaultTtl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(reservationService, "maxTtl", Duration.ofHours(1));
+    }
+
+    @Test
+    void reserveTakesStockAndHoldsOneLinePerProduct() {
+        when(reservationRepository.findByOrderId(42L)).thenReturn(Collections.emptyList());
+        when(reservationRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        List<StockDecrementRequest.Item> items = Arrays.asList(
+                new StockDecrementRequest.Item(2L, 1), new StockDecrementRequest.Item(1L, 3),
+                new StockDecrementRequest.Item(2L, 4));
+
+        StockReservationDTO reservation = reservationService.reserve(
+                StockReservationRequest.builder().orderId(42L).ttlSeconds(7200L).items(items).build());
+
+        verify(productService).decrementStockBatch(items);
+        assertEquals(StockReservation.HELD, reservation.getStatus());
+        assertEquals(2, reservation.getLines().size());
+        assertEquals(Integer.valueOf(5), reservation.getLines().get(1).getQuantity());
+        assertTrue(reservation.getExpiresAt().isBefore(LocalDateTime.now().plusMinutes(61)));
+    }
+
+    @Test
+    void reserveIsIdempotentPerOrder() {
+        when(reservationRepository.findByOrderId(42L)).thenReturn(Collections.singletonList(line(1L, 10L, 2)));
+
+        reservationService.reserve(StockReservationRequest.builder().orderId(42L)
+                .items(Collections.singletonList(new StockDecrementRequest.Item(10L, 2))).build());
+
+        verifyNoInteractions(productService);
+        verify(reservationRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void expiryRestocksOnlyTheLinesItTransitioned() {
+        StockReservation won = line(1L, 10L, 2);
+        StockReservation lost = line(2L, 11L, 5);
+        when(reservationRepository.findByStatusAndExpiresAtBeforeOrderByExpiresAtAsc(
+                eq(StockReservation.HELD), any(), any())).thenReturn(Arrays.asList(won, lost));
+        when(reservationRepository.transition(eq(1L), eq(StockReservation.HELD), eq(StockReservation.EXPIRED), any()))
+                .thenReturn(1);
+        when(reservationRepository.transition(eq(2L), eq(StockReservation.HELD), eq(StockReservation.EXPIRED), any()))
+                .thenReturn(0);
+
+        assertEquals(2, reservationService.expireBatch(100));
+
+        verify(productService).restoreStock((Map<Long, Integer>) argThat(m -> m.equals(Map.of(10L, 2))));
+    }
+
+    @Test
+    void confirmFailsOnceAHoldHasExpired() {
+        StockReservation expired = line(1L, 10L, 2);
+        expired.setStatus(StockReservation.EXPIRED);
+        when(reservationRepository.findByOrderId(42L)).thenReturn(Collections.singletonList(expired));
+
+        assertThrows(RuntimeException.class, () -> reservationService.confirm(42L));
+        verify(reservationRepository, never()).transition(any(), any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void returnGivesBackConfirmedAndHeldLinesWithOneIncrementPerProduct() {
+        StockReservation confirmed = line(1L, 10L, 2);
+        confirmed.setStatus(StockReservation.CONFIRMED);
+        StockReservation held = line(2L, 10L, 3);
+        StockReservation alreadyReturned = line(3L, 11L, 5);
+        alreadyReturned.setStatus(StockReservation.RETURNED);
+        when(reservationRepository.findByOrderIdIn(Arrays.asList(42L, 43L)))
+                .thenReturn(Arrays.asList(confirmed, held, alreadyReturned));
+        when(reservationRepository.transition(eq(1L), eq(StockReservation.CONFIRMED), eq(StockReservation.RETURNED),
+                any())).thenReturn(1);
+        when(reservationRepository.transition(eq(2L), eq(StockReservation.HELD), eq(StockReservation.RELEASED),
+                any())).thenReturn(1);
+
+        Map<Long, Integer> returned = reservationService.returnStock(Arrays.asList(42L, 43L));
+
+        assertEquals(Map.of(10L, 5), returned);
+        verify(productService).restoreStock((Map<Long, Integer>) argThat(m -> m.equals(Map.of(10L, 5))));
+        verify(reservationRepository, never()).transition(eq(3L), any(), any(), any());
+    }
+
+    @Test
+    void returnRestocksNothingWhenLinesWereAlreadyReturned() {
+        StockReservation returned = line(1L, 10L, 2);
+        returned.setStatus(StockReservation.RETURNED);
+        when(reservationRepository.findByOrderIdIn(Collections.singletonList(42L)))
+                .thenReturn(Collections.singletonList(returned));
+
+        assertTrue(reservationService.returnStock(Collections.singletonList(42L)).isEmpty());
+        verifyNoInteractions(productService);
+    }
+
+    private static StockReservation line(Long id, Long productId, int quantity) {
+        return StockReservation.builder()
+                .id(id)
+                .orderId(42L)
+                .productId(productId)
+                .quantity(quantity)
+                .status(StockReservation.HELD)
+                .expiresAt(LocalDateTime.now().minusMinutes(1))
+                .build();
+    }
+}
@@ -5,10 +5,15 @@ import com.enterprise.social.dto.SocialProfileDTO;
 import com.enterprise.social.service.SocialService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/profiles")
@@ -29,10 +34,20 @@ public class ProfileController {
         return ResponseEntity.ok(profile);
     }
 
+    /**
+     * A matching If-None-Match is answered with 304 from the profile's version, without loading it
+     */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<SocialProfileDTO> getProfileByUserId(@PathVariable Long userId) {
+    public ResponseEntity<SocialProfileDTO> getProfileByUserId(@PathVariable Long userId,
+                                                               HttpServletRequest request) {
         log.debug("GET /api/profiles/user/{}", userId);
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<String> eTag = socialService.getProfileVersion(userId).map(String::valueOf);
+            if (eTag.isPresent() && new ServletWebRequest(request).checkNotModified(eTag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag.get()).build();
+            }
+        }
         SocialProfileDTO profile = socialService.getProfileByUserId(userId);
-        return ResponseEntity.ok(profile);
+        return ResponseEntity.ok().eTag(String.valueOf(profile.getVersion())).body(profile);
     }
 }
@@ -14,13 +14,15 @@ public class SocialProfileDTO {
     private Integer followingCount;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 
     public SocialProfileDTO() {
     }
 
     public SocialProfileDTO(Long id, Long userId, String displayName, String bio,
                             String location, String website, Integer followersCount,
-                            Integer followingCount, LocalDateTime createdAt, LocalDateTime updatedAt) {
+                            Integer followingCount, LocalDateTime createdAt, LocalDateTime updatedAt,
+                            Long version) {
         this.id = id;
         this.userId = userId;
         this.displayName = displayName;
@@ -31,6 +33,7 @@ public class SocialProfileDTO {
         this.followingCount = followingCount;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
+        this.version = version;
     }
 
     public Long getId() {
@@ -112,4 +115,12 @@ public class SocialProfileDTO {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -2,6 +2,8 @@ package com.enterprise.social.repository;
 
 import com.enterprise.social.entity.SocialProfile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,4 +12,7 @@ import java.util.Optional;
 public interface SocialProfileRepository extends JpaRepository<SocialProfile, Long> {
 
     Optional<SocialProfile> findByUserId(Long userId);
+
+    @Query("SELECT p.version FROM SocialProfile p WHERE p.userId = :userId")
+    Optional<Long> findVersionByUserId(@Param("userId") Long userId);
 }
@@ -16,6 +16,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -69,6 +70,15 @@ public class SocialService {
         return toProfileDTO(profile);
     }
 
+    /**
+     * Current version of a user's profile, without loading it; used to answer conditional GETs
+     */
+    @Transactional(readOnly = true)
+    @CircuitBreaker(name = "socialService")
+    public Optional<Long> getProfileVersion(Long userId) {
+        return profileRepository.findVersionByUserId(userId);
+    }
+
     @Transactional
     @CircuitBreaker(name = "socialService")
     public PostDTO createPost(CreatePostRequest request) {
@@ -163,7 +173,8 @@ public class SocialService {
                 profile.getFollowersCount(),
                 profile.getFollowingCount(),
                 profile.getCreatedAt(),
-                profile.getUpdatedAt()
+                profile.getUpdatedAt(),
+                profile.getVersion()
         );
     }
 
@@ -87,4 +87,28 @@ class ProfileControllerTest {
                 .andExpect(jsonPath("$.displayName").value("John Doe"))
                 .andExpect(jsonPath("$.bio").value("Hello world"));
     }
+
+    @Test
+    void getProfileByUserId_matchingETag_returns304() throws Exception {
+        SocialProfile profile = new SocialProfile();
+        profile.setUserId(2L);
+        profile.setDisplayName("Jane Doe");
+        SocialProfile saved = profileRepository.save(profile);
+
+        String eTag = mockMvc.perform(get("/api/profiles/user/2"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/profiles/user/2").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        saved.setBio("Updated");
+        profileRepository.save(saved);
+
+        mockMvc.perform(get("/api/profiles/user/2").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bio").value("Updated"));
+    }
 }
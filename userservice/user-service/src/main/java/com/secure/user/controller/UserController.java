@@ -2,24 +2,32 @@ package com.secure.user.controller;
 
 import com.secure.common.dto.ApiResponse;
 import com.secure.user.dto.UpdateProfileRequest;
+import com.secure.user.dto.UserProfileBatchRequest;
+import com.secure.user.dto.UserProfileBatchResponse;
 import com.secure.user.dto.UserProfileDTO;
 import com.secure.user.service.SecurityService;
 import com.secure.user.service.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @Slf4j
 @RestController
@@ -45,21 +53,57 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Profiles of up to batch max-ids users in one call, keyed by userId. Admins and services
+     * get every requested profile; other callers only their own.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<UserProfileBatchResponse>> getProfilesByUserIds(
+            @Valid @RequestBody UserProfileBatchRequest request) {
+        log.debug("POST /users/batch - {} userIds", request.getUserIds().size());
+        try {
+            UserProfileBatchResponse batch = userService.getProfilesByUserIds(request.getUserIds());
+            ApiResponse<UserProfileBatchResponse> response = ApiResponse.<UserProfileBatchResponse>builder()
+                    .success(true)
+                    .message("Profiles retrieved successfully")
+                    .data(batch)
+                    .build();
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            ApiResponse<UserProfileBatchResponse> response = ApiResponse.<UserProfileBatchResponse>builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build();
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Admins can read any profile, other callers their own; {@link UserService} checks ownership
+     * in the query that loads the profile. A matching If-None-Match is answered with 304 from the
+     * profile's version, without loading it.
+     */
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @securityService.isOwner(#id)")
-    public ResponseEntity<ApiResponse<UserProfileDTO>> getProfileById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<UserProfileDTO>> getProfileById(@PathVariable Long id,
+                                                                      HttpServletRequest request) {
         log.debug("GET /users/{}", id);
+        Optional<String> notModified = notModifiedETag(request, () -> userService.getProfileVersion(id));
+        if (notModified.isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(notModified.get()).build();
+        }
         UserProfileDTO profile = userService.getProfileById(id);
         ApiResponse<UserProfileDTO> response = ApiResponse.<UserProfileDTO>builder()
                 .success(true)
                 .message("Profile retrieved successfully")
                 .data(profile)
                 .build();
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(String.valueOf(profile.getVersion())).body(response);
     }
 
+    /**
+     * Owners only, checked by {@link UserService} in the query that loads the profile
+     */
     @PutMapping("/{id}")
-    @PreAuthorize("@securityService.isOwner(#id)")
     public ResponseEntity<ApiResponse<UserProfileDTO>> updateProfile(
             @PathVariable Long id,
             @Valid @RequestBody UpdateProfileRequest request) {
@@ -85,8 +129,11 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * The caller's profile, or a default one if they have not saved theirs yet; read-only
+     */
     @GetMapping("/me")
-    public ResponseEntity<ApiResponse<UserProfileDTO>> getCurrentUserProfile() {
+    public ResponseEntity<ApiResponse<UserProfileDTO>> getCurrentUserProfile(HttpServletRequest request) {
         log.debug("GET /users/me");
         Long currentUserId = securityService.getCurrentUserId();
         if (currentUserId == null) {
@@ -96,14 +143,23 @@ public class UserController {
                     .build();
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
         }
+        Optional<String> notModified = notModifiedETag(request,
+                () -> userService.getProfileVersionByUserId(currentUserId));
+        if (notModified.isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(notModified.get()).build();
+        }
 
-        UserProfileDTO profile = userService.getOrCreateProfileByUserId(currentUserId);
+        UserProfileDTO profile = userService.getProfileOrDefault(currentUserId);
         ApiResponse<UserProfileDTO> response = ApiResponse.<UserProfileDTO>builder()
                 .success(true)
                 .message("Profile retrieved successfully")
                 .data(profile)
                 .build();
-        return ResponseEntity.ok(response);
+        if (profile.getVersion() == null) {
+            // default profile, not stored yet: nothing to revalidate against
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.ok().eTag(String.valueOf(profile.getVersion())).body(response);
     }
 
     @PutMapping("/me")
@@ -127,4 +183,16 @@ public class UserController {
                 .build();
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * The current ETag when the request's If-None-Match matches it, looked up from the version only
+     */
+    private Optional<String> notModifiedETag(HttpServletRequest request, Supplier<Optional<Long>> version) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            return Optional.empty();
+        }
+        return version.get()
+                .map(String::valueOf)
+                .filter(eTag -> new ServletWebRequest(request).checkNotModified(eTag));
+    }
 }
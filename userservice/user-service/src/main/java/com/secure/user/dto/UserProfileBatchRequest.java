@@ -0,0 +1,21 @@
+package com.secure.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Batch profile lookup request: the userIds to resolve
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfileBatchRequest {
+
+    @NotEmpty(message = "User IDs cannot be empty")
+    private List<@NotNull(message = "User ID is required") Long> userIds;
+}
@@ -0,0 +1,23 @@
+package com.secure.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch profile lookup result: found profiles keyed by userId, in request order, and the
+ * requested userIds without a profile the caller can read
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfileBatchResponse {
+
+    private Map<Long, UserProfileDTO> profiles;
+    private List<Long> notFound;
+}
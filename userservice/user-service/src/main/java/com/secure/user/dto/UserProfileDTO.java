@@ -17,4 +17,5 @@ public class UserProfileDTO {
     private String lastName;
     private String phoneNumber;
     private String address;
+    private Long version;
 }
@@ -13,6 +13,7 @@ import javax.persistence.Table;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
 import javax.persistence.Column;
+import javax.persistence.Version;
 import java.time.LocalDateTime;
 
 @Entity
@@ -46,6 +47,10 @@ public class UserProfile {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
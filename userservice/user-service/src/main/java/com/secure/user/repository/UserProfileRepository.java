@@ -2,12 +2,60 @@ package com.secure.user.repository;
 
 import com.secure.user.entity.UserProfile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserProfileRepository extends JpaRepository<UserProfile, Long> {
 
     Optional<UserProfile> findByUserId(Long userId);
+
+    List<UserProfile> findByUserIdIn(Collection<Long> userIds);
+
+    /**
+     * The profile only if it belongs to {@code userId}: loading and ownership check in one query
+     */
+    Optional<UserProfile> findByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Insert the user's profile, or update it (bumping the version) if one exists, in one
+     * statement keyed on user_id. Two transactions inserting the same user can both take the
+     * insert branch; the loser fails on the unique user_id and must run it again.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "MERGE INTO user_profiles p "
+            + "USING (VALUES (CAST(:userId AS BIGINT), CAST(:firstName AS VARCHAR(100)), "
+            + "CAST(:lastName AS VARCHAR(100)), CAST(:phoneNumber AS VARCHAR(20)), CAST(:address AS VARCHAR(255)))) "
+            + "AS r (user_id, first_name, last_name, phone_number, address) "
+            + "ON p.user_id = r.user_id "
+            + "WHEN MATCHED THEN UPDATE SET first_name = r.first_name, last_name = r.last_name, "
+            + "phone_number = r.phone_number, address = r.address, updated_at = :now, version = p.version + 1 "
+            + "WHEN NOT MATCHED THEN INSERT (user_id, first_name, last_name, phone_number, address, "
+            + "created_at, updated_at, version) "
+            + "VALUES (r.user_id, r.first_name, r.last_name, r.phone_number, r.address, :now, :now, 0)",
+            nativeQuery = true)
+    int upsertByUserId(@Param("userId") Long userId,
+                       @Param("firstName") String firstName,
+                       @Param("lastName") String lastName,
+                       @Param("phoneNumber") String phoneNumber,
+                       @Param("address") String address,
+                       @Param("now") LocalDateTime now);
+
+    @Query("SELECT p.version FROM UserProfile p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT p.version FROM UserProfile p WHERE p.id = :id AND p.userId = :userId")
+    Optional<Long> findVersionByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("SELECT p.version FROM UserProfile p WHERE p.userId = :userId")
+    Optional<Long> findVersionByUserId(@Param("userId") Long userId);
 }
@@ -1,36 +1,61 @@
 package com.secure.user.service;
 
-import com.secure.user.entity.UserProfile;
-import com.secure.user.repository.UserProfileRepository;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.util.Optional;
 
+/**
+ * The caller's identity from the JWT. Ownership of profiles is checked by {@link UserService}
+ * in the same query that loads them.
+ */
 @Slf4j
 @Service
 public class SecurityService {
 
-    @Autowired
-    private UserProfileRepository userProfileRepository;
+    private static final String CURRENT_USER_ID = SecurityService.class.getName() + ".currentUserId";
 
-    public boolean isOwner(Long profileId) {
-        log.debug("Checking ownership for profileId={}", profileId);
-        Long currentUserId = getCurrentUserId();
-        log.debug("Current userId={}", currentUserId);
-        if (currentUserId == null) {
-            return false;
+    /**
+     * The JWT's userId claim, read once per request
+     */
+    public Long getCurrentUserId() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            return readCurrentUserId();
+        }
+        @SuppressWarnings("unchecked")
+        Optional<Long> cached = (Optional<Long>) request.getAttribute(CURRENT_USER_ID, RequestAttributes.SCOPE_REQUEST);
+        if (cached == null) {
+            cached = Optional.ofNullable(readCurrentUserId());
+            request.setAttribute(CURRENT_USER_ID, cached, RequestAttributes.SCOPE_REQUEST);
         }
+        return cached.orElse(null);
+    }
 
-        Optional<UserProfile> profile = userProfileRepository.findById(profileId);
-        return profile.isPresent() && profile.get().getUserId().equals(currentUserId);
+    public boolean isAdmin() {
+        return hasRole("ROLE_ADMIN");
     }
 
-    public Long getCurrentUserId() {
+    /**
+     * Callers trusted with any profile without per-profile checks: admins and other services
+     * (tokens with the SERVICE role)
+     */
+    public boolean isTrustedCaller() {
+        return hasRole("ROLE_ADMIN") || hasRole("ROLE_SERVICE");
+    }
+
+    private boolean hasRole(String role) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> role.equals(authority.getAuthority()));
+    }
+
+    private Long readCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
         if (authentication == null || !authentication.isAuthenticated()) {
@@ -52,6 +77,7 @@ public class SecurityService {
             }
         }
 
+        log.debug("No userId claim for the current caller");
         return null;
     }
 }
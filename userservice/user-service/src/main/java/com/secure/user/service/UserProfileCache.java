@@ -0,0 +1,279 @@
+package com.secure.user.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.secure.user.dto.UserProfileDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Redis cache of {@link UserProfileDTO}, stored under both the profile id and the userId.
+ *
+ * Reads fill the cache with SET NX, so a profile loaded before a concurrent update never
+ * overwrites the value that update wrote through; writes replace both entries once their
+ * transaction commits, unless the cached profile has a higher version, so two updates whose
+ * after-commit writes run out of order leave the newer one cached. Deletes replace both entries
+ * with a tombstone for tombstone-ttl, which reads treat as a miss and which no later write
+ * replaces, so a reader or writer that loaded the profile before the delete committed cannot
+ * bring it back. A hit is answered without a database connection,
+ * so cached profiles stay readable through a brief database outage. Redis errors are treated
+ * as misses: the cache is never required to serve a request.
+ *
+ * Meters: {@code user.profile.cache.requests} by result (hit, miss, error) and the
+ * {@code user.profile.cache.hit.ratio} gauge.
+ */
+@Component
+@Slf4j
+public class UserProfileCache {
+
+    private static final String BY_ID = "user:profile:id:";
+    private static final String BY_USER_ID = "user:profile:user:";
+    private static final String TOMBSTONE = "deleted";
+
+    /**
+     * SET each key to ARGV[1] with a PX of ARGV[4] unless it holds the tombstone ARGV[3] or a
+     * profile whose version is higher than ARGV[2]; returns the number of keys set
+     */
+    private static final RedisScript<Long> PUT_IF_NEWER = new DefaultRedisScript<>(
+            "local written = 0\n"
+            + "local version = tonumber(ARGV[2]) or -1\n"
+            + "for _, key in ipairs(KEYS) do\n"
+            + "  local current = redis.call('GET', key)\n"
+            + "  local newer = current == ARGV[3]\n"
+            + "  if current and not newer then\n"
+            + "    local readable, cached = pcall(cjson.decode, current)\n"
+            + "    newer = readable and type(cached.version) == 'number' and cached.version > version\n"
+            + "  end\n"
+            + "  if not newer then\n"
+            + "    redis.call('SET', key, ARGV[1], 'PX', ARGV[4])\n"
+            + "    written = written + 1\n"
+            + "  end\n"
+            + "end\n"
+            + "return written", Long.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${user.profile.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${user.profile.cache.ttl:10m}")
+    private Duration ttl;
+
+    @Value("${user.profile.cache.tombstone-ttl:1m}")
+    private Duration tombstoneTtl;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("user.profile.cache.hit.ratio", this, UserProfileCache::hitRatio)
+                .description("Share of profile lookups answered from the cache")
+                .register(meterRegistry);
+    }
+
+    public Optional<UserProfileDTO> getById(Long id) {
+        return get(BY_ID + id);
+    }
+
+    public Optional<UserProfileDTO> getByUserId(Long userId) {
+        return get(BY_USER_ID + userId);
+    }
+
+    /**
+     * Cached profiles of many users in one round trip, keyed by userId; misses are left out
+     */
+    public Map<Long, UserProfileDTO> getByUserIds(Collection<Long> userIds) {
+        Map<Long, UserProfileDTO> found = new HashMap<>();
+        if (!enabled || userIds.isEmpty()) {
+            return found;
+        }
+        List<Long> ids = new ArrayList<>(userIds);
+        List<String> values;
+        try {
+            values = redisTemplate.opsForValue().multiGet(ids.stream()
+                    .map(userId -> BY_USER_ID + userId)
+                    .collect(Collectors.toList()));
+        } catch (RuntimeException e) {
+            log.debug("Profile cache read of {} users failed: {}", ids.size(), e.getMessage());
+            ids.forEach(userId -> record(misses, "error"));
+            return found;
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            decode(BY_USER_ID + ids.get(i), values == null ? null : values.get(i))
+                    .ifPresent(profile -> found.put(profile.getUserId(), profile));
+        }
+        return found;
+    }
+
+    /**
+     * Cache profiles read from the database, in one round trip, unless a write has cached them
+     * meanwhile
+     */
+    public void putAllIfAbsent(Collection<UserProfileDTO> profiles) {
+        fill(profiles);
+    }
+
+    /**
+     * Cache a profile read from the database, unless a write has cached it meanwhile
+     */
+    public void putIfAbsent(UserProfileDTO profile) {
+        fill(Collections.singletonList(profile));
+    }
+
+    /**
+     * Cache a profile just written, once the current transaction commits, unless a newer version
+     * of it is cached or it has been deleted
+     */
+    public void put(UserProfileDTO profile) {
+        afterCommit(() -> {
+            if (!enabled) {
+                return;
+            }
+            try {
+                redisTemplate.execute(PUT_IF_NEWER,
+                        Arrays.asList(BY_ID + profile.getId(), BY_USER_ID + profile.getUserId()),
+                        objectMapper.writeValueAsString(profile), String.valueOf(profile.getVersion()),
+                        TOMBSTONE, String.valueOf(ttl.toMillis()));
+            } catch (RuntimeException | JsonProcessingException e) {
+                log.debug("Profile cache write of {} failed: {}", profile.getId(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Replace a deleted profile's entries with tombstones once the current transaction commits
+     */
+    public void evict(Long id, Long userId) {
+        afterCommit(() -> {
+            if (!enabled) {
+                return;
+            }
+            try {
+                Expiration expiration = Expiration.from(tombstoneTtl);
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection strings = (StringRedisConnection) connection;
+                    strings.set(BY_ID + id, TOMBSTONE, expiration, SetOption.upsert());
+                    strings.set(BY_USER_ID + userId, TOMBSTONE, expiration, SetOption.upsert());
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                log.warn("Could not evict cached profile {}: {}", id, e.getMessage());
+            }
+        });
+    }
+
+    private Optional<UserProfileDTO> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String json;
+        try {
+            json = redisTemplate.opsForValue().get(key);
+        } catch (RuntimeException e) {
+            log.debug("Profile cache read of {} failed: {}", key, e.getMessage());
+            record(misses, "error");
+            return Optional.empty();
+        }
+        return decode(key, json);
+    }
+
+    private Optional<UserProfileDTO> decode(String key, String json) {
+        if (json == null || TOMBSTONE.equals(json)) {
+            record(misses, "miss");
+            return Optional.empty();
+        }
+        try {
+            UserProfileDTO profile = objectMapper.readValue(json, UserProfileDTO.class);
+            record(hits, "hit");
+            return Optional.of(profile);
+        } catch (JsonProcessingException e) {
+            log.debug("Unreadable cached profile {}: {}", key, e.getMessage());
+            record(misses, "error");
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * SET NX both entries of each profile in one pipelined round trip
+     */
+    private void fill(Collection<UserProfileDTO> profiles) {
+        if (!enabled || profiles.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, String> entries = new LinkedHashMap<>();
+            for (UserProfileDTO profile : profiles) {
+                String json = objectMapper.writeValueAsString(profile);
+                entries.put(BY_ID + profile.getId(), json);
+                entries.put(BY_USER_ID + profile.getUserId(), json);
+            }
+            Expiration expiration = Expiration.from(ttl);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection strings = (StringRedisConnection) connection;
+                entries.forEach((key, json) -> strings.set(key, json, expiration, SetOption.ifAbsent()));
+                return null;
+            });
+        } catch (RuntimeException | JsonProcessingException e) {
+            log.debug("Profile cache write of {} profiles failed: {}", profiles.size(), e.getMessage());
+        }
+    }
+
+    private void record(AtomicLong outcome, String result) {
+        outcome.incrementAndGet();
+        meterRegistry.counter("user.profile.cache.requests", "result", result).increment();
+    }
+
+    private double hitRatio() {
+        long hit = hits.get();
+        long total = hit + misses.get();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
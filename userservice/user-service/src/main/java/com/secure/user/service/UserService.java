@@ -1,16 +1,30 @@
 package com.secure.user.service;
 
+import com.secure.common.exception.ForbiddenException;
+import com.secure.common.exception.NotFoundException;
 import com.secure.user.dto.UpdateProfileRequest;
+import com.secure.user.dto.UserProfileBatchResponse;
 import com.secure.user.dto.UserProfileDTO;
 import com.secure.user.entity.UserProfile;
 import com.secure.user.repository.UserProfileRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -18,9 +32,21 @@ import java.util.stream.Collectors;
 @Transactional
 public class UserService {
 
+    private static final String DEFAULT_FIRST_NAME = "New";
+    private static final String DEFAULT_LAST_NAME = "User";
+
     @Autowired
     private UserProfileRepository userProfileRepository;
 
+    @Autowired
+    private SecurityService securityService;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Value("${user.profile.batch.max-ids:500}")
+    private int batchMaxIds;
+
     public List<UserProfileDTO> getAllProfiles() {
         log.debug("Fetching all user profiles");
         return userProfileRepository.findAll().stream()
@@ -28,81 +54,233 @@ public class UserService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * A profile readable by the caller: any profile for admins, otherwise only the caller's own
+     *
+     * @throws ForbiddenException if a non-admin asks for a profile that is not theirs or does not exist
+     * @throws NotFoundException if an admin asks for a profile that does not exist
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserProfileDTO getProfileById(Long id) {
         log.debug("Fetching user profile: {}", id);
-        UserProfile profile = userProfileRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.warn("User profile not found with id: {}", id);
-                    return new EntityNotFoundException("User profile not found with id: " + id);
-                });
-        return convertToDTO(profile);
+        Optional<UserProfileDTO> cached = userProfileCache.getById(id);
+        if (cached.isPresent()) {
+            if (!canRead(cached.get())) {
+                log.warn("User {} denied access to user profile {}", securityService.getCurrentUserId(), id);
+                throw new ForbiddenException("Access denied to user profile " + id);
+            }
+            return cached.get();
+        }
+        UserProfileDTO profile = convertToDTO(loadAuthorized(id, true));
+        userProfileCache.putIfAbsent(profile);
+        return profile;
+    }
+
+    /**
+     * Current version of a profile readable by the caller, without loading it; used to answer
+     * conditional GETs. Empty for a profile the caller may not read.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<Long> getProfileVersion(Long id) {
+        Optional<UserProfileDTO> cached = userProfileCache.getById(id);
+        if (cached.isPresent()) {
+            return cached.filter(this::canRead).map(UserProfileDTO::getVersion);
+        }
+        if (securityService.isAdmin()) {
+            return userProfileRepository.findVersionById(id);
+        }
+        Long currentUserId = securityService.getCurrentUserId();
+        return currentUserId == null
+                ? Optional.empty()
+                : userProfileRepository.findVersionByIdAndUserId(id, currentUserId);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<Long> getProfileVersionByUserId(Long userId) {
+        Optional<UserProfileDTO> cached = userProfileCache.getByUserId(userId);
+        if (cached.isPresent()) {
+            return cached.map(UserProfileDTO::getVersion);
+        }
+        return userProfileRepository.findVersionByUserId(userId);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserProfileDTO getProfileByUserId(Long userId) {
         log.debug("Fetching user profile by userId: {}", userId);
+        Optional<UserProfileDTO> cached = userProfileCache.getByUserId(userId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
         UserProfile profile = userProfileRepository.findByUserId(userId)
                 .orElseThrow(() -> {
                     log.warn("User profile not found for userId: {}", userId);
-                    return new EntityNotFoundException("User profile not found for userId: " + userId);
+                    return new NotFoundException("User profile not found for userId: " + userId);
                 });
-        return convertToDTO(profile);
+        UserProfileDTO dto = convertToDTO(profile);
+        userProfileCache.putIfAbsent(dto);
+        return dto;
     }
 
-    public UserProfileDTO getOrCreateProfileByUserId(Long userId) {
-        log.debug("Fetching or creating user profile by userId: {}", userId);
-        UserProfile profile = userProfileRepository.findByUserId(userId)
-                .orElseGet(() -> {
-                    log.info("User profile not found for userId: {}. Creating default profile", userId);
-                    UserProfile newProfile = UserProfile.builder()
-                            .userId(userId)
-                            .firstName("New")
-                            .lastName("User")
-                            .phoneNumber(null)
-                            .address(null)
-                            .build();
-                    return userProfileRepository.save(newProfile);
-                });
-        return convertToDTO(profile);
+    /**
+     * Profiles of many users, keyed by userId in request order: cache hits in one multi-get,
+     * the misses in one IN query. Admins and services read any profile without per-profile
+     * checks; other callers only get their own.
+     *
+     * @throws IllegalArgumentException if no or more than batch max-ids userIds are given
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UserProfileBatchResponse getProfilesByUserIds(Collection<Long> userIds) {
+        Set<Long> requested = new LinkedHashSet<>(userIds);
+        if (requested.isEmpty() || requested.size() > batchMaxIds) {
+            throw new IllegalArgumentException("Between 1 and " + batchMaxIds + " user ids are allowed");
+        }
+        Set<Long> readable = requested;
+        if (!securityService.isTrustedCaller()) {
+            Long currentUserId = securityService.getCurrentUserId();
+            readable = requested.contains(currentUserId)
+                    ? Collections.singleton(currentUserId)
+                    : Collections.emptySet();
+        }
+
+        Map<Long, UserProfileDTO> found = userProfileCache.getByUserIds(readable);
+        List<Long> misses = readable.stream()
+                .filter(userId -> !found.containsKey(userId))
+                .collect(Collectors.toList());
+        if (!misses.isEmpty()) {
+            log.debug("Fetching {} of {} user profiles from database", misses.size(), requested.size());
+            List<UserProfileDTO> loaded = userProfileRepository.findByUserIdIn(misses).stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+            loaded.forEach(profile -> found.put(profile.getUserId(), profile));
+            userProfileCache.putAllIfAbsent(loaded);
+        }
+
+        Map<Long, UserProfileDTO> profiles = new LinkedHashMap<>();
+        List<Long> notFound = new ArrayList<>();
+        for (Long userId : requested) {
+            UserProfileDTO profile = found.get(userId);
+            if (profile != null) {
+                profiles.put(userId, profile);
+            } else {
+                notFound.add(userId);
+            }
+        }
+        return UserProfileBatchResponse.builder()
+                .profiles(profiles)
+                .notFound(notFound)
+                .build();
     }
 
+    /**
+     * The user's profile, or an unsaved default ("New User", no id or version) when they have
+     * none yet. Never writes: cache first, then the repository's read-only transaction, which
+     * can be served by a replica; a cache hit needs no database connection. The profile is
+     * first stored by {@link #upsertProfileByUserId}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UserProfileDTO getProfileOrDefault(Long userId) {
+        log.debug("Fetching user profile or default by userId: {}", userId);
+        Optional<UserProfileDTO> cached = userProfileCache.getByUserId(userId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        Optional<UserProfile> profile = userProfileRepository.findByUserId(userId);
+        if (profile.isEmpty()) {
+            log.debug("No user profile for userId: {}, returning the default", userId);
+            return UserProfileDTO.builder()
+                    .userId(userId)
+                    .firstName(DEFAULT_FIRST_NAME)
+                    .lastName(DEFAULT_LAST_NAME)
+                    .build();
+        }
+        UserProfileDTO dto = convertToDTO(profile.get());
+        userProfileCache.putIfAbsent(dto);
+        return dto;
+    }
+
+    /**
+     * Update the caller's own profile
+     *
+     * @throws ForbiddenException if the profile is not the caller's or does not exist
+     */
     public UserProfileDTO updateProfile(Long id, UpdateProfileRequest request) {
         log.info("Updating user profile: {}", id);
-        UserProfile profile = userProfileRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.warn("User profile not found with id: {}", id);
-                    return new EntityNotFoundException("User profile not found with id: " + id);
-                });
+        UserProfile profile = loadAuthorized(id, false);
 
         profile.setFirstName(request.getFirstName());
         profile.setLastName(request.getLastName());
         profile.setPhoneNumber(request.getPhoneNumber());
         profile.setAddress(request.getAddress());
 
-        UserProfile updatedProfile = userProfileRepository.save(profile);
-        return convertToDTO(updatedProfile);
+        UserProfileDTO updatedProfile = convertToDTO(userProfileRepository.saveAndFlush(profile));
+        userProfileCache.put(updatedProfile);
+        return updatedProfile;
     }
 
+    /**
+     * Create or update the user's profile with one MERGE keyed on user_id. The MERGE runs in its
+     * own transaction: when a concurrent first update of the same user wins the insert, this one
+     * fails on the unique user_id and is run again, now taking the update branch.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserProfileDTO upsertProfileByUserId(Long userId, UpdateProfileRequest request) {
         log.info("Upserting user profile for userId: {}", userId);
-        UserProfile profile = userProfileRepository.findByUserId(userId)
-                .orElseGet(() -> UserProfile.builder().userId(userId).build());
-
-        profile.setFirstName(request.getFirstName());
-        profile.setLastName(request.getLastName());
-        profile.setPhoneNumber(request.getPhoneNumber());
-        profile.setAddress(request.getAddress());
-
-        UserProfile savedProfile = userProfileRepository.save(profile);
-        return convertToDTO(savedProfile);
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            upsert(userId, request, now);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Concurrent insert of the profile of userId {}, updating it instead", userId);
+            upsert(userId, request, now);
+        }
+        UserProfileDTO savedProfile = userProfileRepository.findByUserId(userId)
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new IllegalStateException(
+                        "User profile of userId " + userId + " missing after upsert"));
+        userProfileCache.put(savedProfile);
+        return savedProfile;
     }
 
     public void deleteProfile(Long id) {
         log.info("Deleting user profile: {}", id);
-        if (!userProfileRepository.existsById(id)) {
-            log.warn("User profile not found with id: {}", id);
-            throw new EntityNotFoundException("User profile not found with id: " + id);
+        UserProfile profile = userProfileRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("User profile not found with id: {}", id);
+                    return new NotFoundException("User profile not found with id: " + id);
+                });
+        userProfileRepository.delete(profile);
+        userProfileCache.evict(profile.getId(), profile.getUserId());
+    }
+
+    private void upsert(Long userId, UpdateProfileRequest request, LocalDateTime now) {
+        userProfileRepository.upsertByUserId(userId, request.getFirstName(), request.getLastName(),
+                request.getPhoneNumber(), request.getAddress(), now);
+    }
+
+    private boolean canRead(UserProfileDTO profile) {
+        return securityService.isAdmin() || profile.getUserId().equals(securityService.getCurrentUserId());
+    }
+
+    /**
+     * Load a profile together with the ownership check, in one query: the caller's own profile,
+     * or with {@code adminAccess} any profile for admins
+     */
+    private UserProfile loadAuthorized(Long id, boolean adminAccess) {
+        if (adminAccess && securityService.isAdmin()) {
+            return userProfileRepository.findById(id)
+                    .orElseThrow(() -> {
+                        log.warn("User profile not found with id: {}", id);
+                        return new NotFoundException("User profile not found with id: " + id);
+                    });
         }
-        userProfileRepository.deleteById(id);
+        Long currentUserId = securityService.getCurrentUserId();
+        if (currentUserId == null) {
+            throw new ForbiddenException("Access denied to user profile " + id);
+        }
+        return userProfileRepository.findByIdAndUserId(id, currentUserId)
+                .orElseThrow(() -> {
+                    log.warn("User {} denied access to user profile {}", currentUserId, id);
+                    return new ForbiddenException("Access denied to user profile " + id);
+                });
     }
 
     private UserProfileDTO convertToDTO(UserProfile profile) {
@@ -113,6 +291,7 @@ public class UserService {
                 .lastName(profile.getLastName())
                 .phoneNumber(profile.getPhoneNumber())
                 .address(profile.getAddress())
+                .version(profile.getVersion())
                 .build();
     }
 }
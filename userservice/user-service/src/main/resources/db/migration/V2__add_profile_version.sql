@@ -0,0 +1,2 @@
+-- Row version, bumped on every update; used for optimistic locking and ETags
+ALTER TABLE user_profiles ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,158 @@
+package com.secure.user.controller;
+
+import com.secure.common.exception.GlobalExceptionHandler;
+import com.secure.user.dto.UpdateProfileRequest;
+import com.secure.user.repository.UserProfileRepository;
+import com.secure.user.service.SecurityService;
+import com.secure.user.service.UserProfileCache;
+import com.secure.user.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Who gets which profiles from POST /users/batch. Unlike {@link UserControllerAuthorizationTest}
+ * the real {@link SecurityService} reads the caller's roles from a JWT in the security context;
+ * the profile cache is mocked empty.
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "user.profile.batch.max-ids=3"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserController.class, UserService.class, SecurityService.class})
+class UserBatchControllerTest {
+
+    private static final long OWNER = 42L;
+    private static final long OTHER = 43L;
+    private static final long MISSING = 44L;
+
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+
+    @MockBean
+    private UserProfileCache userProfileCache;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(userController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        userService.upsertProfileByUserId(OWNER, new UpdateProfileRequest("Ada", "Lovelace", "+44-20-0000", null));
+        userService.upsertProfileByUserId(OTHER, new UpdateProfileRequest("Grace", "Hopper", "+1-212-0000", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        userProfileRepository.deleteAll();
+    }
+
+    @Test
+    void userGetsOnlyTheirOwnProfileAndTheRestAsNotFound() throws Exception {
+        callAs(OWNER, "ROLE_USER");
+
+        batch("[42, 43, 44]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.profiles", hasKey("42")))
+                .andExpect(jsonPath("$.data.profiles", not(hasKey("43"))))
+                .andExpect(jsonPath("$.data.notFound", contains((int) OTHER, (int) MISSING)));
+    }
+
+    @Test
+    void userAskingOnlyForOthersGetsNoProfiles() throws Exception {
+        callAs(MISSING, "ROLE_USER");
+
+        batch("[42, 43]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.profiles").isEmpty())
+                .andExpect(jsonPath("$.data.notFound", contains((int) OWNER, (int) OTHER)));
+    }
+
+    @Test
+    void serviceTokenGetsEveryProfile() throws Exception {
+        callAs(1L, "ROLE_SERVICE");
+
+        batch("[42, 43, 44]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.profiles.42.firstName").value("Ada"))
+                .andExpect(jsonPath("$.data.profiles.43.firstName").value("Grace"))
+                .andExpect(jsonPath("$.data.notFound", contains((int) MISSING)));
+    }
+
+    @Test
+    void adminGetsEveryProfile() throws Exception {
+        callAs(9L, "ROLE_ADMIN");
+
+        batch("[42, 43]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.profiles.*.userId", containsInAnyOrder((int) OWNER, (int) OTHER)))
+                .andExpect(jsonPath("$.data.notFound", empty()));
+    }
+
+    @Test
+    void moreThanMaxIdsIsABadRequest() throws Exception {
+        callAs(9L, "ROLE_ADMIN");
+
+        batch("[1, 2, 3, 4]")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void emptyListIsABadRequest() throws Exception {
+        callAs(9L, "ROLE_ADMIN");
+
+        batch("[]")
+                .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions batch(String userIds) throws Exception {
+        return mockMvc.perform(post("/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userIds\": " + userIds + "}"));
+    }
+
+    private static void callAs(long userId, String role) {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("user" + userId)
+                .claim("userId", userId)
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new JwtAuthenticationToken(jwt, List.of(new SimpleGrantedAuthority(role))));
+    }
+}
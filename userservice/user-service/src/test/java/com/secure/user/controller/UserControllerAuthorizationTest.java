@@ -0,0 +1,153 @@
+package com.secure.user.controller;
+
+import com.secure.common.exception.GlobalExceptionHandler;
+import com.secure.user.dto.UpdateProfileRequest;
+import com.secure.user.dto.UserProfileDTO;
+import com.secure.user.repository.UserProfileRepository;
+import com.secure.user.service.SecurityService;
+import com.secure.user.service.UserProfileCache;
+import com.secure.user.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Who may read GET /users/{id}, through the controller and the shared exception handler down to
+ * the ownership queries. The caller comes from a mocked {@link SecurityService}; the profile
+ * cache is mocked empty unless a test primes it.
+ */
+@DataJpaTest(properties = "spring.cloud.config.enabled=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserController.class, UserService.class})
+class UserControllerAuthorizationTest {
+
+    private static final long OWNER = 42L;
+    private static final long OTHER = 43L;
+    private static final long ADMIN = 9L;
+
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+
+    @MockBean
+    private SecurityService securityService;
+
+    @MockBean
+    private UserProfileCache userProfileCache;
+
+    private MockMvc mockMvc;
+    private UserProfileDTO profile;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(userController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        profile = userService.upsertProfileByUserId(OWNER,
+                new UpdateProfileRequest("Ada", "Lovelace", "+44-20-0000", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userProfileRepository.deleteAll();
+    }
+
+    @Test
+    void ownerReadsTheirProfile() throws Exception {
+        callAs(OWNER, false);
+
+        mockMvc.perform(get("/users/{id}", profile.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag(profile)))
+                .andExpect(jsonPath("$.data.userId").value(OWNER));
+    }
+
+    @Test
+    void otherUserIsForbidden() throws Exception {
+        callAs(OTHER, false);
+
+        mockMvc.perform(get("/users/{id}", profile.getId()))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void otherUserIsForbiddenForAMissingProfileToo() throws Exception {
+        callAs(OTHER, false);
+
+        mockMvc.perform(get("/users/{id}", profile.getId() + 1000))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void adminReadsAnyProfile() throws Exception {
+        callAs(ADMIN, true);
+
+        mockMvc.perform(get("/users/{id}", profile.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.userId").value(OWNER));
+    }
+
+    @Test
+    void adminGetsNotFoundForAMissingProfile() throws Exception {
+        callAs(ADMIN, true);
+
+        mockMvc.perform(get("/users/{id}", profile.getId() + 1000))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void ownerRevalidatesWithTheirETag() throws Exception {
+        callAs(OWNER, false);
+
+        mockMvc.perform(get("/users/{id}", profile.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag(profile)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void otherUserCannotProbeTheVersionWithAnETag() throws Exception {
+        callAs(OTHER, false);
+
+        mockMvc.perform(get("/users/{id}", profile.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag(profile)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void otherUserCannotProbeTheVersionOfACachedProfile() throws Exception {
+        callAs(OTHER, false);
+        when(userProfileCache.getById(profile.getId())).thenReturn(Optional.of(profile));
+
+        mockMvc.perform(get("/users/{id}", profile.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag(profile)))
+                .andExpect(status().isForbidden());
+    }
+
+    private void callAs(long userId, boolean admin) {
+        when(securityService.getCurrentUserId()).thenReturn(userId);
+        when(securityService.isAdmin()).thenReturn(admin);
+    }
+
+    private static String eTag(UserProfileDTO profile) {
+        return "\"" + profile.getVersion() + "\"";
+    }
+}
@@ -0,0 +1,173 @@
+package com.secure.user.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.secure.user.dto.UserProfileDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs against an embedded Redis, so the SET NX fills, the version check of write-through
+ * puts (a Lua script) and the tombstones are exercised for real.
+ */
+class UserProfileCacheTest {
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserProfileCache cache;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute(connection -> {
+            connection.flushDb();
+            return null;
+        }, true);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = cache(redisTemplate);
+    }
+
+    @Test
+    void readFillsOnlyAnEmptyEntry() {
+        cache.put(profile(3L, "Ada"));
+        cache.putIfAbsent(profile(2L, "Stale"));
+
+        assertEquals("Ada", cache.getById(1L).orElseThrow().getFirstName());
+        assertEquals("Ada", cache.getByUserId(42L).orElseThrow().getFirstName());
+    }
+
+    @Test
+    void writeThroughReplacesAnOlderOrEqualVersion() {
+        cache.putIfAbsent(profile(2L, "Ada"));
+
+        cache.put(profile(3L, "Grace"));
+
+        assertEquals(3L, cache.getById(1L).orElseThrow().getVersion());
+        assertEquals("Grace", cache.getByUserId(42L).orElseThrow().getFirstName());
+    }
+
+    @Test
+    void lateWriteOfAnOlderVersionDoesNotReplaceANewerOne() {
+        cache.put(profile(4L, "Newer"));
+
+        cache.put(profile(3L, "Older"));
+
+        assertEquals(4L, cache.getById(1L).orElseThrow().getVersion());
+        assertEquals("Newer", cache.getByUserId(42L).orElseThrow().getFirstName());
+    }
+
+    @Test
+    void tombstoneReadsAsAMissAndKeepsStaleCopiesOut() {
+        cache.put(profile(3L, "Ada"));
+
+        cache.evict(1L, 42L);
+        cache.putIfAbsent(profile(3L, "Ada"));
+        cache.put(profile(3L, "Ada"));
+
+        assertEquals(Optional.empty(), cache.getById(1L));
+        assertEquals(Optional.empty(), cache.getByUserId(42L));
+        assertTrue(cache.getByUserIds(Arrays.asList(42L)).isEmpty());
+        Long ttl = redisTemplate.getExpire("user:profile:id:1");
+        assertTrue(ttl != null && ttl > 0 && ttl <= 60, "tombstone TTL " + ttl);
+    }
+
+    @Test
+    void batchReadReturnsHitsByUserId() {
+        cache.put(profile(3L, "Ada"));
+
+        Map<Long, UserProfileDTO> found = cache.getByUserIds(Arrays.asList(42L, 43L));
+
+        assertEquals(1, found.size());
+        assertEquals("Ada", found.get(42L).getFirstName());
+    }
+
+    @Test
+    void hitRatioCountsHitsAgainstMisses() {
+        cache.put(profile(3L, "Ada"));
+
+        cache.getById(1L);
+        cache.getById(2L);
+
+        assertEquals(0.5, meterRegistry.get("user.profile.cache.hit.ratio").gauge().value());
+        assertEquals(1.0, meterRegistry.get("user.profile.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("user.profile.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void redisErrorsAreMisses() {
+        StringRedisTemplate failing = mock(StringRedisTemplate.class);
+        when(failing.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+        when(failing.execute(any(), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        UserProfileCache down = cache(failing);
+
+        down.put(profile(3L, "Ada"));
+
+        assertEquals(Optional.empty(), down.getById(1L));
+        assertTrue(down.getByUserIds(Arrays.asList(42L)).isEmpty());
+        assertEquals(2.0, meterRegistry.get("user.profile.cache.requests").tag("result", "error").counter().count());
+    }
+
+    private UserProfileCache cache(StringRedisTemplate template) {
+        UserProfileCache profileCache = new UserProfileCache();
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        ReflectionTestUtils.setField(profileCache, "redisTemplate", template);
+        ReflectionTestUtils.setField(profileCache, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(profileCache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(profileCache, "enabled", true);
+        ReflectionTestUtils.setField(profileCache, "ttl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(profileCache, "tombstoneTtl", Duration.ofMinutes(1));
+        profileCache.registerMetrics();
+        return profileCache;
+    }
+
+    private static UserProfileDTO profile(long version, String firstName) {
+        return UserProfileDTO.builder()
+                .id(1L)
+                .userId(42L)
+                .firstName(firstName)
+                .lastName("Lovelace")
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.secure.user.service;
+
+import com.secure.user.dto.UpdateProfileRequest;
+import com.secure.user.dto.UserProfileDTO;
+import com.secure.user.repository.UserProfileRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the native MERGE of PUT /users/me against the Flyway schema. Not wrapped in a test
+ * transaction, like the service itself, so every upsert commits.
+ */
+@DataJpaTest(properties = "spring.cloud.config.enabled=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(UserService.class)
+class UserProfileUpsertTest {
+
+    private static final long USER_ID = 42L;
+
+    @Autowired
+    private UserService userService;
+
+    @SpyBean
+    private UserProfileRepository userProfileRepository;
+
+    @MockBean
+    private SecurityService securityService;
+
+    @MockBean
+    private UserProfileCache userProfileCache;
+
+    @AfterEach
+    void tearDown() {
+        userProfileRepository.findByUserId(USER_ID).ifPresent(userProfileRepository::delete);
+    }
+
+    @Test
+    void insertsTheFirstProfileOfAUserAtVersionZero() {
+        UserProfileDTO profile = userService.upsertProfileByUserId(USER_ID,
+                new UpdateProfileRequest("Ada", "Lovelace", "+44-20-0000", null));
+
+        assertNotNull(profile.getId());
+        assertEquals(USER_ID, profile.getUserId());
+        assertEquals("Ada", profile.getFirstName());
+        assertEquals("+44-20-0000", profile.getPhoneNumber());
+        assertEquals(0L, profile.getVersion());
+        verify(userProfileCache).put(profile);
+    }
+
+    @Test
+    void updatesAnExistingProfileAndBumpsItsVersion() {
+        UserProfileDTO created = userService.upsertProfileByUserId(USER_ID,
+                new UpdateProfileRequest("Ada", "Lovelace", "+44-20-0000", null));
+
+        UserProfileDTO updated = userService.upsertProfileByUserId(USER_ID,
+                new UpdateProfileRequest("Ada", "King", null, "London"));
+
+        assertEquals(created.getId(), updated.getId());
+        assertEquals("King", updated.getLastName());
+        assertNull(updated.getPhoneNumber());
+        assertEquals("London", updated.getAddress());
+        assertEquals(1L, updated.getVersion());
+        assertEquals(1, userProfileRepository.findByUserIdIn(List.of(USER_ID)).size());
+    }
+
+    @Test
+    void runsTheMergeAgainWhenAConcurrentInsertWins() {
+        Answer<?> repository = mockingDetails(userProfileRepository).getMockCreationSettings().getDefaultAnswer();
+        doThrow(new DataIntegrityViolationException("duplicate user_id"))
+                .doAnswer(repository)
+                .when(userProfileRepository)
+                .upsertByUserId(eq(USER_ID), any(), any(), any(), any(), any());
+
+        UserProfileDTO profile = userService.upsertProfileByUserId(USER_ID,
+                new UpdateProfileRequest("Ada", "Lovelace", null, null));
+
+        verify(userProfileRepository, times(2)).upsertByUserId(eq(USER_ID), any(), any(), any(), any(), any());
+        assertEquals("Lovelace", profile.getLastName());
+    }
+}